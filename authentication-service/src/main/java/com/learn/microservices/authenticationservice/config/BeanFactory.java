@@ -1,6 +1,5 @@
 package com.learn.microservices.authenticationservice.config;
 
-import com.learn.microservices.authenticationservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
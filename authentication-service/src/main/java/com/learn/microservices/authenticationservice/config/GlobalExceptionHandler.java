@@ -1,6 +1,7 @@
 package com.learn.microservices.authenticationservice.config;
 
 import com.learn.microservices.authenticationservice.dto.ErrorResponse;
+import com.learn.microservices.authenticationservice.exception.CredentialStoreUnavailableException;
 import com.learn.microservices.authenticationservice.exception.NotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -30,6 +31,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status.value()).body(errorResponse);
     }
 
+    @ExceptionHandler(CredentialStoreUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleCredentialStoreUnavailableException(CredentialStoreUnavailableException ex) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ErrorResponse errorResponse = new ErrorResponse("Service unavailable", ex.getMessage(), status.getReasonPhrase());
+        log.warn("Service unavailable: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value()).body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
         HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
@@ -0,0 +1,26 @@
+package com.learn.microservices.authenticationservice.controller;
+
+import com.learn.microservices.authenticationservice.dto.LastLoginResponse;
+import com.learn.microservices.authenticationservice.exception.NotFoundException;
+import com.learn.microservices.authenticationservice.service.LoginActivityRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/logins")
+@RequiredArgsConstructor
+public class LoginActivityController {
+
+    private final LoginActivityRecorder loginActivityRecorder;
+
+    @GetMapping("/{userId}/last")
+    public ResponseEntity<LastLoginResponse> getLastLogin(@PathVariable Long userId) {
+        return loginActivityRecorder.findLastLoginAt(userId)
+                .map(lastLoginAt -> ResponseEntity.ok(new LastLoginResponse(userId, lastLoginAt.toString())))
+                .orElseThrow(() -> new NotFoundException("No login recorded for user with id " + userId + "."));
+    }
+}
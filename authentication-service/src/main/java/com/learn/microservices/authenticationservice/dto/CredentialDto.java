@@ -0,0 +1,17 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@ToString(exclude = "password")
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialDto {
+    private Long userId;
+    private String email;
+    private String password;
+    private String role;
+}
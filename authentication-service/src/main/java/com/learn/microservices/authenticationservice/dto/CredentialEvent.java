@@ -0,0 +1,19 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@ToString(exclude = "password")
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialEvent {
+    private Long id;
+    private CredentialEventType eventType;
+    private Long userId;
+    private String email;
+    private String password;
+    private String role;
+}
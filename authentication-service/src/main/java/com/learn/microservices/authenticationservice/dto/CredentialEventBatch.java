@@ -0,0 +1,15 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialEventBatch {
+    private List<CredentialEvent> events;
+    private Long oldestEventId;
+}
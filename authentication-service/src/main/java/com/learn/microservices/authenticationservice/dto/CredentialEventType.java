@@ -0,0 +1,7 @@
+package com.learn.microservices.authenticationservice.dto;
+
+public enum CredentialEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,16 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialSnapshot {
+    private long lastEventId;
+    private List<CredentialDto> credentials;
+    private Long nextAfterUserId;
+}
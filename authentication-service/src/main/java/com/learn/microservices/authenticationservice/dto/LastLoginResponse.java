@@ -0,0 +1,12 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LastLoginResponse {
+
+    private Long userId;
+    private String lastLoginAt;
+}
@@ -0,0 +1,16 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import java.time.Instant;
+
+public record LoginAuditEntry(Long userId, String email, Instant firstLoginAt, Instant lastLoginAt, int loginCount) {
+
+    public LoginAuditEntry merge(Instant loginAt) {
+        return new LoginAuditEntry(userId, email, firstLoginAt, loginAt, loginCount + 1);
+    }
+
+    public LoginAuditEntry merge(LoginAuditEntry other) {
+        Instant first = firstLoginAt.isBefore(other.firstLoginAt) ? firstLoginAt : other.firstLoginAt;
+        Instant last = lastLoginAt.isAfter(other.lastLoginAt) ? lastLoginAt : other.lastLoginAt;
+        return new LoginAuditEntry(userId, email, first, last, loginCount + other.loginCount);
+    }
+}
@@ -0,0 +1,16 @@
+package com.learn.microservices.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString(exclude = "password")
+@AllArgsConstructor
+public class UserCredentials {
+
+    private final Long userId;
+    private final String email;
+    private final String password;
+    private final String role;
+}
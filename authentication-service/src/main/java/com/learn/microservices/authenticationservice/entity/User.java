@@ -1,56 +0,0 @@
-package com.learn.microservices.authenticationservice.entity;
-
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import jakarta.persistence.*;
-import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Size;
-import lombok.*;
-import org.hibernate.annotations.ColumnDefault;
-
-import java.sql.Date;
-
-@Setter
-@Getter
-@ToString
-@NoArgsConstructor
-@AllArgsConstructor
-@Entity
-@Table(name = "users")
-public class User {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "id", nullable = false)
-    private Long id;
-
-    @Size(max = 255)
-    @Email
-    @NotNull
-    @Column(name = "email", nullable = false)
-    private String email;
-
-    @Size(max = 255)
-    @NotNull
-    @JsonIgnore
-    @Column(name = "password", nullable = false)
-    private String password;
-
-    @Size(max = 50)
-    @NotNull
-    @Column(name = "role", nullable = false, length = 50)
-    private String role;
-
-    @NotNull
-    @ColumnDefault("CURRENT_TIMESTAMP")
-    @Column(name = "created_at", nullable = false)
-    @JsonIgnore
-    private Date createdAt;
-
-    @NotNull
-    @ColumnDefault("CURRENT_TIMESTAMP")
-    @Column(name = "updated_at", nullable = false)
-    @JsonIgnore
-    private Date updatedAt;
-
-}
@@ -0,0 +1,7 @@
+package com.learn.microservices.authenticationservice.exception;
+
+public class CredentialStoreUnavailableException extends RuntimeException {
+    public CredentialStoreUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.learn.microservices.authenticationservice.proxy;
+
+import com.learn.microservices.authenticationservice.dto.CredentialEventBatch;
+import com.learn.microservices.authenticationservice.dto.CredentialSnapshot;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "USER-SERVICE",
+        path = "/internal/credentials")
+public interface UserServiceProxy {
+    @GetMapping("/snapshot")
+    CredentialSnapshot getSnapshot(@RequestParam("afterUserId") Long afterUserId, @RequestParam("size") int size);
+
+    @GetMapping("/events")
+    CredentialEventBatch getEvents(@RequestParam("after") Long afterEventId, @RequestParam("size") int size);
+}
@@ -0,0 +1,37 @@
+package com.learn.microservices.authenticationservice.repository;
+
+import com.learn.microservices.authenticationservice.dto.LoginAuditEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class LoginAuditRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO login_audit (user_id, email, first_login_at, last_login_at, login_count) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<LoginAuditEntry> entries, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, batchSize, (ps, entry) -> {
+            ps.setLong(1, entry.userId());
+            ps.setString(2, entry.email());
+            ps.setTimestamp(3, Timestamp.from(entry.firstLoginAt()));
+            ps.setTimestamp(4, Timestamp.from(entry.lastLoginAt()));
+            ps.setInt(5, entry.loginCount());
+        });
+    }
+
+    public Optional<Instant> findLastLoginAt(Long userId) {
+        Timestamp lastLoginAt = jdbcTemplate.queryForObject(
+                "SELECT MAX(last_login_at) FROM login_audit WHERE user_id = ?", Timestamp.class, userId);
+        return Optional.ofNullable(lastLoginAt).map(Timestamp::toInstant);
+    }
+}
@@ -1,12 +0,0 @@
-package com.learn.microservices.authenticationservice.repository;
-
-import com.learn.microservices.authenticationservice.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-import java.util.Optional;
-
-@Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> getByEmail(String email);
-}
\ No newline at end of file
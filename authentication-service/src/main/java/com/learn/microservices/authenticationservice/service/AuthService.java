@@ -2,9 +2,9 @@ package com.learn.microservices.authenticationservice.service;
 
 import com.learn.microservices.authenticationservice.dto.LoginRequest;
 import com.learn.microservices.authenticationservice.dto.LoginResponse;
-import com.learn.microservices.authenticationservice.entity.User;
+import com.learn.microservices.authenticationservice.dto.UserCredentials;
+import com.learn.microservices.authenticationservice.exception.CredentialStoreUnavailableException;
 import com.learn.microservices.authenticationservice.exception.UserNotFoundException;
-import com.learn.microservices.authenticationservice.repository.UserRepository;
 import com.learn.microservices.authenticationservice.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,16 +14,21 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AuthService {
 
-    private final UserRepository userRepository;
+    private final CredentialStore credentialStore;
+    private final LoginActivityRecorder loginActivityRecorder;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
 
     public LoginResponse login(LoginRequest loginRequest) {
-        User user = userRepository.getByEmail(loginRequest.getEmail()).orElse(null);
-        if (user == null || !passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!credentialStore.isReady()) {
+            throw new CredentialStoreUnavailableException("Credential store is still loading, please retry shortly");
+        }
+        UserCredentials credentials = credentialStore.findByEmail(loginRequest.getEmail()).orElse(null);
+        if (credentials == null || !passwordEncoder.matches(loginRequest.getPassword(), credentials.getPassword())) {
             throw new UserNotFoundException("User not found");
         }
-        String token = jwtUtil.generateToken(user);
+        String token = jwtUtil.generateToken(credentials);
+        loginActivityRecorder.record(credentials);
         return new LoginResponse(token);
     }
 }
@@ -0,0 +1,71 @@
+package com.learn.microservices.authenticationservice.service;
+
+import com.learn.microservices.authenticationservice.dto.CredentialDto;
+import com.learn.microservices.authenticationservice.dto.UserCredentials;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory read model of login credentials, fed by user-service credential events. Reads are lock-free;
+ * writes come from the single sync thread and are serialized so the two indexes stay consistent.
+ */
+@Component
+public class CredentialStore {
+
+    private volatile Map<String, UserCredentials> credentialsByEmail = new ConcurrentHashMap<>();
+    private volatile Map<Long, String> emailByUserId = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public Optional<UserCredentials> findByEmail(String email) {
+        return Optional.ofNullable(credentialsByEmail.get(normalize(email)));
+    }
+
+    public synchronized void replaceAll(Collection<CredentialDto> credentials) {
+        Map<String, UserCredentials> newCredentialsByEmail = new ConcurrentHashMap<>(credentials.size() * 2);
+        Map<Long, String> newEmailByUserId = new ConcurrentHashMap<>(credentials.size() * 2);
+        Map<String, String> roles = new HashMap<>();
+        for (CredentialDto credential : credentials) {
+            String email = normalize(credential.getEmail());
+            String role = roles.computeIfAbsent(credential.getRole(), r -> r);
+            newCredentialsByEmail.put(email, new UserCredentials(credential.getUserId(), credential.getEmail(), credential.getPassword(), role));
+            newEmailByUserId.put(credential.getUserId(), email);
+        }
+        credentialsByEmail = newCredentialsByEmail;
+        emailByUserId = newEmailByUserId;
+        ready = true;
+    }
+
+    public synchronized void upsert(Long userId, String email, String password, String role) {
+        String normalizedEmail = normalize(email);
+        String previousEmail = emailByUserId.put(userId, normalizedEmail);
+        if (previousEmail != null && !previousEmail.equals(normalizedEmail)) {
+            credentialsByEmail.remove(previousEmail);
+        }
+        credentialsByEmail.put(normalizedEmail, new UserCredentials(userId, email, password, role));
+    }
+
+    public synchronized void remove(Long userId) {
+        String email = emailByUserId.remove(userId);
+        if (email != null) {
+            credentialsByEmail.remove(email);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return credentialsByEmail.size();
+    }
+
+    private String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,100 @@
+package com.learn.microservices.authenticationservice.service;
+
+import com.learn.microservices.authenticationservice.dto.CredentialDto;
+import com.learn.microservices.authenticationservice.dto.CredentialEvent;
+import com.learn.microservices.authenticationservice.dto.CredentialEventBatch;
+import com.learn.microservices.authenticationservice.dto.CredentialSnapshot;
+import com.learn.microservices.authenticationservice.proxy.UserServiceProxy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Slf4j
+public class CredentialSyncService {
+
+    private final UserServiceProxy userServiceProxy;
+    private final CredentialStore credentialStore;
+    private final int batchSize;
+
+    private long lastEventId;
+
+    public CredentialSyncService(UserServiceProxy userServiceProxy,
+                                 CredentialStore credentialStore,
+                                 @Value("${credentials.sync.batch-size}") int batchSize) {
+        this.userServiceProxy = userServiceProxy;
+        this.credentialStore = credentialStore;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        synchronize();
+    }
+
+    @Scheduled(fixedDelayString = "${credentials.sync.interval-ms}")
+    public synchronized void synchronize() {
+        try {
+            if (!credentialStore.isReady()) {
+                rebuildFromSnapshot();
+            }
+            applyPendingEvents();
+        } catch (Exception e) {
+            log.warn("Failed to synchronize credentials from user-service: {}", e.getMessage());
+            log.trace("Stack trace: ", e);
+        }
+    }
+
+    private void rebuildFromSnapshot() {
+        log.info("Rebuilding credential store from user-service snapshot.");
+        List<CredentialDto> credentials = new ArrayList<>();
+        Long snapshotEventId = null;
+        Long afterUserId = 0L;
+        do {
+            CredentialSnapshot page = userServiceProxy.getSnapshot(afterUserId, batchSize);
+            if (snapshotEventId == null) {
+                snapshotEventId = page.getLastEventId();
+            }
+            credentials.addAll(page.getCredentials());
+            afterUserId = page.getNextAfterUserId();
+        } while (afterUserId != null);
+
+        credentialStore.replaceAll(credentials);
+        lastEventId = snapshotEventId;
+        log.info("Loaded {} credentials from snapshot at event id {}.", credentials.size(), lastEventId);
+    }
+
+    private void applyPendingEvents() {
+        CredentialEventBatch batch;
+        do {
+            batch = userServiceProxy.getEvents(lastEventId, batchSize);
+            Long oldestEventId = batch.getOldestEventId();
+            if (oldestEventId != null && lastEventId < oldestEventId - 1) {
+                log.warn("Credential events after id {} were pruned before being applied, reloading snapshot.", lastEventId);
+                rebuildFromSnapshot();
+                return;
+            }
+            for (CredentialEvent event : batch.getEvents()) {
+                apply(event);
+                lastEventId = event.getId();
+            }
+            if (!batch.getEvents().isEmpty()) {
+                log.debug("Applied {} credential events, last event id {}.", batch.getEvents().size(), lastEventId);
+            }
+        } while (batch.getEvents().size() >= batchSize);
+    }
+
+    private void apply(CredentialEvent event) {
+        switch (event.getEventType()) {
+            case CREATED, UPDATED ->
+                    credentialStore.upsert(event.getUserId(), event.getEmail(), event.getPassword(), event.getRole());
+            case DELETED -> credentialStore.remove(event.getUserId());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.learn.microservices.authenticationservice.service;
+
+import com.learn.microservices.authenticationservice.dto.LoginAuditEntry;
+import com.learn.microservices.authenticationservice.dto.UserCredentials;
+import com.learn.microservices.authenticationservice.repository.LoginAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Write-behind recorder for successful logins. Repeated logins of the same user are coalesced in memory
+ * and periodically appended to login_audit in JDBC batches, keeping audit writes off the login path.
+ */
+@Service
+@Slf4j
+public class LoginActivityRecorder {
+
+    private final LoginAuditRepository loginAuditRepository;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxPending;
+    private final ConcurrentMap<Long, LoginAuditEntry> pending = new ConcurrentHashMap<>();
+    private final Counter droppedCounter;
+    private final Counter flushedCounter;
+    private final Timer flushTimer;
+
+    public LoginActivityRecorder(LoginAuditRepository loginAuditRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${login-audit.batch-size}") int batchSize,
+                                 @Value("${login-audit.max-pending}") int maxPending) {
+        this(loginAuditRepository, meterRegistry, Clock.systemUTC(), batchSize, maxPending);
+    }
+
+    LoginActivityRecorder(LoginAuditRepository loginAuditRepository, MeterRegistry meterRegistry, Clock clock,
+                          int batchSize, int maxPending) {
+        this.loginAuditRepository = loginAuditRepository;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.droppedCounter = meterRegistry.counter("login.audit.dropped");
+        this.flushedCounter = meterRegistry.counter("login.audit.flushed");
+        this.flushTimer = meterRegistry.timer("login.audit.flush");
+        Gauge.builder("login.audit.pending", pending, ConcurrentMap::size).register(meterRegistry);
+        Gauge.builder("login.audit.flush.lag.seconds", this, LoginActivityRecorder::flushLagSeconds).register(meterRegistry);
+    }
+
+    public void record(UserCredentials credentials) {
+        Instant now = clock.instant();
+        if (pending.size() >= maxPending && !pending.containsKey(credentials.getUserId())) {
+            droppedCounter.increment();
+            return;
+        }
+        pending.merge(credentials.getUserId(),
+                new LoginAuditEntry(credentials.getUserId(), credentials.getEmail(), now, now, 1),
+                (existing, ignored) -> existing.merge(now));
+    }
+
+    public Optional<Instant> findLastLoginAt(Long userId) {
+        Optional<Instant> pendingLastLogin = Optional.ofNullable(pending.get(userId)).map(LoginAuditEntry::lastLoginAt);
+        if (pendingLastLogin.isPresent()) {
+            return pendingLastLogin;
+        }
+        return loginAuditRepository.findLastLoginAt(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${login-audit.flush-interval-ms}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<LoginAuditEntry> entries = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LoginAuditEntry entry = pending.remove(userId);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+
+        try {
+            flushTimer.record(() -> loginAuditRepository.insertAll(entries, batchSize));
+            flushedCounter.increment(entries.size());
+            log.debug("Flushed {} login audit entries.", entries.size());
+        } catch (Exception e) {
+            log.warn("Failed to flush {} login audit entries: {}", entries.size(), e.getMessage());
+            log.trace("Stack trace: ", e);
+            requeue(entries);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} pending login audit entries before shutdown.", pending.size());
+        flush();
+        if (!pending.isEmpty()) {
+            droppedCounter.increment(pending.size());
+            log.warn("Dropped {} login audit entries that could not be flushed before shutdown.", pending.size());
+        }
+    }
+
+    private void requeue(List<LoginAuditEntry> entries) {
+        for (LoginAuditEntry entry : entries) {
+            if (pending.size() >= maxPending && !pending.containsKey(entry.userId())) {
+                droppedCounter.increment();
+                continue;
+            }
+            pending.merge(entry.userId(), entry, LoginAuditEntry::merge);
+        }
+    }
+
+    private double flushLagSeconds() {
+        Instant now = clock.instant();
+        return pending.values().stream()
+                .map(LoginAuditEntry::firstLoginAt)
+                .min(Instant::compareTo)
+                .map(oldest -> (now.toEpochMilli() - oldest.toEpochMilli()) / 1000.0)
+                .orElse(0.0);
+    }
+}
@@ -1,6 +1,6 @@
 package com.learn.microservices.authenticationservice.util;
 
-import com.learn.microservices.authenticationservice.entity.User;
+import com.learn.microservices.authenticationservice.dto.UserCredentials;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,7 +25,7 @@ public class JwtUtil {
         this.expirationTime = expirationTime;
     }
 
-    public String generateToken(User userDetails) {
+    public String generateToken(UserCredentials userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", userDetails.getRole());
         return createToken(claims, userDetails.getEmail());
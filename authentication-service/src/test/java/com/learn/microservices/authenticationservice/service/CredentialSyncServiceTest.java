@@ -0,0 +1,88 @@
+package com.learn.microservices.authenticationservice.service;
+
+import com.learn.microservices.authenticationservice.dto.*;
+import com.learn.microservices.authenticationservice.proxy.UserServiceProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CredentialSyncServiceTest {
+
+    @Mock
+    private UserServiceProxy userServiceProxy;
+
+    private CredentialStore credentialStore;
+
+    private CredentialSyncService credentialSyncService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        credentialStore = new CredentialStore();
+        credentialSyncService = new CredentialSyncService(userServiceProxy, credentialStore, 2);
+    }
+
+    @Test
+    void synchronize_ShouldLoadAllSnapshotPages() {
+        when(userServiceProxy.getSnapshot(0L, 2)).thenReturn(new CredentialSnapshot(5L, List.of(
+                new CredentialDto(1L, "a@mail.com", "hash-a", "USER"),
+                new CredentialDto(2L, "b@mail.com", "hash-b", "ADMIN")), 2L));
+        when(userServiceProxy.getSnapshot(2L, 2)).thenReturn(new CredentialSnapshot(7L, List.of(
+                new CredentialDto(3L, "c@mail.com", "hash-c", "USER")), null));
+        when(userServiceProxy.getEvents(anyLong(), anyInt())).thenReturn(new CredentialEventBatch(List.of(), 1L));
+
+        credentialSyncService.synchronize();
+
+        assertTrue(credentialStore.isReady());
+        assertEquals(3, credentialStore.size());
+        verify(userServiceProxy).getEvents(5L, 2);
+    }
+
+    @Test
+    void synchronize_ShouldApplyEventsInOrder() {
+        when(userServiceProxy.getSnapshot(0L, 2)).thenReturn(new CredentialSnapshot(0L, List.of(
+                new CredentialDto(1L, "a@mail.com", "hash-a", "USER")), null));
+        when(userServiceProxy.getEvents(0L, 2)).thenReturn(new CredentialEventBatch(List.of(
+                new CredentialEvent(1L, CredentialEventType.UPDATED, 1L, "new@mail.com", "hash-new", "ADMIN"),
+                new CredentialEvent(2L, CredentialEventType.CREATED, 2L, "b@mail.com", "hash-b", "USER")), 1L));
+        when(userServiceProxy.getEvents(2L, 2)).thenReturn(new CredentialEventBatch(List.of(
+                new CredentialEvent(3L, CredentialEventType.DELETED, 2L, null, null, null)), 1L));
+
+        credentialSyncService.synchronize();
+
+        assertTrue(credentialStore.findByEmail("a@mail.com").isEmpty());
+        assertEquals("ADMIN", credentialStore.findByEmail("NEW@mail.com").orElseThrow().getRole());
+        assertTrue(credentialStore.findByEmail("b@mail.com").isEmpty());
+    }
+
+    @Test
+    void synchronize_ShouldReloadSnapshotWhenEventsWerePruned() {
+        when(userServiceProxy.getSnapshot(0L, 2))
+                .thenReturn(new CredentialSnapshot(3L, List.of(), null))
+                .thenReturn(new CredentialSnapshot(40L, List.of(
+                        new CredentialDto(1L, "a@mail.com", "hash-a", "USER")), null));
+        when(userServiceProxy.getEvents(3L, 2)).thenReturn(new CredentialEventBatch(List.of(), 20L));
+
+        credentialSyncService.synchronize();
+
+        verify(userServiceProxy, times(2)).getSnapshot(0L, 2);
+        assertTrue(credentialStore.findByEmail("a@mail.com").isPresent());
+    }
+
+    @Test
+    void synchronize_ShouldKeepStoreNotReadyWhenUserServiceIsDown() {
+        when(userServiceProxy.getSnapshot(anyLong(), anyInt())).thenThrow(new RuntimeException("connection refused"));
+
+        credentialSyncService.synchronize();
+
+        assertFalse(credentialStore.isReady());
+    }
+}
@@ -0,0 +1,93 @@
+package com.learn.microservices.authenticationservice.service;
+
+import com.learn.microservices.authenticationservice.dto.LoginAuditEntry;
+import com.learn.microservices.authenticationservice.dto.UserCredentials;
+import com.learn.microservices.authenticationservice.repository.LoginAuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LoginActivityRecorderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock
+    private LoginAuditRepository loginAuditRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginActivityRecorder loginActivityRecorder;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        loginActivityRecorder = new LoginActivityRecorder(loginAuditRepository, meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC), 100, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldCoalesceRepeatedLoginsIntoOneEntry() {
+        loginActivityRecorder.record(credentials(1L));
+        loginActivityRecorder.record(credentials(1L));
+        loginActivityRecorder.record(credentials(2L));
+
+        loginActivityRecorder.flush();
+
+        ArgumentCaptor<List<LoginAuditEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAuditRepository).insertAll(captor.capture(), eq(100));
+        assertEquals(2, captor.getValue().size());
+        LoginAuditEntry first = captor.getValue().stream().filter(e -> e.userId() == 1L).findFirst().orElseThrow();
+        assertEquals(2, first.loginCount());
+        assertEquals(0, meterRegistry.get("login.audit.pending").gauge().value());
+    }
+
+    @Test
+    void record_ShouldDropNewUsers_WhenPendingIsFull() {
+        loginActivityRecorder.record(credentials(1L));
+        loginActivityRecorder.record(credentials(2L));
+        loginActivityRecorder.record(credentials(3L));
+        loginActivityRecorder.record(credentials(1L));
+
+        assertEquals(1, meterRegistry.get("login.audit.dropped").counter().count());
+        assertEquals(2, meterRegistry.get("login.audit.pending").gauge().value());
+    }
+
+    @Test
+    void flush_ShouldRequeueEntries_WhenInsertFails() {
+        doThrow(new RuntimeException("db down")).when(loginAuditRepository).insertAll(anyList(), anyInt());
+        loginActivityRecorder.record(credentials(1L));
+
+        loginActivityRecorder.flush();
+
+        assertEquals(Optional.of(NOW), loginActivityRecorder.findLastLoginAt(1L));
+        verify(loginAuditRepository, never()).findLastLoginAt(1L);
+    }
+
+    @Test
+    void findLastLoginAt_ShouldFallBackToRepository_WhenNothingPending() {
+        Instant stored = NOW.minusSeconds(60);
+        when(loginAuditRepository.findLastLoginAt(5L)).thenReturn(Optional.of(stored));
+
+        assertEquals(Optional.of(stored), loginActivityRecorder.findLastLoginAt(5L));
+    }
+
+    private UserCredentials credentials(Long userId) {
+        return new UserCredentials(userId, "user" + userId + "@mail.com", "hash", "USER");
+    }
+}
@@ -1,6 +1,9 @@
 package com.learn.microservices.departmentservice.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.util.FieldSet;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,6 +12,17 @@ public class BeanFactory {
 
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    /**
+     * Settings shared by the JSON mapper and the Smile / CBOR mappers, so every encoding writes the same DTOs.
+     */
+    public static <M extends ObjectMapper> M configure(M mapper) {
+        // Blackbird replaces reflective property access with generated lambdas.
+        mapper.registerModule(new BlackbirdModule())
+                .setFilterProvider(FieldSet.ALL_FIELDS)
+                .addMixIn(DepartmentDto.class, FieldSet.Filtered.class);
+        return mapper;
     }
 }
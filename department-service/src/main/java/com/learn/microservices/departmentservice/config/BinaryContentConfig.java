@@ -0,0 +1,47 @@
+package com.learn.microservices.departmentservice.config;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Serves and accepts the same DTOs as Smile ({@code application/x-jackson-smile}) or CBOR
+ * ({@code application/cbor}) for clients that ask for them in {@code Accept} / {@code Content-Type}. The binary
+ * converters come after the JSON one, so JSON stays the default for wildcard and missing
+ * {@code Accept} headers.
+ */
+@Configuration
+public class BinaryContentConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Replaces the defaults Spring registers when the formats are on the classpath, which lack our mapper settings.
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(BeanFactory.configure(new SmileMapper())));
+        converters.add(new MappingJackson2CborHttpMessageConverter(BeanFactory.configure(new CBORMapper())));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // The encoding depends on Accept, so shared caches must not hand one client's encoding to another.
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        });
+    }
+}
@@ -2,9 +2,13 @@ package com.learn.microservices.departmentservice.config;
 
 import com.learn.microservices.departmentservice.dto.ErrorResponse;
 import com.learn.microservices.departmentservice.exception.DepartmentAlreadyExistException;
+import com.learn.microservices.departmentservice.exception.InvalidBatchException;
+import com.learn.microservices.departmentservice.exception.InvalidFieldsException;
 import com.learn.microservices.departmentservice.exception.InvalidPaginationException;
 import com.learn.microservices.departmentservice.exception.NotFoundException;
+import com.learn.microservices.departmentservice.exception.PreconditionFailedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -37,6 +41,24 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse("Invalid pagination parameters", ex.getMessage(), status.getReasonPhrase()));
     }
 
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFieldsException(InvalidFieldsException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid fields: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid fields", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBatchException(InvalidBatchException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid batch: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid batch", ex.getMessage(), status.getReasonPhrase()));
+    }
+
     @ExceptionHandler(DepartmentAlreadyExistException.class)
     public ResponseEntity<ErrorResponse> handleDepartmentAlreadyExist(DepartmentAlreadyExistException ex) {
         HttpStatus status = HttpStatus.CONFLICT;
@@ -46,6 +68,24 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse("Department already exist", ex.getMessage(), status.getReasonPhrase()));
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+        log.warn("Precondition failed: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Precondition failed", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        log.warn("Concurrent update: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Concurrent update", "The resource was modified by another request, reload it and retry.", status.getReasonPhrase()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
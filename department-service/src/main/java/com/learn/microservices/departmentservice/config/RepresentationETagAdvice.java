@@ -0,0 +1,35 @@
+package com.learn.microservices.departmentservice.config;
+
+import com.learn.microservices.departmentservice.controller.DepartmentController;
+import com.learn.microservices.departmentservice.util.ETags;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the negotiated encoding to the entity tag set by the controller once the body's content type is known, so
+ * a Smile or CBOR body never shares a strong tag with the JSON one.
+ */
+@ControllerAdvice(assignableTypes = DepartmentController.class)
+public class RepresentationETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        String eTag = response.getHeaders().getETag();
+        if (eTag != null) {
+            response.getHeaders().setETag(ETags.forContentType(eTag, selectedContentType));
+        }
+        return body;
+    }
+}
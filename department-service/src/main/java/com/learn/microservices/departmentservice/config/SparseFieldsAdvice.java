@@ -0,0 +1,34 @@
+package com.learn.microservices.departmentservice.config;
+
+import com.learn.microservices.departmentservice.controller.DepartmentController;
+import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Writes only the departments' fields named by a {@code fields=} parameter on reads, using the filters precomputed
+ * for that selection.
+ */
+@ControllerAdvice(assignableTypes = DepartmentController.class)
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!HttpMethod.GET.equals(request.getMethod()) || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter("fields");
+        if (fields != null) {
+            bodyContainer.setFilters(DepartmentDto.FIELDS.parse(fields).filters());
+        }
+    }
+}
@@ -1,31 +1,44 @@
 package com.learn.microservices.departmentservice.controller;
 
+import com.learn.microservices.departmentservice.dto.CursorPageDto;
 import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.dto.PageDto;
+import com.learn.microservices.departmentservice.dto.VersionedDto;
+import com.learn.microservices.departmentservice.exception.InvalidBatchException;
 import com.learn.microservices.departmentservice.exception.InvalidPaginationException;
 import com.learn.microservices.departmentservice.service.DepartmentService;
+import com.learn.microservices.departmentservice.util.ETags;
+import com.learn.microservices.departmentservice.util.FieldSet;
 import com.learn.microservices.departmentservice.util.PaginationOptions;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/departments")
 @RequiredArgsConstructor
 @Slf4j
 public class DepartmentController {
 
+    // Well above the chunks user-service sends (users.batch.lookup-chunk-size and departments.existence.max-batch-size).
+    private static final int MAX_EXISTS_IDS = 1000;
+
     private final DepartmentService departmentservice;
 
     @GetMapping("/")
-    public ResponseEntity<Page<DepartmentDto>> getDepartments(
+    public ResponseEntity<PageDto<DepartmentDto>> getDepartments(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sortBy", required = false) String sortBy,
-            @RequestParam(value = "sortOrder", required = false) String sortOrder) {
+            @RequestParam(value = "sortOrder", required = false) String sortOrder,
+            @RequestParam(value = "fields", required = false) String fields) {
 
         PaginationOptions paginationOptions = new PaginationOptions(page, size, sortBy, sortOrder);
 
@@ -35,18 +48,53 @@ public class DepartmentController {
         }
         log.info("Fetching departments with pagination: page={}, size={}", paginationOptions.getPage(), paginationOptions.getSize());
 
-        Page<DepartmentDto> departmentsPage = departmentservice.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> departmentsPage = departmentservice.getDepartmentsByFilter(paginationOptions,
+                DepartmentDto.FIELDS.parse(fields));
 
         log.info("Successfully fetched {} departments.", departmentsPage.getTotalElements());
+        return ResponseEntity.ok(PageDto.of(departmentsPage));
+    }
+
+    @GetMapping(value = "/", params = "cursor")
+    public ResponseEntity<CursorPageDto<DepartmentDto>> getDepartmentsByCursor(
+            @RequestParam(value = "cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "sortOrder", required = false) String sortOrder,
+            @RequestParam(value = "fields", required = false) String fields) {
+
+        if (size <= 0) {
+            log.warn("Invalid pagination parameters: size={}", size);
+            throw new InvalidPaginationException("Size must be greater than 0.");
+        }
+        log.info("Fetching departments with cursor pagination: size={}", size);
+        // Validated up front; keyset pages read whole rows for their cursor, so the selection only narrows the JSON.
+        DepartmentDto.FIELDS.parse(fields);
+
+        CursorPageDto<DepartmentDto> departmentsPage = departmentservice.getDepartmentsByCursor(cursor,
+                new PaginationOptions(0, size, sortBy, sortOrder));
+
+        log.info("Successfully fetched {} departments.", departmentsPage.getSize());
         return ResponseEntity.ok(departmentsPage);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DepartmentDto> getDepartmentById(@PathVariable Long id) {
+    public ResponseEntity<DepartmentDto> getDepartmentById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "fields", required = false) String fields) {
         log.info("Fetching department by id: id={}", id);
-        DepartmentDto department = departmentservice.getDepartmentById(id);
+        FieldSet fieldSet = DepartmentDto.FIELDS.parse(fields);
+        long version = departmentservice.getDepartmentVersion(id);
+        String eTag = ETags.forAccept(version, accept);
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            log.info("Department with id {} not modified.", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        DepartmentDto department = departmentservice.getDepartmentById(id, fieldSet);
         log.info("Successfully fetched department by id: {}", id);
-        return ResponseEntity.ok(department);
+        return ResponseEntity.ok().eTag(ETags.of(version)).body(department);
     }
 
     @GetMapping("/name/{name}")
@@ -66,11 +114,14 @@ public class DepartmentController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<DepartmentDto> updateDepartment(@PathVariable Long id, @Valid @RequestBody DepartmentDto departmentDto) {
+    public ResponseEntity<DepartmentDto> updateDepartment(
+            @PathVariable Long id,
+            @Valid @RequestBody DepartmentDto departmentDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating department with id: {}, {}", id, departmentDto);
-        DepartmentDto updatedDepartment = departmentservice.updateDepartment(id, departmentDto);
-        log.info("Successfully updated department: {}", updatedDepartment);
-        return ResponseEntity.ok(updatedDepartment);
+        VersionedDto<DepartmentDto> updatedDepartment = departmentservice.updateDepartment(id, departmentDto, ETags.requiredVersion(ifMatch));
+        log.info("Successfully updated department: {}", updatedDepartment.value());
+        return ResponseEntity.ok().eTag(ETags.of(updatedDepartment.version())).body(updatedDepartment.value());
     }
 
     @DeleteMapping("/{id}")
@@ -86,6 +137,16 @@ public class DepartmentController {
         return departmentservice.isDepartmentExists(departmentId);
     }
 
+    @PostMapping("/exists")
+    public List<Long> findExistingDepartmentIds(@RequestBody List<Long> departmentIds) {
+        if (departmentIds.size() > MAX_EXISTS_IDS) {
+            log.warn("Rejected existence check of {} departments", departmentIds.size());
+            throw new InvalidBatchException("Cannot check more than " + MAX_EXISTS_IDS + " departments at once.");
+        }
+        log.info("Checking existence of {} departments", departmentIds.size());
+        return departmentservice.findExistingDepartmentIds(departmentIds);
+    }
+
     @GetMapping("/exists/name/{name}")
     public ResponseEntity<Boolean> checkDepartmentExistsByName(@PathVariable String name) {
         log.info("Checking if department exists by name: {}", name);
@@ -0,0 +1,35 @@
+package com.learn.microservices.departmentservice.controller;
+
+import com.learn.microservices.departmentservice.dto.DepartmentChangeBatchDto;
+import com.learn.microservices.departmentservice.dto.DepartmentIdSnapshotDto;
+import com.learn.microservices.departmentservice.service.DepartmentChangeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/department-ids")
+@RequiredArgsConstructor
+@Slf4j
+public class DepartmentIdController {
+
+    private final DepartmentChangeService departmentChangeService;
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<DepartmentIdSnapshotDto> getSnapshot() {
+        log.info("Fetching department id snapshot");
+        return ResponseEntity.ok(departmentChangeService.getSnapshot());
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<DepartmentChangeBatchDto> getChanges(
+            @RequestParam(value = "after", defaultValue = "0") Long afterChangeId,
+            @RequestParam(value = "size", defaultValue = "500") int size) {
+        log.debug("Fetching department changes after id: {}", afterChangeId);
+        return ResponseEntity.ok(departmentChangeService.getChanges(afterChangeId, size));
+    }
+}
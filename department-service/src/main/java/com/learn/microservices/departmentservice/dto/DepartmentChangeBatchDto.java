@@ -0,0 +1,15 @@
+package com.learn.microservices.departmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentChangeBatchDto {
+    private List<DepartmentChangeDto> changes;
+    private Long oldestChangeId;
+}
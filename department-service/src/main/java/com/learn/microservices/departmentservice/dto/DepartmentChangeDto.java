@@ -0,0 +1,20 @@
+package com.learn.microservices.departmentservice.dto;
+
+import com.learn.microservices.departmentservice.entity.DepartmentChange;
+import com.learn.microservices.departmentservice.entity.DepartmentChangeType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class DepartmentChangeDto {
+    private Long id;
+    private DepartmentChangeType changeType;
+    private Long departmentId;
+
+    public DepartmentChangeDto(DepartmentChange change) {
+        this.id = change.getSeq();
+        this.changeType = change.getChangeType();
+        this.departmentId = change.getDepartmentId();
+    }
+}
@@ -1,6 +1,7 @@
 package com.learn.microservices.departmentservice.dto;
 
 import com.learn.microservices.departmentservice.entity.Department;
+import com.learn.microservices.departmentservice.util.FieldSet;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -11,6 +12,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class DepartmentDto {
+
+    public static final FieldSet.Schema FIELDS = new FieldSet.Schema("id", "name", "description", "createdAt", "updatedAt");
+
     private Long id;
 
     @NotBlank(message = "Department name cannot be blank")
@@ -0,0 +1,13 @@
+package com.learn.microservices.departmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentIdSnapshotDto {
+    private long version;
+    private long[] ids;
+}
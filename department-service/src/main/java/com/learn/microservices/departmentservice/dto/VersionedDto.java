@@ -0,0 +1,7 @@
+package com.learn.microservices.departmentservice.dto;
+
+/**
+ * A response body together with the row version it was built from, which controllers send as the ETag.
+ */
+public record VersionedDto<T>(T value, long version) {
+}
@@ -47,13 +47,19 @@ public class Department {
     @JsonIgnore
     private Date updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
     public Department(DepartmentDto departmentDto) {
         this(
                 departmentDto.getId(),
                 departmentDto.getName(),
                 departmentDto.getDescription(),
                 new Date(System.currentTimeMillis()),
-                new Date(System.currentTimeMillis())
+                new Date(System.currentTimeMillis()),
+                null
         );
     }
 }
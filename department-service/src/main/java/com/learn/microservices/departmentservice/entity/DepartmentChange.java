@@ -0,0 +1,38 @@
+package com.learn.microservices.departmentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+
+@Setter
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "department_changes")
+public class DepartmentChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private DepartmentChangeType changeType;
+
+    @Column(name = "department_id", nullable = false)
+    private Long departmentId;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @Column(name = "seq", insertable = false, updatable = false)
+    private Long seq;
+
+    public DepartmentChange(DepartmentChangeType changeType, Long departmentId) {
+        this(null, changeType, departmentId, null, null);
+    }
+}
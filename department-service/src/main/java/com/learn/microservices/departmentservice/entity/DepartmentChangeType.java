@@ -0,0 +1,6 @@
+package com.learn.microservices.departmentservice.entity;
+
+public enum DepartmentChangeType {
+    CREATED,
+    DELETED
+}
@@ -0,0 +1,42 @@
+package com.learn.microservices.departmentservice.repository;
+
+import com.learn.microservices.departmentservice.entity.DepartmentChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DepartmentChangeRepository extends JpaRepository<DepartmentChange, Long> {
+    List<DepartmentChange> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+
+    @Query("select min(c.seq) from DepartmentChange c")
+    Optional<Long> findOldestChangeSeq();
+
+    @Query(value = "select last_seq from department_changes_seq", nativeQuery = true)
+    long findLastSeq();
+
+    @Query(value = "select last_seq from department_changes_seq for update", nativeQuery = true)
+    long lockLastSeq();
+
+    @Query(value = "select id from department_changes where seq is null order by id limit :limit", nativeQuery = true)
+    List<Long> findUnsequencedIds(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "update department_changes set seq = :seq where id = :id", nativeQuery = true)
+    void assignSeq(@Param("id") Long id, @Param("seq") long seq);
+
+    @Modifying
+    @Query(value = "update department_changes_seq set last_seq = :lastSeq", nativeQuery = true)
+    void updateLastSeq(@Param("lastSeq") long lastSeq);
+
+    @Modifying
+    @Query("delete from DepartmentChange c where c.createdAt < :createdBefore and c.seq is not null")
+    int deleteByCreatedAtBefore(@Param("createdBefore") Timestamp createdBefore);
+}
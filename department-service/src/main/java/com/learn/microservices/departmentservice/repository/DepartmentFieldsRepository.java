@@ -0,0 +1,18 @@
+package com.learn.microservices.departmentservice.repository;
+
+import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.util.FieldSet;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
+
+/**
+ * Reads that select only the columns of a {@link FieldSet}; fields outside the selection are left null.
+ */
+public interface DepartmentFieldsRepository {
+
+    Optional<DepartmentDto> findDtoById(Long id, FieldSet fields);
+
+    Slice<DepartmentDto> findDtoSlice(FieldSet fields, Pageable pageable);
+}
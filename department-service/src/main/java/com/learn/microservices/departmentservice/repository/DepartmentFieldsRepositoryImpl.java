@@ -0,0 +1,80 @@
+package com.learn.microservices.departmentservice.repository;
+
+import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.entity.Department;
+import com.learn.microservices.departmentservice.util.FieldSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * DTO field names match the entity's attribute names, so a selection maps one to one onto a tuple query.
+ */
+public class DepartmentFieldsRepositoryImpl implements DepartmentFieldsRepository {
+
+    private static final Map<String, BiConsumer<DepartmentDto, Object>> SETTERS = Map.of(
+            "id", (department, value) -> department.setId((Long) value),
+            "name", (department, value) -> department.setName((String) value),
+            "description", (department, value) -> department.setDescription((String) value),
+            "createdAt", (department, value) -> department.setCreatedAt(value == null ? null : value.toString()),
+            "updatedAt", (department, value) -> department.setUpdatedAt(value == null ? null : value.toString()));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<DepartmentDto> findDtoById(Long id, FieldSet fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Department> department = query.from(Department.class);
+        query.multiselect(select(department, fields)).where(cb.equal(department.get("id"), id));
+        return entityManager.createQuery(query).getResultStream().findFirst().map(tuple -> toDto(tuple, fields));
+    }
+
+    @Override
+    public Slice<DepartmentDto> findDtoSlice(FieldSet fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Department> department = query.from(Department.class);
+        query.multiselect(select(department, fields))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), department, cb));
+
+        // One row past the page tells whether another page follows, without a count query.
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<DepartmentDto> departments = rows.stream()
+                .limit(pageable.getPageSize())
+                .map(tuple -> toDto(tuple, fields))
+                .toList();
+        return new SliceImpl<>(departments, pageable, hasNext);
+    }
+
+    private static List<Selection<?>> select(Root<Department> department, FieldSet fields) {
+        return fields.names().stream().<Selection<?>>map(department::get).toList();
+    }
+
+    private static DepartmentDto toDto(Tuple tuple, FieldSet fields) {
+        DepartmentDto department = new DepartmentDto();
+        List<String> names = fields.names();
+        for (int i = 0; i < names.size(); i++) {
+            SETTERS.get(names.get(i)).accept(department, tuple.get(i));
+        }
+        return department;
+    }
+}
@@ -3,12 +3,31 @@ package com.learn.microservices.departmentservice.repository;
 import com.learn.microservices.departmentservice.entity.Department;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DepartmentRepository extends JpaRepository<Department, Long> {
+public interface DepartmentRepository extends JpaRepository<Department, Long>, DepartmentFieldsRepository {
     Optional<Department> getByName(@Size(max = 100) @NotNull String name);
+
+    Window<Department> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("select d.id from Department d order by d.id")
+    List<Long> findAllIds();
+
+    @Query("select d.version from Department d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select d.id from Department d where d.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.learn.microservices.departmentservice.service;
+
+import com.learn.microservices.departmentservice.dto.DepartmentChangeBatchDto;
+import com.learn.microservices.departmentservice.dto.DepartmentChangeDto;
+import com.learn.microservices.departmentservice.dto.DepartmentIdSnapshotDto;
+import com.learn.microservices.departmentservice.entity.DepartmentChange;
+import com.learn.microservices.departmentservice.entity.DepartmentChangeType;
+import com.learn.microservices.departmentservice.repository.DepartmentChangeRepository;
+import com.learn.microservices.departmentservice.repository.DepartmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Versioned feed of department ids for replicas in other services. Changes are written with the department row
+ * and get their feed position from {@link #sequenceCommittedChanges()} after commit, so the version a replica
+ * follows only ever moves past changes that are already visible.
+ */
+@Service
+@Slf4j
+public class DepartmentChangeService {
+
+    private final DepartmentChangeRepository departmentChangeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final long retentionMillis;
+    private final int maxBatchSize;
+
+    public DepartmentChangeService(DepartmentChangeRepository departmentChangeRepository,
+                                   DepartmentRepository departmentRepository,
+                                   @Value("${departments.changes.retention-hours}") long retentionHours,
+                                   @Value("${departments.changes.max-batch-size}") int maxBatchSize) {
+        this.departmentChangeRepository = departmentChangeRepository;
+        this.departmentRepository = departmentRepository;
+        this.retentionMillis = retentionHours * 60 * 60 * 1000;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void departmentCreated(Long departmentId) {
+        departmentChangeRepository.save(new DepartmentChange(DepartmentChangeType.CREATED, departmentId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void departmentDeleted(Long departmentId) {
+        departmentChangeRepository.save(new DepartmentChange(DepartmentChangeType.DELETED, departmentId));
+    }
+
+    @Transactional(readOnly = true)
+    public DepartmentIdSnapshotDto getSnapshot() {
+        long version = departmentChangeRepository.findLastSeq();
+        long[] ids = departmentRepository.findAllIds().stream().mapToLong(Long::longValue).toArray();
+        return new DepartmentIdSnapshotDto(version, ids);
+    }
+
+    @Transactional(readOnly = true)
+    public DepartmentChangeBatchDto getChanges(Long afterChangeId, int size) {
+        List<DepartmentChangeDto> changes = departmentChangeRepository
+                .findBySeqGreaterThanOrderBySeqAsc(afterChangeId, Limit.of(Math.min(size, maxBatchSize)))
+                .stream()
+                .map(DepartmentChangeDto::new)
+                .toList();
+        Long oldestChangeId = departmentChangeRepository.findOldestChangeSeq().orElse(null);
+        return new DepartmentChangeBatchDto(changes, oldestChangeId);
+    }
+
+    /**
+     * Numbers committed changes in id order while holding the counter row, so instances never interleave positions.
+     */
+    @Scheduled(fixedDelayString = "${departments.changes.sequence-interval-ms}")
+    @Transactional
+    public void sequenceCommittedChanges() {
+        long lastSeq = departmentChangeRepository.lockLastSeq();
+        List<Long> changeIds = departmentChangeRepository.findUnsequencedIds(maxBatchSize);
+        if (changeIds.isEmpty()) {
+            return;
+        }
+        for (Long changeId : changeIds) {
+            departmentChangeRepository.assignSeq(changeId, ++lastSeq);
+        }
+        departmentChangeRepository.updateLastSeq(lastSeq);
+    }
+
+    @Scheduled(fixedDelayString = "${departments.changes.prune-interval-ms}")
+    @Transactional
+    public void pruneExpiredChanges() {
+        int deleted = departmentChangeRepository.deleteByCreatedAtBefore(new Timestamp(System.currentTimeMillis() - retentionMillis));
+        if (deleted > 0) {
+            log.info("Pruned {} expired department changes.", deleted);
+        }
+    }
+}
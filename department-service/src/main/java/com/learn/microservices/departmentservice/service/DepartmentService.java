@@ -2,29 +2,39 @@ package com.learn.microservices.departmentservice.service;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.departmentservice.dto.CursorPageDto;
 import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.dto.VersionedDto;
 import com.learn.microservices.departmentservice.entity.Department;
 import com.learn.microservices.departmentservice.exception.DepartmentNotFoundException;
 import com.learn.microservices.departmentservice.exception.DepartmentAlreadyExistException;
+import com.learn.microservices.departmentservice.exception.PreconditionFailedException;
 import com.learn.microservices.departmentservice.repository.DepartmentRepository;
+import com.learn.microservices.departmentservice.util.FieldSet;
+import com.learn.microservices.departmentservice.util.KeysetCursor;
 import com.learn.microservices.departmentservice.util.PaginationOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DepartmentService {
+    private static final Set<String> CURSOR_SORT_FIELDS = Set.of("id", "name");
+
     private final DepartmentRepository departmentRepo;
     private final ObjectMapper objectMapper;
+    private final DepartmentChangeService departmentChangeService;
 
-    public Page<DepartmentDto> getDepartmentsByFilter(PaginationOptions paginationOptions) {
+    public Page<DepartmentDto> getDepartmentsByFilter(PaginationOptions paginationOptions, FieldSet fields) {
         log.info("Fetching departments with pagination, page: {}, size: {}", paginationOptions.getPage(), paginationOptions.getSize());
         try {
             Page<Department> departments;
@@ -43,10 +53,16 @@ public class DepartmentService {
 
             Pageable sortedPageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), sort);
 
-            log.info("Fetching all departments.");
-            departments = departmentRepo.findAll(sortedPageable);
-
-            Page<DepartmentDto> departmentsDtos = departments.map(DepartmentDto::new);
+            Page<DepartmentDto> departmentsDtos;
+            if (fields.isAll()) {
+                log.info("Fetching all departments.");
+                departments = departmentRepo.findAll(sortedPageable);
+                departmentsDtos = departments.map(DepartmentDto::new);
+            } else {
+                log.info("Fetching all departments with fields: {}", fields.names());
+                Slice<DepartmentDto> slice = departmentRepo.findDtoSlice(fields, sortedPageable);
+                departmentsDtos = new PageImpl<>(slice.getContent(), sortedPageable, departmentRepo.count());
+            }
             log.info("Successfully fetched {} departments.", departmentsDtos.getTotalElements());
             return departmentsDtos;
         } catch (Exception e) {
@@ -56,13 +72,48 @@ public class DepartmentService {
         }
     }
 
-    public DepartmentDto getDepartmentById(Long id) {
+    public CursorPageDto<DepartmentDto> getDepartmentsByCursor(String cursor, PaginationOptions paginationOptions) {
+        KeysetCursor keysetCursor = cursor == null || cursor.isBlank()
+                ? KeysetCursor.first(paginationOptions.getSortBy(), paginationOptions.getSortOrder(), CURSOR_SORT_FIELDS)
+                : KeysetCursor.decode(cursor, CURSOR_SORT_FIELDS);
+        log.info("Fetching departments by cursor, sort: {} {}, size: {}", keysetCursor.sortBy(), keysetCursor.direction(), paginationOptions.getSize());
+
+        Window<Department> departments = departmentRepo.findAllBy(keysetCursor.position(), keysetCursor.sort(),
+                Limit.of(paginationOptions.getSize()));
+
+        String nextCursor = departments.hasNext() && !departments.isEmpty()
+                ? keysetCursor.next(departments.positionAt(departments.size() - 1)).encode()
+                : null;
+        log.info("Successfully fetched {} departments by cursor.", departments.size());
+        return new CursorPageDto<>(departments.map(DepartmentDto::new).getContent(), departments.size(), nextCursor != null, nextCursor);
+    }
+
+    public DepartmentDto getDepartmentById(Long id, FieldSet fields) {
         log.info("Fetching department by id: {}", id);
+        if (!fields.isAll()) {
+            return departmentRepo.findDtoById(id, fields).orElseThrow(() -> {
+                String msg = "Department with id " + id + " not found.";
+                log.warn(msg);
+                return new DepartmentNotFoundException(msg);
+            });
+        }
         Department department = getDepartmentIfExist(id);
 
         return new DepartmentDto(department);
     }
 
+    /**
+     * Reads only the row version, which changes on every update, so conditional requests can be answered
+     * without loading the department.
+     */
+    public long getDepartmentVersion(Long id) {
+        return departmentRepo.findVersionById(id).orElseThrow(() -> {
+            String msg = "Department with id " + id + " not found.";
+            log.warn(msg);
+            return new DepartmentNotFoundException(msg);
+        });
+    }
+
     public DepartmentDto getDepartmentByName(String name) {
         log.info("Fetching department by name: {}", name);
 
@@ -75,6 +126,7 @@ public class DepartmentService {
         return new DepartmentDto(department);
     }
 
+    @Transactional
     public DepartmentDto saveDepartment(DepartmentDto departmentDto) {
         if (checkDepartmentExistsByName(departmentDto.getName())) {
             String msg = "Department with name " + departmentDto.getName() + " already exists.";
@@ -89,9 +141,11 @@ public class DepartmentService {
         department.setName(department.getName().toLowerCase());
 
         Department createdDepartment = departmentRepo.save(department);
+        departmentChangeService.departmentCreated(createdDepartment.getId());
         return new DepartmentDto(createdDepartment);
     }
 
+    @Transactional
     public void deleteDepartment(Long id) {
         log.info("Deleting department with id: {}", id);
         if (!departmentRepo.existsById(id)) {
@@ -100,11 +154,19 @@ public class DepartmentService {
             throw new DepartmentNotFoundException(msg);
         }
         departmentRepo.deleteById(id);
+        departmentChangeService.departmentDeleted(id);
         log.info("Department with id {} deleted successfully.", id);
     }
 
-    public DepartmentDto updateDepartment(Long id, DepartmentDto departmentDto) {
+    /**
+     * Replaces a department. When {@code expectedVersion} is given the update only goes ahead if the department
+     * still has that version; in any case the UPDATE is guarded by the version that was read, so a concurrent
+     * change makes it fail instead of being overwritten.
+     */
+    @Transactional
+    public VersionedDto<DepartmentDto> updateDepartment(Long id, DepartmentDto departmentDto, Long expectedVersion) {
         Department existingDepartment = getDepartmentIfExist(id);
+        checkVersion(existingDepartment, expectedVersion);
 
         log.info("Updating department with id: {}", id);
         if (!existingDepartment.getName().equalsIgnoreCase(departmentDto.getName())
@@ -124,15 +186,23 @@ public class DepartmentService {
 
         existingDepartment.setName(existingDepartment.getName().toLowerCase());
 
-        Department savedDepartment = departmentRepo.save(existingDepartment);
+        Department savedDepartment = departmentRepo.saveAndFlush(existingDepartment);
         log.info("Department with id {} updated successfully.", id);
-        return new DepartmentDto(savedDepartment);
+        return new VersionedDto<>(new DepartmentDto(savedDepartment), savedDepartment.getVersion());
     }
 
     public boolean checkDepartmentExistsByName(String name) {
         return departmentRepo.getByName(name.toLowerCase()).isPresent();
     }
 
+    private static void checkVersion(Department department, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(department.getVersion())) {
+            String msg = "Department with id " + department.getId() + " is at version " + department.getVersion() + ", not " + expectedVersion + ".";
+            log.warn(msg);
+            throw new PreconditionFailedException(msg);
+        }
+    }
+
     private Department getDepartmentIfExist(Long id) {
         return departmentRepo.findById(id).orElseThrow(() -> {
             String msg = "Department with id " + id + " not found.";
@@ -144,4 +214,11 @@ public class DepartmentService {
     public boolean isDepartmentExists(Long departmentId) {
         return departmentRepo.existsById(departmentId);
     }
+
+    public List<Long> findExistingDepartmentIds(Collection<Long> departmentIds) {
+        if (departmentIds.isEmpty()) {
+            return List.of();
+        }
+        return departmentRepo.findExistingIds(departmentIds);
+    }
 }
@@ -0,0 +1,141 @@
+package com.learn.microservices.departmentservice.util;
+
+import com.learn.microservices.departmentservice.exception.PreconditionFailedException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Strong entity tags built from row versions, and {@code If-None-Match} / {@code If-Match} handling as described
+ * in RFC 9110. JSON bodies are tagged {@code "<version>"}; Smile and CBOR bodies of the same version are different
+ * bytes, so they carry the encoding as well, e.g. {@code "<version>-cbor"}.
+ */
+public final class ETags {
+
+    private static final String SMILE_SUFFIX = "-smile";
+    private static final String CBOR_SUFFIX = "-cbor";
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the tag of the representation written as {@code contentType}, derived from the JSON tag. Tags
+     * that already carry an encoding are returned as they are.
+     */
+    public static String forContentType(String eTag, MediaType contentType) {
+        if (contentType == null || eTag.length() < 2 || !eTag.endsWith("\"")
+                || eTag.endsWith(SMILE_SUFFIX + "\"") || eTag.endsWith(CBOR_SUFFIX + "\"")) {
+            return eTag;
+        }
+        String suffix = SMILE.isCompatibleWith(contentType) ? SMILE_SUFFIX
+                : MediaType.APPLICATION_CBOR.isCompatibleWith(contentType) ? CBOR_SUFFIX
+                : null;
+        return suffix == null ? eTag : eTag.substring(0, eTag.length() - 1) + suffix + "\"";
+    }
+
+    /**
+     * @return the tag of the given version as the representation an {@code Accept} header selects. As with the
+     * converter order in {@code BinaryContentConfig}, that is JSON unless Smile or CBOR has a higher quality.
+     */
+    public static String forAccept(long version, String accept) {
+        MediaType selected = MediaType.APPLICATION_JSON;
+        double selectedQuality = quality(accept, selected);
+        for (MediaType candidate : List.of(SMILE, MediaType.APPLICATION_CBOR)) {
+            double candidateQuality = quality(accept, candidate);
+            if (candidateQuality > selectedQuality) {
+                selected = candidate;
+                selectedQuality = candidateQuality;
+            }
+        }
+        return forContentType(of(version), selected);
+    }
+
+    /**
+     * @return whether the {@code If-None-Match} header lists {@code eTag}, the tag of the representation that
+     * would be sent. Tags of other encodings of the same version do not match, as their bytes differ. Weak tags
+     * match their strong counterparts, as the header uses weak comparison.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the version an {@code If-Match} header requires, or {@code null} when there is no header or it is
+     * {@code *}. Only a single strong tag is accepted; anything else can never match.
+     */
+    public static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Long version = versionOf(ifMatch.trim());
+        if (version == null) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version.");
+        }
+        return version;
+    }
+
+    /**
+     * @return the version of one of our strong tags in any encoding, or {@code null} for anything else.
+     */
+    private static Long versionOf(String tag) {
+        if (tag.length() <= 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        if (value.endsWith(SMILE_SUFFIX)) {
+            value = value.substring(0, value.length() - SMILE_SUFFIX.length());
+        } else if (value.endsWith(CBOR_SUFFIX)) {
+            value = value.substring(0, value.length() - CBOR_SUFFIX.length());
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the quality the most specific range of {@code accept} that includes {@code type} gives it, 1 when
+     * there is no usable header and 0 when no range includes it.
+     */
+    private static double quality(String accept, MediaType type) {
+        List<MediaType> ranges;
+        try {
+            ranges = accept == null || accept.isBlank() ? List.of() : MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            ranges = List.of();
+        }
+        if (ranges.isEmpty()) {
+            return 1;
+        }
+        MediaType match = null;
+        for (MediaType range : ranges) {
+            if (range.includes(type) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        return match == null ? 0 : match.getQualityValue();
+    }
+
+    private static int specificity(MediaType range) {
+        return (range.isWildcardType() ? 0 : 1) + (range.isWildcardSubtype() ? 0 : 1);
+    }
+}
@@ -0,0 +1,108 @@
+package com.learn.microservices.departmentservice.util;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.learn.microservices.departmentservice.exception.InvalidFieldsException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A validated {@code fields=} selection for sparse responses. Each distinct selection is built once per
+ * {@link Schema}, together with the Jackson filter that writes it, so a request only parses the parameter and
+ * looks the selection up.
+ */
+public final class FieldSet {
+
+    public static final String FILTER_ID = "fields";
+
+    /**
+     * Filters for mappers that know the {@link Filtered} mix-in when no selection applies: write every property.
+     */
+    public static final FilterProvider ALL_FIELDS = new SimpleFilterProvider()
+            .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+
+    private final List<String> names;
+    private final Set<String> included;
+    private final FilterProvider filters;
+
+    private FieldSet(List<String> names, boolean all) {
+        this.names = List.copyOf(names);
+        this.included = all ? null : Set.copyOf(names);
+        this.filters = all ? ALL_FIELDS : new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(included));
+    }
+
+    public boolean isAll() {
+        return included == null;
+    }
+
+    public boolean includes(String name) {
+        return included == null || included.contains(name);
+    }
+
+    /**
+     * @return the selected names, in the order the schema declares them.
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    public FilterProvider filters() {
+        return filters;
+    }
+
+    /**
+     * Mix-in that routes a DTO through the {@link #FILTER_ID} filter.
+     */
+    @JsonFilter(FILTER_ID)
+    public interface Filtered {
+    }
+
+    /**
+     * The fields a DTO can be narrowed to. At most one {@link FieldSet} exists per distinct selection.
+     */
+    public static final class Schema {
+
+        private final List<String> names;
+        private final FieldSet all;
+        private final Map<Set<String>, FieldSet> selections = new ConcurrentHashMap<>();
+
+        public Schema(String... names) {
+            this.names = List.of(names);
+            this.all = new FieldSet(this.names, true);
+        }
+
+        public FieldSet all() {
+            return all;
+        }
+
+        /**
+         * @param fields comma separated field names, or null / blank for all fields.
+         * @throws InvalidFieldsException if a name is not part of this schema.
+         */
+        public FieldSet parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                return all;
+            }
+            Set<String> selected = new HashSet<>();
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!names.contains(name)) {
+                    throw new InvalidFieldsException("Unknown field " + name + ", expected any of " + names + ".");
+                }
+                selected.add(name);
+            }
+            if (selected.isEmpty() || selected.size() == names.size()) {
+                return all;
+            }
+            return selections.computeIfAbsent(Set.copyOf(selected),
+                    key -> new FieldSet(names.stream().filter(key::contains).toList(), false));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.learn.microservices.departmentservice.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.departmentservice.exception.InvalidPaginationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Continuation token for keyset pagination. It carries the sort and the sort key and id of the last row
+ * returned, and is handed to clients as an opaque URL-safe base64 string, so the next page seeks past that row
+ * through the matching index instead of skipping an offset.
+ */
+public record KeysetCursor(String sortBy, Sort.Direction direction, Map<String, Object> keys) {
+
+    private static final String ID = "id";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static KeysetCursor first(String sortBy, String sortOrder, Set<String> sortableFields) {
+        String field = sortBy == null || sortBy.isBlank() ? ID : sortBy;
+        if (!sortableFields.contains(field)) {
+            throw new InvalidPaginationException("Cursor pagination can only sort by " + String.join(", ", sortableFields) + ".");
+        }
+        Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return new KeysetCursor(field, direction, null);
+    }
+
+    public static KeysetCursor decode(String token, Set<String> sortableFields) {
+        Map<String, Object> values;
+        try {
+            values = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(token), new TypeReference<>() {
+            });
+        } catch (Exception e) {
+            throw new InvalidPaginationException("Invalid cursor.");
+        }
+        if (!(values.get("sort") instanceof String sortBy) || !sortableFields.contains(sortBy)
+                || !(values.get("order") instanceof String order)
+                || !(values.get("keys") instanceof Map<?, ?> rawKeys)
+                || !(rawKeys.get(ID) instanceof Number)) {
+            throw new InvalidPaginationException("Invalid cursor.");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        rawKeys.forEach((key, value) -> keys.put(String.valueOf(key), ID.equals(key) ? ((Number) value).longValue() : value));
+        return new KeysetCursor(sortBy, Sort.Direction.fromOptionalString(order).orElse(Sort.Direction.ASC), keys);
+    }
+
+    public Sort sort() {
+        Sort sort = Sort.by(direction, sortBy);
+        return ID.equals(sortBy) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    public ScrollPosition position() {
+        return keys == null ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+    }
+
+    public KeysetCursor next(ScrollPosition lastPosition) {
+        return new KeysetCursor(sortBy, direction, new LinkedHashMap<>(((KeysetScrollPosition) lastPosition).getKeys()));
+    }
+
+    public String encode() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("sort", sortBy);
+        values.put("order", direction.name().toLowerCase());
+        values.put("keys", keys);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(values));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+}
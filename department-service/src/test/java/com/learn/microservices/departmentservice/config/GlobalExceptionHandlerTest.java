@@ -1,11 +1,17 @@
 package com.learn.microservices.departmentservice.config;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.learn.microservices.departmentservice.controller.DepartmentController;
 import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.dto.VersionedDto;
+import com.learn.microservices.departmentservice.entity.Department;
 import com.learn.microservices.departmentservice.exception.DepartmentAlreadyExistException;
 import com.learn.microservices.departmentservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.departmentservice.exception.PreconditionFailedException;
 import com.learn.microservices.departmentservice.service.DepartmentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,16 +20,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,7 +64,7 @@ public class GlobalExceptionHandlerTest {
     public void testGetDepartments_success() throws Exception {
         List<DepartmentDto> departmentDtos = List.of(createDepartmentDto());
         Page<DepartmentDto> departmentDtoPage = new PageImpl<>(departmentDtos);
-        when(departmentService.getDepartmentsByFilter(any())).thenReturn(departmentDtoPage);
+        when(departmentService.getDepartmentsByFilter(any(), any())).thenReturn(departmentDtoPage);
 
         mockMvc.perform(get("/departments/")
                         .param("page", "0")
@@ -60,7 +73,9 @@ public class GlobalExceptionHandlerTest {
                         .param("sortOrder", "asc"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)))
-                .andExpect(jsonPath("$.totalElements").value(1));
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
     }
 
     @Test
@@ -74,10 +89,39 @@ public class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.description").value("Department of software and technology"));
     }
 
+    @Test
+    public void testGetDepartments_cbor() throws Exception {
+        Page<DepartmentDto> departmentDtoPage = new PageImpl<>(List.of(createDepartmentDto()));
+        when(departmentService.getDepartmentsByFilter(any(), any())).thenReturn(departmentDtoPage);
+
+        byte[] body = mockMvc.perform(get("/departments/").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = new CBORMapper().readTree(body);
+        assertEquals(1, page.get("totalElements").asInt());
+        assertEquals("Software Department", page.get("content").get(0).get("name").asText());
+    }
+
+    @Test
+    public void testGetDepartmentById_smile() throws Exception {
+        DepartmentDto departmentDto = createDepartmentDto();
+        when(departmentService.getDepartmentById(any(), any())).thenReturn(departmentDto);
+
+        byte[] body = mockMvc.perform(get("/departments/{id}", 1L).accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(departmentDto, new SmileMapper().readValue(body, DepartmentDto.class));
+    }
+
     @Test
     public void testGetDepartmentById_success() throws Exception {
         DepartmentDto departmentDto = createDepartmentDto();
-        when(departmentService.getDepartmentById(any())).thenReturn(departmentDto);
+        when(departmentService.getDepartmentById(any(), any())).thenReturn(departmentDto);
 
         mockMvc.perform(get("/departments/{id}", 1L))
                 .andExpect(status().isOk())
@@ -85,6 +129,24 @@ public class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.description").value("Department of software and technology"));
     }
 
+    @Test
+    public void testGetDepartmentById_unknownField() throws Exception {
+        when(departmentService.getDepartmentVersion(1L)).thenReturn(5L);
+
+        mockMvc.perform(get("/departments/{id}", 1L).param("fields", "name,budget"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid fields"));
+    }
+
+    @Test
+    public void testGetDepartmentById_notModified() throws Exception {
+        when(departmentService.getDepartmentVersion(1L)).thenReturn(5L);
+
+        mockMvc.perform(get("/departments/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
     @Test
     public void testSaveDepartment_success() throws Exception {
         DepartmentDto departmentDto = createDepartmentDto();
@@ -101,16 +163,44 @@ public class GlobalExceptionHandlerTest {
     @Test
     public void testUpdateDepartment_success() throws Exception {
         DepartmentDto departmentDto = createDepartmentDto();
-        when(departmentService.updateDepartment(any(), any())).thenReturn(departmentDto);
+        when(departmentService.updateDepartment(any(), any(), isNull())).thenReturn(new VersionedDto<>(departmentDto, 2L));
 
         mockMvc.perform(put("/departments/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(departmentDto)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
                 .andExpect(jsonPath("$.name").value("Software Department"))
                 .andExpect(jsonPath("$.description").value("Department of software and technology"));
     }
 
+    @Test
+    public void testUpdateDepartment_ifMatchVersionMismatch() throws Exception {
+        DepartmentDto departmentDto = createDepartmentDto();
+        when(departmentService.updateDepartment(any(), any(), eq(1L)))
+                .thenThrow(new PreconditionFailedException("Department with id 1 is at version 2, not 1."));
+
+        mockMvc.perform(put("/departments/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(departmentDto)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.details").value("Department with id 1 is at version 2, not 1."));
+    }
+
+    @Test
+    public void testUpdateDepartment_concurrentUpdate() throws Exception {
+        DepartmentDto departmentDto = createDepartmentDto();
+        when(departmentService.updateDepartment(any(), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Department.class, 1L));
+
+        mockMvc.perform(put("/departments/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(departmentDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Concurrent update"));
+    }
+
     @Test
     public void testDeleteDepartment_success() throws Exception {
         mockMvc.perform(delete("/departments/{id}", 1L))
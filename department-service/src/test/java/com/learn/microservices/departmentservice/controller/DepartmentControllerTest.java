@@ -1,9 +1,14 @@
 package com.learn.microservices.departmentservice.controller;
 
+import com.learn.microservices.departmentservice.dto.CursorPageDto;
 import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.dto.PageDto;
+import com.learn.microservices.departmentservice.dto.VersionedDto;
 import com.learn.microservices.departmentservice.exception.DepartmentAlreadyExistException;
 import com.learn.microservices.departmentservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.departmentservice.exception.InvalidBatchException;
 import com.learn.microservices.departmentservice.exception.InvalidPaginationException;
+import com.learn.microservices.departmentservice.exception.PreconditionFailedException;
 import com.learn.microservices.departmentservice.service.DepartmentService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,13 +21,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DepartmentControllerTest {
@@ -39,15 +46,26 @@ class DepartmentControllerTest {
     @Test
     public void testGetDepartments_success() {
         Page<DepartmentDto> departmentDtoPage = new PageImpl<>(List.of(createDepartmentDto()));
-        when(departmentService.getDepartmentsByFilter(any())).thenReturn(departmentDtoPage);
+        when(departmentService.getDepartmentsByFilter(any(), any())).thenReturn(departmentDtoPage);
 
-        ResponseEntity<Page<DepartmentDto>> response = departmentController.getDepartments(0, 10, "name", "asc");
+        ResponseEntity<PageDto<DepartmentDto>> response = departmentController.getDepartments(0, 10, "name", "asc", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().getTotalElements());
     }
 
+    @Test
+    public void testGetDepartmentsByCursor_success() {
+        when(departmentService.getDepartmentsByCursor(any(), any())).thenReturn(new CursorPageDto<>(List.of(createDepartmentDto()), 1, false, null));
+
+        ResponseEntity<CursorPageDto<DepartmentDto>> response = departmentController.getDepartmentsByCursor("", 10, "name", "asc", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getSize());
+    }
+
     @Test
     public void testGetDepartmentByName_success() {
         DepartmentDto departmentDto = createDepartmentDto();
@@ -60,11 +78,51 @@ class DepartmentControllerTest {
     @Test
     public void testGetDepartmentById_success() {
         DepartmentDto departmentDto = createDepartmentDto();
-        when(departmentService.getDepartmentById(any())).thenReturn(departmentDto);
+        when(departmentService.getDepartmentVersion(1L)).thenReturn(3L);
+        when(departmentService.getDepartmentById(any(), any())).thenReturn(departmentDto);
+
+        ResponseEntity<DepartmentDto> response = departmentController.getDepartmentById(1L, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    public void testGetDepartmentById_notModified() {
+        when(departmentService.getDepartmentVersion(1L)).thenReturn(3L);
+
+        ResponseEntity<DepartmentDto> response = departmentController.getDepartmentById(1L, "\"2\", W/\"3\"", null, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(departmentService, never()).getDepartmentById(any(), any());
+    }
+
+    @Test
+    public void testGetDepartmentById_notModifiedForEncodedTag() {
+        when(departmentService.getDepartmentVersion(1L)).thenReturn(3L);
+
+        ResponseEntity<DepartmentDto> response = departmentController.getDepartmentById(1L, "\"3-smile\"",
+                "application/x-jackson-smile", null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3-smile\"", response.getHeaders().getETag());
+        verify(departmentService, never()).getDepartmentById(any(), any());
+    }
+
+    @Test
+    public void testGetDepartmentById_modifiedWhenOnlyOtherEncodingMatches() {
+        DepartmentDto departmentDto = createDepartmentDto();
+        when(departmentService.getDepartmentVersion(1L)).thenReturn(3L);
+        when(departmentService.getDepartmentById(any(), any())).thenReturn(departmentDto);
 
-        ResponseEntity<DepartmentDto> response = departmentController.getDepartmentById(1L);
+        ResponseEntity<DepartmentDto> response = departmentController.getDepartmentById(1L, "\"3-smile\", \"3\"",
+                MediaType.APPLICATION_CBOR_VALUE, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
         assertNotNull(response.getBody());
     }
 
@@ -82,11 +140,12 @@ class DepartmentControllerTest {
     @Test
     public void testUpdateDepartment_success() {
         DepartmentDto departmentDto = createDepartmentDto();
-        when(departmentService.updateDepartment(any(), any())).thenReturn(departmentDto);
+        when(departmentService.updateDepartment(1L, departmentDto, 3L)).thenReturn(new VersionedDto<>(departmentDto, 4L));
 
-        ResponseEntity<DepartmentDto> response = departmentController.updateDepartment(1L, departmentDto);
+        ResponseEntity<DepartmentDto> response = departmentController.updateDepartment(1L, departmentDto, "\"3\"");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
         assertNotNull(response.getBody());
     }
 
@@ -111,7 +170,7 @@ class DepartmentControllerTest {
     })
     public void testGetDepartments_invalidPagination(int page, int size) {
         assertThrows(InvalidPaginationException.class,
-                () -> departmentController.getDepartments(page, size, "name", "asc"));
+                () -> departmentController.getDepartments(page, size, "name", "asc", null));
     }
 
     @Test
@@ -133,17 +192,25 @@ class DepartmentControllerTest {
     @Test
     public void testUpdateDepartment_emailAlreadyExists() {
         DepartmentDto departmentDto = createDepartmentDto();
-        when(departmentService.updateDepartment(any(), any())).thenThrow(DepartmentAlreadyExistException.class);
+        when(departmentService.updateDepartment(any(), any(), any())).thenThrow(DepartmentAlreadyExistException.class);
         assertThrows(DepartmentAlreadyExistException.class,
-                () -> departmentController.updateDepartment(1L, departmentDto));
+                () -> departmentController.updateDepartment(1L, departmentDto, null));
     }
 
     @Test
     public void testUpdateDepartment_departmentNotFound() {
         DepartmentDto departmentDto = createDepartmentDto();
-        when(departmentService.updateDepartment(any(), any())).thenThrow(DepartmentNotFoundException.class);
+        when(departmentService.updateDepartment(any(), any(), any())).thenThrow(DepartmentNotFoundException.class);
         assertThrows(DepartmentNotFoundException.class,
-                () -> departmentController.updateDepartment(1L, departmentDto));
+                () -> departmentController.updateDepartment(1L, departmentDto, null));
+    }
+
+    @Test
+    public void testUpdateDepartment_weakIfMatch() {
+        DepartmentDto departmentDto = createDepartmentDto();
+        assertThrows(PreconditionFailedException.class,
+                () -> departmentController.updateDepartment(1L, departmentDto, "W/\"3\""));
+        verifyNoInteractions(departmentService);
     }
 
     @Test
@@ -160,4 +227,11 @@ class DepartmentControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    public void testFindExistingDepartmentIds_tooManyIds() {
+        List<Long> departmentIds = LongStream.rangeClosed(1, 1001).boxed().toList();
+        assertThrows(InvalidBatchException.class, () -> departmentController.findExistingDepartmentIds(departmentIds));
+        verifyNoInteractions(departmentService);
+    }
+
 }
\ No newline at end of file
@@ -1,11 +1,17 @@
 package com.learn.microservices.departmentservice.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.departmentservice.dto.CursorPageDto;
 import com.learn.microservices.departmentservice.dto.DepartmentDto;
+import com.learn.microservices.departmentservice.dto.VersionedDto;
 import com.learn.microservices.departmentservice.entity.Department;
 import com.learn.microservices.departmentservice.exception.DepartmentAlreadyExistException;
 import com.learn.microservices.departmentservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.departmentservice.exception.InvalidFieldsException;
+import com.learn.microservices.departmentservice.exception.InvalidPaginationException;
+import com.learn.microservices.departmentservice.exception.PreconditionFailedException;
 import com.learn.microservices.departmentservice.repository.DepartmentRepository;
+import com.learn.microservices.departmentservice.util.FieldSet;
 import com.learn.microservices.departmentservice.util.PaginationOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +25,7 @@ import org.springframework.data.domain.*;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,10 +41,38 @@ class DepartmentServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private DepartmentChangeService departmentChangeService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        departmentService = new DepartmentService(departmentRepository, objectMapper);
+        departmentService = new DepartmentService(departmentRepository, objectMapper, departmentChangeService);
+    }
+
+    @Test
+    void testGetDepartmentsByCursor_pagesByName() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "name").and(Sort.by(Sort.Direction.DESC, "id"));
+        ScrollPosition last = ScrollPosition.forward(Map.of("name", "Sales", "id", 4L));
+        when(departmentRepository.findAllBy(ScrollPosition.keyset(), sort, Limit.of(1)))
+                .thenReturn(Window.from(List.of(new Department()), index -> last, true));
+        when(departmentRepository.findAllBy(last, sort, Limit.of(1)))
+                .thenReturn(Window.from(List.of(new Department()), index -> ScrollPosition.keyset()));
+
+        CursorPageDto<DepartmentDto> first = departmentService.getDepartmentsByCursor(null, new PaginationOptions(0, 1, "name", "desc"));
+        CursorPageDto<DepartmentDto> second = departmentService.getDepartmentsByCursor(first.getNextCursor(), new PaginationOptions(0, 1, null, null));
+
+        assertTrue(first.isHasNext());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+        verify(departmentRepository, times(1)).findAllBy(last, sort, Limit.of(1));
+    }
+
+    @Test
+    void testGetDepartmentsByCursor_unsupportedSort() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 10, "description", "asc");
+
+        assertThrows(InvalidPaginationException.class, () -> departmentService.getDepartmentsByCursor(null, paginationOptions));
     }
 
     @Test
@@ -48,7 +83,7 @@ class DepartmentServiceTest {
         Page<Department> departmentPage = new PageImpl<>(List.of(new Department()));
         when(departmentRepository.findAll(pageable)).thenReturn(departmentPage);
 
-        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all());
 
         assertNotNull(result);
         verify(departmentRepository, times(1)).findAll(pageable);
@@ -62,7 +97,7 @@ class DepartmentServiceTest {
         Page<Department> departmentPage = new PageImpl<>(List.of(new Department()));
         when(departmentRepository.findAll(pageable)).thenReturn(departmentPage);
 
-        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all());
 
         assertNotNull(result);
         verify(departmentRepository, times(1)).findAll(pageable);
@@ -75,7 +110,7 @@ class DepartmentServiceTest {
         Page<Department> departmentPage = new PageImpl<>(List.of(new Department()));
         when(departmentRepository.findAll(PageRequest.of(0, 10, Sort.by(Sort.Order.asc("name"))))).thenReturn(departmentPage);
 
-        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all());
 
         assertNotNull(result);
         verify(departmentRepository, times(1)).findAll(PageRequest.of(0, 10, Sort.by(Sort.Order.asc("name"))));
@@ -88,7 +123,7 @@ class DepartmentServiceTest {
         Page<Department> departmentPage = new PageImpl<>(List.of(new Department()));
         when(departmentRepository.findAll(PageRequest.of(0, 10, Sort.by(Sort.Order.desc("name"))))).thenReturn(departmentPage);
 
-        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all());
 
         assertNotNull(result);
         verify(departmentRepository, times(1)).findAll(PageRequest.of(0, 10, Sort.by(Sort.Order.desc("name"))));
@@ -100,7 +135,7 @@ class DepartmentServiceTest {
 
         when(departmentRepository.findAll(Pageable.unpaged())).thenThrow(new RuntimeException("Database error"));
 
-        assertThrows(RuntimeException.class, () -> departmentService.getDepartmentsByFilter(paginationOptions));
+        assertThrows(RuntimeException.class, () -> departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all()));
     }
 
     @Test
@@ -111,7 +146,7 @@ class DepartmentServiceTest {
         Page<Department> departmentPage = new PageImpl<>(List.of(new Department()));
         when(departmentRepository.findAll(pageable)).thenReturn(departmentPage);
 
-        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all());
 
         assertNotNull(result);
         verify(departmentRepository, times(1)).findAll(pageable);
@@ -125,12 +160,27 @@ class DepartmentServiceTest {
         Page<Department> departmentPage = new PageImpl<>(List.of(new Department()));
         when(departmentRepository.findAll(pageable)).thenReturn(departmentPage);
 
-        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions);
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, DepartmentDto.FIELDS.all());
 
         assertNotNull(result);
         verify(departmentRepository, times(1)).findAll(pageable);
     }
 
+    @Test
+    void getDepartmentVersion_ShouldReturnVersionWithoutLoadingDepartment() {
+        when(departmentRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        assertEquals(4L, departmentService.getDepartmentVersion(1L));
+        verify(departmentRepository, never()).findById(any());
+    }
+
+    @Test
+    void getDepartmentVersion_ShouldThrowDepartmentNotFoundException_WhenDepartmentNotFound() {
+        when(departmentRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(DepartmentNotFoundException.class, () -> departmentService.getDepartmentVersion(1L));
+    }
+
     @Test
     void getDepartmentsById_ShouldReturnDepartmentsDto() {
         Long departmentId = 1L;
@@ -144,18 +194,48 @@ class DepartmentServiceTest {
         when(departmentRepository.findById(departmentId)).thenReturn(Optional.of(department));
         when(objectMapper.convertValue(department, DepartmentDto.class)).thenReturn(departmentDto);
 
-        DepartmentDto result = departmentService.getDepartmentById(departmentId);
+        DepartmentDto result = departmentService.getDepartmentById(departmentId, DepartmentDto.FIELDS.all());
 
         assertEquals("Software Department", result.getName());
         verify(departmentRepository, times(1)).findById(departmentId);
     }
 
+    @Test
+    void getDepartmentById_ShouldSelectOnlyRequestedFields_WhenFieldsGiven() {
+        Long departmentId = 1L;
+        FieldSet fields = DepartmentDto.FIELDS.parse("name");
+        DepartmentDto departmentDto = new DepartmentDto();
+        departmentDto.setName("Software Department");
+        when(departmentRepository.findDtoById(departmentId, fields)).thenReturn(Optional.of(departmentDto));
+
+        DepartmentDto result = departmentService.getDepartmentById(departmentId, fields);
+
+        assertEquals("Software Department", result.getName());
+        verify(departmentRepository, never()).findById(any());
+    }
+
+    @Test
+    void getDepartmentsByFilter_ShouldSelectOnlyRequestedFields_WhenFieldsGiven() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 10, null, null);
+        FieldSet fields = DepartmentDto.FIELDS.parse("id,name");
+        Pageable pageable = PageRequest.of(0, 10, Sort.unsorted());
+        when(departmentRepository.findDtoSlice(fields, pageable))
+                .thenReturn(new SliceImpl<>(List.of(new DepartmentDto()), pageable, false));
+        when(departmentRepository.count()).thenReturn(1L);
+
+        Page<DepartmentDto> result = departmentService.getDepartmentsByFilter(paginationOptions, fields);
+
+        assertEquals(1, result.getTotalElements());
+        verify(departmentRepository, never()).findAll(any(Pageable.class));
+        assertThrows(InvalidFieldsException.class, () -> DepartmentDto.FIELDS.parse("name,budget"));
+    }
+
     @Test
     void getDepartmentById_ShouldThrowDepartmentNotFoundException_WhenDepartmentNotFound() {
         Long departmentId = 1L;
         when(departmentRepository.findById(departmentId)).thenReturn(Optional.empty());
 
-        assertThrows(DepartmentNotFoundException.class, () -> departmentService.getDepartmentById(departmentId));
+        assertThrows(DepartmentNotFoundException.class, () -> departmentService.getDepartmentById(departmentId, DepartmentDto.FIELDS.all()));
     }
 
     @Test
@@ -204,6 +284,7 @@ class DepartmentServiceTest {
 
         assertEquals(departmentDto.getName(), result.getName());
         verify(departmentRepository, times(1)).save(any(Department.class));
+        verify(departmentChangeService, times(1)).departmentCreated(department.getId());
     }
 
     @Test
@@ -227,6 +308,7 @@ class DepartmentServiceTest {
         departmentService.deleteDepartment(departmentId);
 
         verify(departmentRepository, times(1)).deleteById(departmentId);
+        verify(departmentChangeService, times(1)).departmentDeleted(departmentId);
     }
 
     @Test
@@ -246,22 +328,25 @@ class DepartmentServiceTest {
         Department existingDepartment = new Department();
         existingDepartment.setId(departmentId);
         existingDepartment.setName("Old Department Name");
+        existingDepartment.setVersion(1L);
 
         Department updatedDepartment = new Department();
         updatedDepartment.setId(departmentId);
         updatedDepartment.setName(departmentDto.getName());
+        updatedDepartment.setVersion(2L);
 
         DepartmentDto updatedDepartmentDto = new DepartmentDto();
         updatedDepartmentDto.setName(departmentDto.getName());
 
         when(departmentRepository.findById(departmentId)).thenReturn(Optional.of(existingDepartment));
-        when(departmentRepository.save(any(Department.class))).thenReturn(updatedDepartment);
+        when(departmentRepository.saveAndFlush(any(Department.class))).thenReturn(updatedDepartment);
         when(objectMapper.convertValue(updatedDepartment, DepartmentDto.class)).thenReturn(updatedDepartmentDto);
 
-        DepartmentDto result = departmentService.updateDepartment(departmentId, departmentDto);
+        VersionedDto<DepartmentDto> result = departmentService.updateDepartment(departmentId, departmentDto, 1L);
 
-        assertEquals(departmentDto.getName(), result.getName());
-        verify(departmentRepository, times(1)).save(any(Department.class));
+        assertEquals(departmentDto.getName(), result.value().getName());
+        assertEquals(2L, result.version());
+        verify(departmentRepository, times(1)).saveAndFlush(any(Department.class));
     }
 
     @Test
@@ -277,7 +362,39 @@ class DepartmentServiceTest {
         when(departmentRepository.findById(departmentId)).thenReturn(Optional.of(existingDepartment));
         when(departmentRepository.getByName(departmentDto.getName())).thenReturn(Optional.of(existingDepartment));
 
-        assertThrows(DepartmentAlreadyExistException.class, () -> departmentService.updateDepartment(departmentId, departmentDto));
+        assertThrows(DepartmentAlreadyExistException.class, () -> departmentService.updateDepartment(departmentId, departmentDto, null));
+    }
+
+    @Test
+    void updateDepartment_ShouldThrowPreconditionFailedException_WhenVersionDiffers() {
+        Long departmentId = 1L;
+        DepartmentDto departmentDto = new DepartmentDto();
+        departmentDto.setName("Updated Department Name");
+
+        Department existingDepartment = new Department();
+        existingDepartment.setId(departmentId);
+        existingDepartment.setName("Old Department Name");
+        existingDepartment.setVersion(2L);
+
+        when(departmentRepository.findById(departmentId)).thenReturn(Optional.of(existingDepartment));
+
+        assertThrows(PreconditionFailedException.class, () -> departmentService.updateDepartment(departmentId, departmentDto, 1L));
+        verify(departmentRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void findExistingDepartmentIds_ShouldReturnOnlyExistingIds() {
+        when(departmentRepository.findExistingIds(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+        List<Long> result = departmentService.findExistingDepartmentIds(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(1L, 3L), result);
+    }
+
+    @Test
+    void findExistingDepartmentIds_ShouldSkipQuery_WhenNoIdsGiven() {
+        assertTrue(departmentService.findExistingDepartmentIds(List.of()).isEmpty());
+        verifyNoInteractions(departmentRepository);
     }
 
 }
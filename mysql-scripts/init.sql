@@ -1,2 +1,3 @@
 CREATE DATABASE IF NOT EXISTS `user_db`;
-CREATE DATABASE IF NOT EXISTS `department_db`;
\ No newline at end of file
+CREATE DATABASE IF NOT EXISTS `department_db`;
+CREATE DATABASE IF NOT EXISTS `auth_db`;
\ No newline at end of file
@@ -1,21 +1,43 @@
 package com.learn.microservices.userservice.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.util.FieldSet;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.concurrent.ForkJoinPool;
+
 @Configuration
 public class BeanFactory {
 
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    /**
+     * Settings shared by the JSON mapper and the Smile / CBOR mappers, so every encoding writes the same DTOs.
+     */
+    public static <M extends ObjectMapper> M configure(M mapper) {
+        // Blackbird replaces reflective property access with generated lambdas.
+        mapper.registerModule(new BlackbirdModule())
+                .setFilterProvider(FieldSet.ALL_FIELDS)
+                .addMixIn(UserDto.class, FieldSet.Filtered.class);
+        return mapper;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
+
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool passwordHashingPool(@Value("${users.password-hashing.parallelism}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
 }
@@ -0,0 +1,94 @@
+package com.learn.microservices.userservice.config;
+
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.routing.HttpRoutePlanner;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tunes the pooled Apache HttpClient 5 that Feign uses for calls to other services. Global pool sizes come from
+ * {@code spring.cloud.openfeign.httpclient.*}; {@code feign.pool.max-connections-per-host} overrides the per-route
+ * limit for individual hosts as a comma separated list of {@code host=size}. Limits are applied to a route the
+ * first time it is used, since instances are only known once they are resolved through Eureka.
+ */
+@Configuration
+@ConditionalOnProperty(value = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+@Slf4j
+public class FeignHttpClientConfig {
+
+    @Bean
+    public HttpClientBuilderCustomizer perHostPoolSizeCustomizer(HttpClientConnectionManager hc5ConnectionManager,
+                                                                 @Value("${feign.pool.max-connections-per-host}") String maxConnectionsPerHost) {
+        Map<String, Integer> limits = parseHostLimits(maxConnectionsPerHost);
+        return builder -> {
+            if (!limits.isEmpty() && hc5ConnectionManager instanceof PoolingHttpClientConnectionManager pool) {
+                builder.setRoutePlanner(new PerHostPoolSizeRoutePlanner(pool, limits));
+            }
+        };
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManagerMetricsBinder feignConnectionPoolMetrics(HttpClientConnectionManager hc5ConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder((PoolingHttpClientConnectionManager) hc5ConnectionManager, "feign");
+    }
+
+    static Map<String, Integer> parseHostLimits(String value) {
+        Map<String, Integer> limits = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return limits;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid feign.pool.max-connections-per-host entry '" + entry.trim() + "', expected host=size");
+            }
+            limits.put(parts[0].trim().toLowerCase(Locale.ROOT), Integer.parseInt(parts[1].trim()));
+        }
+        return limits;
+    }
+
+    private static final class PerHostPoolSizeRoutePlanner implements HttpRoutePlanner {
+
+        private final HttpRoutePlanner delegate = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+        private final PoolingHttpClientConnectionManager pool;
+        private final Map<String, Integer> limits;
+        private final Set<HttpRoute> configuredRoutes = ConcurrentHashMap.newKeySet();
+
+        private PerHostPoolSizeRoutePlanner(PoolingHttpClientConnectionManager pool, Map<String, Integer> limits) {
+            this.pool = pool;
+            this.limits = limits;
+        }
+
+        @Override
+        public HttpRoute determineRoute(HttpHost target, HttpContext context) throws HttpException {
+            HttpRoute route = delegate.determineRoute(target, context);
+            if (!configuredRoutes.contains(route)) {
+                Integer limit = limits.get(target.getHostName().toLowerCase(Locale.ROOT));
+                if (limit != null) {
+                    pool.setMaxPerRoute(route, limit);
+                    log.info("Limited connection pool for {} to {} connections", route, limit);
+                }
+                configuredRoutes.add(route);
+            }
+            return route;
+        }
+    }
+}
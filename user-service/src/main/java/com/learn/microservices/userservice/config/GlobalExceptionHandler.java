@@ -1,11 +1,21 @@
 package com.learn.microservices.userservice.config;
 
 import com.learn.microservices.userservice.dto.ErrorResponse;
+import com.learn.microservices.userservice.exception.DepartmentServiceUnavailableException;
 import com.learn.microservices.userservice.exception.EmailAlreadyExistException;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.exception.InvalidExportException;
+import com.learn.microservices.userservice.exception.InvalidFieldsException;
+import com.learn.microservices.userservice.exception.InvalidImportException;
 import com.learn.microservices.userservice.exception.InvalidPaginationException;
+import com.learn.microservices.userservice.exception.InvalidPatchException;
+import com.learn.microservices.userservice.exception.InvalidSearchException;
 import com.learn.microservices.userservice.exception.NotFoundException;
+import com.learn.microservices.userservice.exception.PreconditionFailedException;
+import com.learn.microservices.userservice.exception.SnapshotInProgressException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -39,6 +49,60 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse("Invalid pagination parameters", ex.getMessage(), status.getReasonPhrase()));
     }
 
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBatchException(InvalidBatchException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid batch request: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid batch request", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFieldsException(InvalidFieldsException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid fields: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid fields", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportException(InvalidImportException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid import request: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid import request", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(InvalidExportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidExportException(InvalidExportException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid export request: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid export request", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPatchException(InvalidPatchException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid patch: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid patch", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSearchException(InvalidSearchException ex) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        log.warn("Invalid search request: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Invalid search request", ex.getMessage(), status.getReasonPhrase()));
+    }
+
     @ExceptionHandler(EmailAlreadyExistException.class)
     public ResponseEntity<ErrorResponse> handleEmailAlreadyExist(EmailAlreadyExistException ex) {
         HttpStatus status = HttpStatus.CONFLICT;
@@ -48,6 +112,42 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse("Email already exist", ex.getMessage(), status.getReasonPhrase()));
     }
 
+    @ExceptionHandler(SnapshotInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleSnapshotInProgress(SnapshotInProgressException ex) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        log.warn("Snapshot in progress: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Snapshot in progress", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex) {
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+        log.warn("Precondition failed: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Precondition failed", ex.getMessage(), status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        log.warn("Concurrent update: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Concurrent update", "The resource was modified by another request, reload it and retry.", status.getReasonPhrase()));
+    }
+
+    @ExceptionHandler(DepartmentServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleDepartmentServiceUnavailable(DepartmentServiceUnavailableException ex) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        log.warn("Department service unavailable: {}", ex.getMessage());
+        log.trace("Stack trace: ", ex);
+        return ResponseEntity.status(status.value())
+                .body(new ErrorResponse("Department service unavailable", ex.getMessage(), status.getReasonPhrase()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -0,0 +1,37 @@
+package com.learn.microservices.userservice.controller;
+
+import com.learn.microservices.userservice.dto.CredentialEventBatchDto;
+import com.learn.microservices.userservice.dto.CredentialSnapshotDto;
+import com.learn.microservices.userservice.service.CredentialEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/internal/credentials")
+@RequiredArgsConstructor
+@Slf4j
+public class CredentialController {
+
+    private final CredentialEventService credentialEventService;
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<CredentialSnapshotDto> getSnapshot(
+            @RequestParam(value = "afterUserId", defaultValue = "0") Long afterUserId,
+            @RequestParam(value = "size", defaultValue = "1000") int size) {
+        log.info("Fetching credential snapshot page after user id: {}", afterUserId);
+        return ResponseEntity.ok(credentialEventService.getSnapshot(afterUserId, size));
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<CredentialEventBatchDto> getEvents(
+            @RequestParam(value = "after", defaultValue = "0") Long afterEventId,
+            @RequestParam(value = "size", defaultValue = "500") int size) {
+        log.debug("Fetching credential events after id: {}", afterEventId);
+        return ResponseEntity.ok(credentialEventService.getEvents(afterEventId, size));
+    }
+}
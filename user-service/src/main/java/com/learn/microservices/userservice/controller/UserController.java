@@ -1,19 +1,38 @@
 package com.learn.microservices.userservice.controller;
 
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.PageDto;
+import com.learn.microservices.userservice.dto.SliceDto;
+import com.learn.microservices.userservice.dto.UserBatchResponseDto;
+import com.learn.microservices.userservice.dto.UserBulkFilterDto;
+import com.learn.microservices.userservice.dto.UserBulkResultDto;
+import com.learn.microservices.userservice.dto.UserBulkUpdateDto;
 import com.learn.microservices.userservice.dto.UserDto;
 import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.dto.UserLookupDto;
+import com.learn.microservices.userservice.dto.UserPatchDto;
+import com.learn.microservices.userservice.dto.VersionedDto;
 import com.learn.microservices.userservice.exception.InvalidPaginationException;
+import com.learn.microservices.userservice.service.UserBatchService;
+import com.learn.microservices.userservice.service.UserBulkService;
+import com.learn.microservices.userservice.service.UserLookupService;
 import com.learn.microservices.userservice.service.UserService;
+import com.learn.microservices.userservice.util.ETags;
+import com.learn.microservices.userservice.util.FieldSet;
 import com.learn.microservices.userservice.util.PaginationOptions;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -21,15 +40,20 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserBatchService userBatchService;
+    private final UserLookupService userLookupService;
+    private final UserBulkService userBulkService;
 
     @GetMapping("/")
-    public ResponseEntity<Page<UserDto>> getUsers(
+    public ResponseEntity<PageDto<UserDto>> getUsers(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sortBy", required = false) String sortBy,
             @RequestParam(value = "sortOrder", required = false) String sortOrder,
             @RequestParam(value = "role", required = false) String role,
-            @RequestParam(value = "department", required = false) Long department) {
+            @RequestParam(value = "department", required = false) Long department,
+            @RequestParam(value = "count", defaultValue = "exact") String count,
+            @RequestParam(value = "fields", required = false) String fields) {
 
         PaginationOptions paginationOptions = new PaginationOptions(page, size, sortBy, sortOrder);
 
@@ -37,14 +61,95 @@ public class UserController {
             log.warn("Invalid pagination parameters: page={}, size={}", paginationOptions.getPage(), paginationOptions.getSize());
             throw new InvalidPaginationException("Page number cannot be negative and size must be greater than 0.");
         }
-        log.info("Fetching users with pagination: page={}, size={}", paginationOptions.getPage(), paginationOptions.getSize());
+        log.info("Fetching users with pagination: page={}, size={}, count={}", paginationOptions.getPage(), paginationOptions.getSize(), count);
+        FieldSet fieldSet = UserDto.FIELDS.parse(fields);
 
-        Page<UserDto> usersPage = userService.getUsersByFilter(role, department, paginationOptions);
+        Page<UserDto> usersPage = switch (count.toLowerCase()) {
+            case "exact" -> userService.getUsersByFilter(role, department, paginationOptions, fieldSet);
+            case "cached" -> userService.getUsersWithCachedCount(role, department, paginationOptions, fieldSet);
+            default -> throw new InvalidPaginationException("Count must be one of exact, cached or none (none must be lowercase).");
+        };
 
         log.info("Successfully fetched {} users.", usersPage.getTotalElements());
+        return ResponseEntity.ok(PageDto.of(usersPage));
+    }
+
+    @GetMapping(value = "/", params = {"count=none", "!cursor", "!ids"})
+    public ResponseEntity<SliceDto<UserDto>> getUsersSlice(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "sortOrder", required = false) String sortOrder,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "department", required = false) Long department,
+            @RequestParam(value = "fields", required = false) String fields) {
+
+        PaginationOptions paginationOptions = new PaginationOptions(page, size, sortBy, sortOrder);
+
+        if (paginationOptions.getPage() < 0 || paginationOptions.getSize() <= 0) {
+            log.warn("Invalid pagination parameters: page={}, size={}", paginationOptions.getPage(), paginationOptions.getSize());
+            throw new InvalidPaginationException("Page number cannot be negative and size must be greater than 0.");
+        }
+        log.info("Fetching users without count: page={}, size={}", paginationOptions.getPage(), paginationOptions.getSize());
+
+        SliceDto<UserDto> usersSlice = userService.getUsersSlice(role, department, paginationOptions,
+                UserDto.FIELDS.parse(fields));
+
+        log.info("Successfully fetched {} users.", usersSlice.getContent().size());
+        return ResponseEntity.ok(usersSlice);
+    }
+
+    @GetMapping(value = "/", params = {"cursor", "!ids"})
+    public ResponseEntity<CursorPageDto<UserDto>> getUsersByCursor(
+            @RequestParam(value = "cursor") String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sortBy", required = false) String sortBy,
+            @RequestParam(value = "sortOrder", required = false) String sortOrder,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "department", required = false) Long department,
+            @RequestParam(value = "fields", required = false) String fields) {
+
+        if (size <= 0) {
+            log.warn("Invalid pagination parameters: size={}", size);
+            throw new InvalidPaginationException("Size must be greater than 0.");
+        }
+        log.info("Fetching users with cursor pagination: size={}", size);
+        // Validated up front; keyset pages read whole rows for their cursor, so the selection only narrows the JSON.
+        UserDto.FIELDS.parse(fields);
+
+        CursorPageDto<UserDto> usersPage = userService.getUsersByCursor(role, department, cursor,
+                new PaginationOptions(0, size, sortBy, sortOrder));
+
+        log.info("Successfully fetched {} users.", usersPage.getSize());
         return ResponseEntity.ok(usersPage);
     }
 
+    @GetMapping(value = "/", params = "ids")
+    public ResponseEntity<UserLookupDto> getUsersByIds(@RequestParam(value = "ids") List<Long> ids) {
+        log.info("Fetching {} users by id", ids.size());
+        UserLookupDto lookup = userLookupService.getUsersByIds(ids);
+        log.info("Successfully fetched {} users, {} missing.", lookup.getUsers().size(), lookup.getMissing().size());
+        return ResponseEntity.ok(lookup);
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<UserLookupDto> lookupUsersByIds(@RequestBody List<Long> ids) {
+        log.info("Looking up {} users by id", ids.size());
+        UserLookupDto lookup = userLookupService.getUsersByIds(ids);
+        log.info("Successfully looked up {} users, {} missing.", lookup.getUsers().size(), lookup.getMissing().size());
+        return ResponseEntity.ok(lookup);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<UserDto>> searchUsers(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.info("Searching users: q={}, limit={}", query, limit);
+        List<UserDto> users = userService.searchUsers(query, limit);
+        log.info("Successfully found {} users.", users.size());
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/email/{email}")
     public ResponseEntity<UserEmailDto> getUserByEmail(@PathVariable @Email String email) {
         log.info("Fetching users by email: email={}", email);
@@ -54,11 +159,22 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDto> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "fields", required = false) String fields) {
         log.info("Fetching user by id: id={}", id);
-        UserDto user = userService.getUserById(id);
+        FieldSet fieldSet = UserDto.FIELDS.parse(fields);
+        long version = userService.getUserVersion(id);
+        String eTag = ETags.forAccept(version, accept);
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            log.info("User with id {} not modified.", id);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        UserDto user = userService.getUserById(id, fieldSet);
         log.info("Successfully fetched user by id: {}", id);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().eTag(ETags.of(version)).body(user);
     }
 
     @PostMapping("/")
@@ -69,12 +185,51 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<UserBatchResponseDto> saveUsers(@RequestBody List<UserEmailDto> users) {
+        log.info("Saving batch of {} users", users.size());
+        UserBatchResponseDto response = userBatchService.saveUsers(users);
+        log.info("Successfully processed user batch: {} created, {} failed", response.getCreated(), response.getFailed());
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping("/bulk-update")
+    public ResponseEntity<UserBulkResultDto> updateUsers(@Valid @RequestBody UserBulkUpdateDto request) {
+        log.info("Bulk updating users: {}", request);
+        UserBulkResultDto result = userBulkService.updateUsers(request);
+        log.info("Successfully bulk updated {} users.", result.getAffected());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<UserBulkResultDto> deleteUsers(@RequestBody UserBulkFilterDto filter) {
+        log.info("Bulk deleting users: {}", filter);
+        UserBulkResultDto result = userBulkService.deleteUsers(filter);
+        log.info("Successfully bulk deleted {} users.", result.getAffected());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserEmailDto user) {
+    public ResponseEntity<UserDto> updateUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UserEmailDto user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating user with id: {}, {}", id, user);
-        UserDto updatedUser = userService.updateUser(id, user);
-        log.info("Successfully updated user: {}", updatedUser);
-        return ResponseEntity.ok(updatedUser);
+        VersionedDto<UserDto> updatedUser = userService.updateUser(id, user, ETags.requiredVersion(ifMatch));
+        log.info("Successfully updated user: {}", updatedUser.value());
+        return ResponseEntity.ok().eTag(ETags.of(updatedUser.version())).body(updatedUser.value());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserDto> patchUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UserPatchDto patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Patching user with id: {}, {}", id, patch);
+        VersionedDto<UserDto> patchedUser = userService.patchUser(id, patch, ETags.requiredVersion(ifMatch));
+        log.info("Successfully patched user: {}", patchedUser.value());
+        return ResponseEntity.ok().eTag(ETags.of(patchedUser.version())).body(patchedUser.value());
     }
 
     @DeleteMapping("/{id}")
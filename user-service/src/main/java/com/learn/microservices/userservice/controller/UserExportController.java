@@ -0,0 +1,53 @@
+package com.learn.microservices.userservice.controller;
+
+import com.learn.microservices.userservice.entity.ExportFormat;
+import com.learn.microservices.userservice.exception.InvalidExportException;
+import com.learn.microservices.userservice.service.UserExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/users/export")
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final UserExportService userExportService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "department", required = false) Long department) {
+        ExportFormat exportFormat = resolveFormat(format);
+        userExportService.validateFilter(department);
+        log.info("Starting {} user export", exportFormat);
+
+        StreamingResponseBody body = out -> userExportService.export(role, department, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportFormat.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+
+    private ExportFormat resolveFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExportException("Format must be ndjson or csv.");
+        }
+    }
+}
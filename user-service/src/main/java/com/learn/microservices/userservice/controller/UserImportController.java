@@ -0,0 +1,78 @@
+package com.learn.microservices.userservice.controller;
+
+import com.learn.microservices.userservice.dto.ImportJobDto;
+import com.learn.microservices.userservice.dto.ImportJobErrorDto;
+import com.learn.microservices.userservice.entity.ImportFormat;
+import com.learn.microservices.userservice.exception.InvalidImportException;
+import com.learn.microservices.userservice.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/users/imports")
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final UserImportService userImportService;
+
+    @PostMapping("/")
+    public ResponseEntity<ImportJobDto> createImportJob(
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
+        ImportFormat format = resolveFormat(contentType);
+        log.info("Creating {} user import job", format);
+        ImportJobDto job = userImportService.createJob(format, request.getInputStream());
+        log.info("Successfully created import job: {}", job.getId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/users/imports/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable Long id) {
+        return ResponseEntity.ok(userImportService.getJob(id));
+    }
+
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<List<ImportJobErrorDto>> getImportJobErrors(
+            @PathVariable Long id,
+            @RequestParam(value = "afterLine", defaultValue = "0") long afterLine,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit <= 0 || limit > 1000) {
+            throw new InvalidImportException("Limit must be between 1 and 1000.");
+        }
+        return ResponseEntity.ok(userImportService.getErrors(id, afterLine, limit));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ImportJobDto> resumeImportJob(@PathVariable Long id) {
+        log.info("Resuming import job with id: {}", id);
+        return ResponseEntity.accepted().body(userImportService.resumeJob(id));
+    }
+
+    private ImportFormat resolveFormat(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (NDJSON.includes(mediaType)) {
+                return ImportFormat.NDJSON;
+            }
+            if (CSV.includes(mediaType)) {
+                return ImportFormat.CSV;
+            }
+        }
+        throw new InvalidImportException("Content type must be application/x-ndjson or text/csv.");
+    }
+}
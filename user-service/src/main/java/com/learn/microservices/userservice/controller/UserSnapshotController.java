@@ -0,0 +1,76 @@
+package com.learn.microservices.userservice.controller;
+
+import com.learn.microservices.userservice.dto.SnapshotManifestDto;
+import com.learn.microservices.userservice.service.UserSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts user snapshots and serves their files. Files are handed to Tomcat's sendfile support when the
+ * connector offers it, so the kernel copies them to the socket without passing through the JVM heap.
+ */
+@RestController
+@RequestMapping("/users/snapshots")
+@RequiredArgsConstructor
+@Slf4j
+public class UserSnapshotController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UserSnapshotService userSnapshotService;
+
+    @PostMapping("/")
+    public ResponseEntity<Map<String, String>> startSnapshot() {
+        String id = userSnapshotService.startSnapshot();
+        log.info("Started user snapshot {}", id);
+        return ResponseEntity.accepted().body(Map.of("id", id));
+    }
+
+    @GetMapping("/")
+    public ResponseEntity<List<SnapshotManifestDto>> getSnapshots() throws IOException {
+        return ResponseEntity.ok(userSnapshotService.getSnapshots());
+    }
+
+    @GetMapping("/{id}/{file}")
+    public void getSnapshotFile(@PathVariable String id, @PathVariable String file,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path path = userSnapshotService.getSnapshotFile(id, file);
+        long size = Files.size(path);
+        response.setContentType(file.endsWith(".gz") ? "application/gzip" : MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"");
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.learn.microservices.userservice.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    FAILED
+}
@@ -0,0 +1,15 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialEventBatchDto {
+    private List<CredentialEventDto> events;
+    private Long oldestEventId;
+}
@@ -0,0 +1,28 @@
+package com.learn.microservices.userservice.dto;
+
+import com.learn.microservices.userservice.entity.CredentialEvent;
+import com.learn.microservices.userservice.entity.CredentialEventType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@ToString(exclude = "password")
+@NoArgsConstructor
+public class CredentialEventDto {
+    private Long id;
+    private CredentialEventType eventType;
+    private Long userId;
+    private String email;
+    private String password;
+    private String role;
+
+    public CredentialEventDto(CredentialEvent event) {
+        this.id = event.getSeq();
+        this.eventType = event.getEventType();
+        this.userId = event.getUserId();
+        this.email = event.getEmail();
+        this.password = event.getPassword();
+        this.role = event.getRole();
+    }
+}
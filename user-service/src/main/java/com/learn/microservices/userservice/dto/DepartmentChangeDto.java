@@ -0,0 +1,14 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentChangeDto {
+    private Long id;
+    private DepartmentChangeType changeType;
+    private Long departmentId;
+}
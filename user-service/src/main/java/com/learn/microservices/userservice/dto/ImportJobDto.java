@@ -0,0 +1,47 @@
+package com.learn.microservices.userservice.dto;
+
+import com.learn.microservices.userservice.entity.ImportFormat;
+import com.learn.microservices.userservice.entity.ImportJob;
+import com.learn.microservices.userservice.entity.ImportJobStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+@Data
+@NoArgsConstructor
+public class ImportJobDto {
+    private Long id;
+    private ImportFormat format;
+    private ImportJobStatus status;
+    private long totalRows;
+    private long processedRows;
+    private long createdRows;
+    private long failedRows;
+    private Double rowsPerSecond;
+    private Long etaSeconds;
+    private String error;
+    private String startedAt;
+    private String finishedAt;
+    private String createdAt;
+
+    public ImportJobDto(ImportJob job, Double rowsPerSecond, Long etaSeconds) {
+        this.id = job.getId();
+        this.format = job.getFormat();
+        this.status = job.getStatus();
+        this.totalRows = job.getTotalRows();
+        this.processedRows = job.getProcessedRows();
+        this.createdRows = job.getCreatedRows();
+        this.failedRows = job.getFailedRows();
+        this.rowsPerSecond = rowsPerSecond;
+        this.etaSeconds = etaSeconds;
+        this.error = job.getError();
+        this.startedAt = toString(job.getStartedAt());
+        this.finishedAt = toString(job.getFinishedAt());
+        this.createdAt = toString(job.getCreatedAt());
+    }
+
+    private static String toString(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.learn.microservices.userservice.dto;
+
+import com.learn.microservices.userservice.entity.ImportJobError;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobErrorDto {
+    private long lineNumber;
+    private String message;
+
+    public ImportJobErrorDto(ImportJobError error) {
+        this.lineNumber = error.getLineNumber();
+        this.message = error.getMessage();
+    }
+}
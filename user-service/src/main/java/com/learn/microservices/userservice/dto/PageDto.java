@@ -0,0 +1,75 @@
+package com.learn.microservices.userservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stable JSON shape for a page of results, instead of serializing Spring's {@link Page} and its pageable and
+ * sort internals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonSerialize(using = PageDto.Serializer.class)
+public class PageDto<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean hasNext;
+
+    public static <T> PageDto<T> of(Page<T> page) {
+        return new PageDto<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages(), page.hasNext());
+    }
+
+    /**
+     * Writes the envelope straight to the generator. Elements go through the provider, so per-request
+     * filters still apply, and the element serializer is looked up once per run of same-typed elements.
+     */
+    public static class Serializer extends StdSerializer<PageDto<?>> {
+
+        public Serializer() {
+            super(PageDto.class, false);
+        }
+
+        @Override
+        public void serialize(PageDto<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(page);
+            gen.writeFieldName("content");
+            List<?> content = page.getContent() == null ? List.of() : page.getContent();
+            gen.writeStartArray(content, content.size());
+            Class<?> type = null;
+            JsonSerializer<Object> serializer = null;
+            for (Object item : content) {
+                if (item == null) {
+                    provider.defaultSerializeNull(gen);
+                    continue;
+                }
+                if (item.getClass() != type) {
+                    type = item.getClass();
+                    serializer = provider.findValueSerializer(type);
+                }
+                serializer.serialize(item, gen, provider);
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("page", page.getPage());
+            gen.writeNumberField("size", page.getSize());
+            gen.writeNumberField("totalElements", page.getTotalElements());
+            gen.writeNumberField("totalPages", page.getTotalPages());
+            gen.writeBooleanField("hasNext", page.isHasNext());
+            gen.writeEndObject();
+        }
+    }
+}
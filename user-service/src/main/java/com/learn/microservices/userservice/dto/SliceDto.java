@@ -0,0 +1,17 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceDto<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,18 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotManifestDto {
+    private String id;
+    private String startedAt;
+    private String completedAt;
+    private long totalRows;
+    private List<SnapshotPartDto> parts;
+}
@@ -0,0 +1,17 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotPartDto {
+    private String file;
+    private long fromId;
+    private long toId;
+    private long rows;
+    private long bytes;
+    private String sha256;
+}
@@ -0,0 +1,23 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchItemResultDto {
+    private int index;
+    private BatchItemStatus status;
+    private UserDto user;
+    private String error;
+
+    public static UserBatchItemResultDto created(int index, UserDto user) {
+        return new UserBatchItemResultDto(index, BatchItemStatus.CREATED, user, null);
+    }
+
+    public static UserBatchItemResultDto failed(int index, String error) {
+        return new UserBatchItemResultDto(index, BatchItemStatus.FAILED, null, error);
+    }
+}
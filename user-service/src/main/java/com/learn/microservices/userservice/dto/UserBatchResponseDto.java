@@ -0,0 +1,16 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchResponseDto {
+    private int created;
+    private int failed;
+    private List<UserBatchItemResultDto> results;
+}
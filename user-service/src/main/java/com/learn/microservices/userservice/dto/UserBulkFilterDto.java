@@ -0,0 +1,19 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Selects the users a bulk operation applies to. All given criteria must match; at least one is required.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBulkFilterDto {
+    private List<Long> ids;
+    private String role;
+    private Long departmentId;
+}
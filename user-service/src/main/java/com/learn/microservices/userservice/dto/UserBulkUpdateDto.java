@@ -0,0 +1,25 @@
+package com.learn.microservices.userservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A bulk field change: every user matching {@code filter} gets the given role and/or department.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBulkUpdateDto {
+    @Valid
+    @NotNull(message = "Filter cannot be null")
+    private UserBulkFilterDto filter;
+
+    @Size(max = 50, message = "Role cannot exceed 50 characters")
+    private String role;
+
+    private Long departmentId;
+}
@@ -1,18 +1,25 @@
 package com.learn.microservices.userservice.dto;
 
 import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.util.FieldSet;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.PersistenceCreator;
+
+import java.sql.Date;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserDto {
 
+    public static final FieldSet.Schema FIELDS = new FieldSet.Schema(
+            "id", "firstName", "lastName", "email", "phoneNumber", "role", "departmentId", "createdAt", "updatedAt");
+
     private Long id;
 
     @NotBlank(message = "First name cannot be blank")
@@ -37,6 +44,17 @@ public class UserDto {
     private String createdAt;
     private String updatedAt;
 
+    /**
+     * Projection constructor, used by repository queries that select only the columns a response needs.
+     */
+    @PersistenceCreator
+    public UserDto(Long id, String firstName, String lastName, String email, String phoneNumber, String role,
+                   Long departmentId, Date createdAt, Date updatedAt) {
+        this(id, firstName, lastName, email, phoneNumber, role, departmentId,
+                createdAt == null ? null : createdAt.toString(),
+                updatedAt == null ? null : updatedAt.toString());
+    }
+
     public UserDto(User user) {
         this.id = user.getId();
         this.firstName = user.getFirstName();
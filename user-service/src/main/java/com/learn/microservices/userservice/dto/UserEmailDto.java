@@ -6,6 +6,9 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.annotation.PersistenceCreator;
+
+import java.sql.Date;
 
 @Getter
 @Setter
@@ -21,6 +24,12 @@ public class UserEmailDto extends UserDto {
         this.password = password;
     }
 
+    @PersistenceCreator
+    public UserEmailDto(Long id, String firstName, String lastName, String email, String phoneNumber, String role, Long departmentId, Date createdAt, Date updatedAt, String password) {
+        super(id, firstName, lastName, email, phoneNumber, role, departmentId, createdAt, updatedAt);
+        this.password = password;
+    }
+
     public UserEmailDto(User user) {
         super(user);
         this.password = user.getPassword();
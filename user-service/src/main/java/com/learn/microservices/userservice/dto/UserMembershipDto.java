@@ -0,0 +1,14 @@
+package com.learn.microservices.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserMembershipDto {
+    private Long id;
+    private String role;
+    private Long departmentId;
+}
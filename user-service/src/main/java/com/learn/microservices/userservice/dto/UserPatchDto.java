@@ -0,0 +1,85 @@
+package com.learn.microservices.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Body of a JSON Merge Patch for a user. Setters record which fields the request contained, so an absent field
+ * is left untouched while an explicit {@code null} removes the value.
+ */
+@Getter
+@ToString(exclude = "password")
+public class UserPatchDto {
+
+    @Size(max = 100, message = "First name cannot exceed 100 characters")
+    @Pattern(regexp = "(?s).*\\S.*", message = "First name cannot be blank")
+    private String firstName;
+
+    @Size(max = 100, message = "Last name cannot exceed 100 characters")
+    @Pattern(regexp = "(?s).*\\S.*", message = "Last name cannot be blank")
+    private String lastName;
+
+    @Email(message = "Invalid email format")
+    @Pattern(regexp = "(?s).*\\S.*", message = "Email cannot be blank")
+    private String email;
+
+    @Size(min = 6, message = "Password must be at least 6 characters long")
+    private String password;
+
+    @Size(max = 50, message = "Phone number cannot exceed 50 characters")
+    private String phoneNumber;
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Role cannot be blank")
+    private String role;
+
+    private Long departmentId;
+
+    @JsonIgnore
+    private final Set<String> fields = new HashSet<>();
+
+    public boolean has(String field) {
+        return fields.contains(field);
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+        fields.add("firstName");
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+        fields.add("lastName");
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        fields.add("email");
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+        fields.add("password");
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+        fields.add("phoneNumber");
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+        fields.add("role");
+    }
+
+    public void setDepartmentId(Long departmentId) {
+        this.departmentId = departmentId;
+        fields.add("departmentId");
+    }
+}
@@ -0,0 +1,51 @@
+package com.learn.microservices.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+
+@Setter
+@Getter
+@ToString(exclude = "password")
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "credential_events")
+public class CredentialEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private CredentialEventType eventType;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "password")
+    private String password;
+
+    @Column(name = "role", length = 50)
+    private String role;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @Column(name = "seq", insertable = false, updatable = false)
+    private Long seq;
+
+    public CredentialEvent(CredentialEventType eventType, User user) {
+        this(null, eventType, user.getId(), user.getEmail(), user.getPassword(), user.getRole(), null, null);
+    }
+
+    public CredentialEvent(Long deletedUserId) {
+        this(null, CredentialEventType.DELETED, deletedUserId, null, null, null, null, null);
+    }
+}
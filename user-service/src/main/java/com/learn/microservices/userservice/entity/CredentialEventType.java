@@ -0,0 +1,7 @@
+package com.learn.microservices.userservice.entity;
+
+public enum CredentialEventType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
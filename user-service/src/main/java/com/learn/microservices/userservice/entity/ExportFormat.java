@@ -0,0 +1,6 @@
+package com.learn.microservices.userservice.entity;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,6 @@
+package com.learn.microservices.userservice.entity;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
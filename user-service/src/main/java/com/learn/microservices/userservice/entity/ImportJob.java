@@ -0,0 +1,69 @@
+package com.learn.microservices.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+
+@Setter
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 20)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ImportJobStatus status;
+
+    @Column(name = "file_path", nullable = false, length = 1024)
+    private String filePath;
+
+    @Column(name = "total_rows", nullable = false)
+    private long totalRows;
+
+    @Column(name = "next_line", nullable = false)
+    private long nextLine;
+
+    @Column(name = "processed_rows", nullable = false)
+    private long processedRows;
+
+    @Column(name = "created_rows", nullable = false)
+    private long createdRows;
+
+    @Column(name = "failed_rows", nullable = false)
+    private long failedRows;
+
+    @Column(name = "error", length = 1024)
+    private String error;
+
+    @Column(name = "started_at")
+    private Timestamp startedAt;
+
+    @Column(name = "finished_at")
+    private Timestamp finishedAt;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    private Timestamp updatedAt;
+
+    public ImportJob(ImportFormat format, String filePath, long totalRows) {
+        this.format = format;
+        this.status = ImportJobStatus.PENDING;
+        this.filePath = filePath;
+        this.totalRows = totalRows;
+    }
+}
@@ -0,0 +1,28 @@
+package com.learn.microservices.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Setter
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "import_job_errors")
+public class ImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+
+    @Column(name = "message", nullable = false, length = 1024)
+    private String message;
+}
@@ -0,0 +1,8 @@
+package com.learn.microservices.userservice.entity;
+
+public enum ImportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
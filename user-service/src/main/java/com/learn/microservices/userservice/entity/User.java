@@ -8,6 +8,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.sql.Date;
 
@@ -17,11 +18,13 @@ import java.sql.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 100)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -69,6 +72,11 @@ public class User {
     @JsonIgnore
     private Date updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
     public User(UserEmailDto userEmailDto) {
         this(
                 userEmailDto.getId(),
@@ -80,7 +88,8 @@ public class User {
                 userEmailDto.getRole(),
                 userEmailDto.getDepartmentId(),
                 new Date(System.currentTimeMillis()),
-                new Date(System.currentTimeMillis())
+                new Date(System.currentTimeMillis()),
+                null
         );
     }
 }
@@ -0,0 +1,8 @@
+package com.learn.microservices.userservice.exception;
+
+public class DepartmentServiceUnavailableException extends RuntimeException {
+
+    public DepartmentServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.learn.microservices.userservice.exception;
+
+public class ImportJobNotFoundException extends NotFoundException {
+    public ImportJobNotFoundException(String message) {
+        super(message);
+    }
+}
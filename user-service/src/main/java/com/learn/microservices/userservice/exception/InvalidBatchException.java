@@ -0,0 +1,8 @@
+package com.learn.microservices.userservice.exception;
+
+public class InvalidBatchException extends RuntimeException {
+
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
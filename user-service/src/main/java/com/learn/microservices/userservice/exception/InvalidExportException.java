@@ -0,0 +1,8 @@
+package com.learn.microservices.userservice.exception;
+
+public class InvalidExportException extends RuntimeException {
+
+    public InvalidExportException(String message) {
+        super(message);
+    }
+}
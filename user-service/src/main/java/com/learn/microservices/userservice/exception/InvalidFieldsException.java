@@ -0,0 +1,8 @@
+package com.learn.microservices.userservice.exception;
+
+public class InvalidFieldsException extends RuntimeException {
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
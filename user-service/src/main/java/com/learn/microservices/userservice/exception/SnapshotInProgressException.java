@@ -0,0 +1,8 @@
+package com.learn.microservices.userservice.exception;
+
+public class SnapshotInProgressException extends RuntimeException {
+
+    public SnapshotInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.learn.microservices.userservice.exception;
+
+public class SnapshotNotFoundException extends NotFoundException {
+    public SnapshotNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.learn.microservices.userservice.proxy;
+
+import com.learn.microservices.userservice.dto.DepartmentChangeBatchDto;
+import com.learn.microservices.userservice.dto.DepartmentIdSnapshotDto;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "DEPARTMENT-SERVICE",
+        contextId = "departmentIdProxy",
+        path = "/internal/department-ids")
+public interface DepartmentIdProxy {
+    @GetMapping("/snapshot")
+    DepartmentIdSnapshotDto getSnapshot();
+
+    @GetMapping("/changes")
+    DepartmentChangeBatchDto getChanges(@RequestParam("after") Long after, @RequestParam("size") int size);
+}
@@ -1,16 +1,70 @@
 package com.learn.microservices.userservice.proxy;
 
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.DepartmentDto;
+import com.learn.microservices.userservice.exception.DepartmentServiceUnavailableException;
+import com.learn.microservices.userservice.service.DepartmentExistenceCache;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Serves the last known answers from {@link DepartmentExistenceCache} when department-service cannot be reached,
+ * its calls time out, the bulkhead is full or the circuit is open. Ids without a known answer fail with
+ * {@link DepartmentServiceUnavailableException} rather than being reported as missing. Client errors are not
+ * outages and are rethrown as they are.
+ */
+@Component
 @Slf4j
+@RequiredArgsConstructor
 public class DepartmentServiceFallback implements FallbackFactory<DepartmentServiceProxy> {
 
+    private final DepartmentExistenceCache departmentExistenceCache;
+
     @Override
     public DepartmentServiceProxy create(Throwable cause) {
-        return departmentId -> {
-            log.warn("Failed to check if department with id {} exists: {}", departmentId, cause.getMessage());
-            return false;
+        if (cause instanceof FeignException.FeignClientException clientException) {
+            throw clientException;
+        }
+        return new DepartmentServiceProxy() {
+            @Override
+            public boolean isDepartmentExists(Long departmentId) {
+                log.warn("Failed to check if department with id {} exists, using last known answer: {}", departmentId, cause.getMessage());
+                return lastKnown(departmentId);
+            }
+
+            @Override
+            public List<Long> findExistingDepartmentIds(Collection<Long> departmentIds) {
+                log.warn("Failed to check if {} departments exist, using last known answers: {}", departmentIds.size(), cause.getMessage());
+                List<Long> existing = new ArrayList<>();
+                for (Long departmentId : departmentIds) {
+                    if (lastKnown(departmentId)) {
+                        existing.add(departmentId);
+                    }
+                }
+                return existing;
+            }
+
+            @Override
+            public CursorPageDto<DepartmentDto> getDepartmentsByCursor(String cursor, int size) {
+                log.warn("Failed to list departments: {}", cause.getMessage());
+                throw new DepartmentServiceUnavailableException("Department service is unavailable and departments could not be listed.", cause);
+            }
+
+            private boolean lastKnown(Long departmentId) {
+                Boolean exists = departmentExistenceCache.lastKnown(departmentId);
+                if (exists == null) {
+                    throw new DepartmentServiceUnavailableException(
+                            "Department service is unavailable and department with id " + departmentId + " could not be checked.", cause);
+                }
+                return exists;
+            }
         };
     }
 }
@@ -1,8 +1,16 @@
 package com.learn.microservices.userservice.proxy;
 
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.DepartmentDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "DEPARTMENT-SERVICE",
         path = "/departments",
@@ -10,4 +18,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 public interface DepartmentServiceProxy {
     @GetMapping("/exists/{departmentId}")
     boolean isDepartmentExists(@PathVariable Long departmentId);
+
+    @PostMapping("/exists")
+    List<Long> findExistingDepartmentIds(@RequestBody Collection<Long> departmentIds);
+
+    @GetMapping(value = "/", params = "cursor")
+    CursorPageDto<DepartmentDto> getDepartmentsByCursor(@RequestParam("cursor") String cursor, @RequestParam("size") int size);
 }
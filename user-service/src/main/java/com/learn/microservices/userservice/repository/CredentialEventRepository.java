@@ -0,0 +1,25 @@
+package com.learn.microservices.userservice.repository;
+
+import com.learn.microservices.userservice.entity.CredentialEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CredentialEventRepository extends JpaRepository<CredentialEvent, Long> {
+    List<CredentialEvent> findBySeqGreaterThanOrderBySeqAsc(Long seq, Limit limit);
+
+    @Query("select min(e.seq) from CredentialEvent e")
+    Optional<Long> findOldestEventSeq();
+
+    @Modifying
+    @Query("delete from CredentialEvent e where e.createdAt < :createdBefore and e.seq is not null")
+    int deleteByCreatedAtBefore(@Param("createdBefore") Timestamp createdBefore);
+}
@@ -0,0 +1,13 @@
+package com.learn.microservices.userservice.repository;
+
+import com.learn.microservices.userservice.entity.ImportJobError;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ImportJobErrorRepository extends JpaRepository<ImportJobError, Long> {
+    List<ImportJobError> findByJobIdAndLineNumberGreaterThanOrderByLineNumberAsc(Long jobId, long afterLine, Limit limit);
+}
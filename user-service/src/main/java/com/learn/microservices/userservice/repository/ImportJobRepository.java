@@ -0,0 +1,34 @@
+package com.learn.microservices.userservice.repository;
+
+import com.learn.microservices.userservice.entity.ImportJob;
+import com.learn.microservices.userservice.entity.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    List<ImportJob> findByStatusInOrderByIdAsc(Collection<ImportJobStatus> statuses);
+
+    @Modifying
+    @Query("update ImportJob j set j.status = com.learn.microservices.userservice.entity.ImportJobStatus.RUNNING, " +
+            "j.startedAt = :startedAt, j.error = null where j.id = :id and j.status in :statuses")
+    int claim(@Param("id") Long id, @Param("statuses") Collection<ImportJobStatus> statuses, @Param("startedAt") Timestamp startedAt);
+
+    @Modifying
+    @Query("update ImportJob j set j.nextLine = :nextLine, j.processedRows = j.processedRows + :processed, " +
+            "j.createdRows = j.createdRows + :created, j.failedRows = j.failedRows + :failed where j.id = :id")
+    int checkpoint(@Param("id") Long id, @Param("nextLine") long nextLine, @Param("processed") long processed,
+                   @Param("created") long created, @Param("failed") long failed);
+
+    @Modifying
+    @Query("update ImportJob j set j.status = :status, j.error = :error, j.finishedAt = :finishedAt where j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") ImportJobStatus status, @Param("error") String error,
+               @Param("finishedAt") Timestamp finishedAt);
+}
@@ -0,0 +1,18 @@
+package com.learn.microservices.userservice.repository;
+
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.util.FieldSet;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Optional;
+
+/**
+ * Reads that select only the columns of a {@link FieldSet}; fields outside the selection are left null.
+ */
+public interface UserFieldsRepository {
+
+    Optional<UserDto> findDtoById(Long id, FieldSet fields);
+
+    Slice<UserDto> findDtoSlice(String role, Long departmentId, FieldSet fields, Pageable pageable);
+}
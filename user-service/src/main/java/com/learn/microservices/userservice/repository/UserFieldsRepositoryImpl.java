@@ -0,0 +1,94 @@
+package com.learn.microservices.userservice.repository;
+
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.util.FieldSet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * DTO field names match the entity's attribute names, so a selection maps one to one onto a tuple query.
+ */
+public class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    private static final Map<String, BiConsumer<UserDto, Object>> SETTERS = Map.of(
+            "id", (user, value) -> user.setId((Long) value),
+            "firstName", (user, value) -> user.setFirstName((String) value),
+            "lastName", (user, value) -> user.setLastName((String) value),
+            "email", (user, value) -> user.setEmail((String) value),
+            "phoneNumber", (user, value) -> user.setPhoneNumber((String) value),
+            "role", (user, value) -> user.setRole((String) value),
+            "departmentId", (user, value) -> user.setDepartmentId((Long) value),
+            "createdAt", (user, value) -> user.setCreatedAt(value == null ? null : value.toString()),
+            "updatedAt", (user, value) -> user.setUpdatedAt(value == null ? null : value.toString()));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<UserDto> findDtoById(Long id, FieldSet fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        query.multiselect(select(user, fields)).where(cb.equal(user.get("id"), id));
+        return entityManager.createQuery(query).getResultStream().findFirst().map(tuple -> toDto(tuple, fields));
+    }
+
+    @Override
+    public Slice<UserDto> findDtoSlice(String role, Long departmentId, FieldSet fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (role != null) {
+            predicates.add(cb.equal(user.get("role"), role));
+        }
+        if (departmentId != null) {
+            predicates.add(cb.equal(user.get("departmentId"), departmentId));
+        }
+        query.multiselect(select(user, fields))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), user, cb));
+
+        // One row past the page tells whether another page follows, without a count query.
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<UserDto> users = rows.stream()
+                .limit(pageable.getPageSize())
+                .map(tuple -> toDto(tuple, fields))
+                .toList();
+        return new SliceImpl<>(users, pageable, hasNext);
+    }
+
+    private static List<Selection<?>> select(Root<User> user, FieldSet fields) {
+        return fields.names().stream().<Selection<?>>map(user::get).toList();
+    }
+
+    private static UserDto toDto(Tuple tuple, FieldSet fields) {
+        UserDto user = new UserDto();
+        List<String> names = fields.names();
+        for (int i = 0; i < names.size(); i++) {
+            SETTERS.get(names.get(i)).accept(user, tuple.get(i));
+        }
+        return user;
+    }
+}
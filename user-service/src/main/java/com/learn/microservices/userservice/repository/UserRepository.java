@@ -1,17 +1,116 @@
 package com.learn.microservices.userservice.repository;
 
+import com.learn.microservices.userservice.dto.CredentialDto;
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.dto.UserMembershipDto;
 import com.learn.microservices.userservice.entity.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository, UserUpdateRepository {
     Optional<User> getByEmail(String email);
-    Page<User> findByRole(String role, Pageable pageable);
-    Page<User> findByDepartmentId(Long departmentId, Pageable pageable);
-    Page<User> findByRoleAndDepartmentId(String role, Long departmentId, Pageable pageable);
-}
\ No newline at end of file
+
+    Optional<UserDto> findDtoById(Long id);
+
+    List<UserDto> findDtoByIdIn(Collection<Long> ids);
+
+    Optional<UserEmailDto> findEmailDtoByEmail(String email);
+
+    Page<UserDto> findAllBy(Pageable pageable);
+    Page<UserDto> findByRole(String role, Pageable pageable);
+    Page<UserDto> findByDepartmentId(Long departmentId, Pageable pageable);
+    Page<UserDto> findByRoleAndDepartmentId(String role, Long departmentId, Pageable pageable);
+
+    Slice<UserDto> findSliceBy(Pageable pageable);
+    Slice<UserDto> findSliceByRole(String role, Pageable pageable);
+    Slice<UserDto> findSliceByDepartmentId(Long departmentId, Pageable pageable);
+    Slice<UserDto> findSliceByRoleAndDepartmentId(String role, Long departmentId, Pageable pageable);
+
+    long countByRole(String role);
+    long countByDepartmentId(Long departmentId);
+    long countByRoleAndDepartmentId(String role, Long departmentId);
+
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+    Window<User> findByRole(String role, ScrollPosition position, Sort sort, Limit limit);
+    Window<User> findByDepartmentId(Long departmentId, ScrollPosition position, Sort sort, Limit limit);
+    Window<User> findByRoleAndDepartmentId(String role, Long departmentId, ScrollPosition position, Sort sort, Limit limit);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows one at a time instead of buffering the result set.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<UserDto> streamAllByOrderByIdAsc();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<UserDto> streamByRoleOrderByIdAsc(String role);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<UserDto> streamByDepartmentIdOrderByIdAsc(Long departmentId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<UserDto> streamByRoleAndDepartmentIdOrderByIdAsc(String role, Long departmentId);
+
+    @Query("select new com.learn.microservices.userservice.dto.CredentialDto(u.id, u.email, u.password, u.role) " +
+            "from User u where u.id > :afterId order by u.id")
+    List<CredentialDto> findCredentialsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select min(u.id) from User u")
+    Long findMinId();
+
+    @Query("select max(u.id) from User u")
+    Long findMaxId();
+
+    @Query("select new com.learn.microservices.userservice.dto.UserDto(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.role, u.departmentId, u.createdAt, u.updatedAt) " +
+            "from User u where u.id > :afterId and u.id <= :toId order by u.id")
+    List<UserDto> findRange(@Param("afterId") Long afterId, @Param("toId") Long toId, Limit limit);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.learn.microservices.userservice.dto.UserMembershipDto(u.id, u.role, u.departmentId) " +
+            "from User u where u.id > :afterId and (:role is null or u.role = :role) " +
+            "and (:departmentId is null or u.departmentId = :departmentId) order by u.id")
+    List<UserMembershipDto> lockMembershipsAfter(@Param("afterId") Long afterId, @Param("role") String role,
+                                                 @Param("departmentId") Long departmentId, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.learn.microservices.userservice.dto.UserMembershipDto(u.id, u.role, u.departmentId) " +
+            "from User u where u.id in :ids and (:role is null or u.role = :role) " +
+            "and (:departmentId is null or u.departmentId = :departmentId) order by u.id")
+    List<UserMembershipDto> lockMembershipsByIds(@Param("ids") Collection<Long> ids, @Param("role") String role,
+                                                 @Param("departmentId") Long departmentId);
+
+    // Sets the version explicitly so that the set_version trigger leaves it alone.
+    @Modifying
+    @Query("update User u set u.role = coalesce(:role, u.role), u.departmentId = coalesce(:departmentId, u.departmentId), " +
+            "u.updatedAt = :updatedAt, u.version = u.version + 1 where u.id in :ids")
+    int updateMemberships(@Param("ids") Collection<Long> ids, @Param("role") String role,
+                          @Param("departmentId") Long departmentId, @Param("updatedAt") Date updatedAt);
+
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "select count(*) from users where email_normalized = :email", nativeQuery = true)
+    long countByNormalizedEmail(@Param("email") String normalizedEmail);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query(value = "select email_normalized from users", nativeQuery = true)
+    Stream<String> streamNormalizedEmails();
+
+    @Query(value = "select email_normalized from users where email_normalized in :emails", nativeQuery = true)
+    List<String> findExistingEmails(@Param("emails") Collection<String> normalizedEmails);
+}
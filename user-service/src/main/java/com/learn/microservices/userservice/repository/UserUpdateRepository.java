@@ -0,0 +1,17 @@
+package com.learn.microservices.userservice.repository;
+
+import java.util.Map;
+
+/**
+ * Updates that write only the given attributes of a user, guarded by the version they were computed from.
+ */
+public interface UserUpdateRepository {
+
+    /**
+     * Sets the given entity attributes and increments the version in one UPDATE, but only while the row is still
+     * at {@code version}.
+     *
+     * @return the number of rows updated, 0 when the row changed or was deleted in the meantime.
+     */
+    int updateIfVersion(Long id, long version, Map<String, Object> values);
+}
@@ -0,0 +1,35 @@
+package com.learn.microservices.userservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Attribute names are checked against the columns a user update may touch before they go into the statement.
+ */
+public class UserUpdateRepositoryImpl implements UserUpdateRepository {
+
+    private static final Set<String> UPDATABLE = Set.of("firstName", "lastName", "email", "password", "phoneNumber",
+            "role", "departmentId", "createdAt", "updatedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int updateIfVersion(Long id, long version, Map<String, Object> values) {
+        if (values.isEmpty() || !UPDATABLE.containsAll(values.keySet())) {
+            throw new IllegalArgumentException("Cannot update user attributes " + values.keySet() + ".");
+        }
+        String assignments = values.keySet().stream()
+                .map(name -> "u." + name + " = :" + name)
+                .collect(Collectors.joining(", "));
+        Query query = entityManager.createQuery("update User u set " + assignments + ", u.version = u.version + 1 " +
+                "where u.id = :id and u.version = :version");
+        values.forEach(query::setParameter);
+        return query.setParameter("id", id).setParameter("version", version).executeUpdate();
+    }
+}
@@ -0,0 +1,159 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.CredentialDto;
+import com.learn.microservices.userservice.dto.CredentialEventBatchDto;
+import com.learn.microservices.userservice.dto.CredentialEventDto;
+import com.learn.microservices.userservice.dto.CredentialSnapshotDto;
+import com.learn.microservices.userservice.entity.CredentialEvent;
+import com.learn.microservices.userservice.entity.CredentialEventType;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.repository.CredentialEventRepository;
+import com.learn.microservices.userservice.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transactional outbox of credential changes consumed by auth-service. Events are written in the same
+ * transaction as the user row without a feed position; {@link #sequenceCommittedEvents()} numbers them once
+ * committed, so a transaction that commits late gets a later position instead of landing behind the reader's cursor.
+ */
+@Service
+@Slf4j
+public class CredentialEventService {
+
+    private final CredentialEventRepository credentialEventRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long retentionMillis;
+    private final int maxBatchSize;
+
+    public CredentialEventService(CredentialEventRepository credentialEventRepository,
+                                  UserRepository userRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${credentials.events.retention-hours}") long retentionHours,
+                                  @Value("${credentials.events.max-batch-size}") int maxBatchSize) {
+        this.credentialEventRepository = credentialEventRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionMillis = retentionHours * 60 * 60 * 1000;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userCreated(User user) {
+        credentialEventRepository.save(new CredentialEvent(CredentialEventType.CREATED, user));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void usersCreated(List<User> users, int batchSize) {
+        // credential_events keeps an IDENTITY key, which rules out Hibernate batching here.
+        jdbcTemplate.batchUpdate(
+                "insert into credential_events (event_type, user_id, email, password, role) values (?, ?, ?, ?, ?)",
+                users, batchSize, (ps, user) -> {
+                    ps.setString(1, CredentialEventType.CREATED.name());
+                    ps.setLong(2, user.getId());
+                    ps.setString(3, user.getEmail());
+                    ps.setString(4, user.getPassword());
+                    ps.setString(5, user.getRole());
+                });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userUpdated(User user) {
+        credentialEventRepository.save(new CredentialEvent(CredentialEventType.UPDATED, user));
+    }
+
+    /**
+     * Records the current credentials of users changed by a set-based update, copied in one statement.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void usersUpdated(Collection<Long> userIds) {
+        String placeholders = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        Object[] args = new Object[userIds.size() + 1];
+        args[0] = CredentialEventType.UPDATED.name();
+        int index = 1;
+        for (Long userId : userIds) {
+            args[index++] = userId;
+        }
+        jdbcTemplate.update("insert into credential_events (event_type, user_id, email, password, role) " +
+                "select ?, id, email, password, role from users where id in (" + placeholders + ") order by id", args);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void userDeleted(Long userId) {
+        credentialEventRepository.save(new CredentialEvent(userId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void usersDeleted(List<Long> userIds, int batchSize) {
+        jdbcTemplate.batchUpdate("insert into credential_events (event_type, user_id) values (?, ?)",
+                userIds, batchSize, (ps, userId) -> {
+                    ps.setString(1, CredentialEventType.DELETED.name());
+                    ps.setLong(2, userId);
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public CredentialSnapshotDto getSnapshot(Long afterUserId, int size) {
+        // Every event at or below the last assigned position committed before this read, so the snapshot includes it.
+        long lastEventId = jdbcTemplate.queryForObject("select last_seq from credential_events_seq", Long.class);
+        List<CredentialDto> credentials = userRepository.findCredentialsAfter(afterUserId, Limit.of(Math.min(size, maxBatchSize)));
+        Long nextAfterUserId = credentials.size() < Math.min(size, maxBatchSize)
+                ? null
+                : credentials.get(credentials.size() - 1).getUserId();
+        return new CredentialSnapshotDto(lastEventId, credentials, nextAfterUserId);
+    }
+
+    @Transactional(readOnly = true)
+    public CredentialEventBatchDto getEvents(Long afterEventId, int size) {
+        List<CredentialEventDto> events = credentialEventRepository
+                .findBySeqGreaterThanOrderBySeqAsc(afterEventId, Limit.of(Math.min(size, maxBatchSize)))
+                .stream()
+                .map(CredentialEventDto::new)
+                .toList();
+        Long oldestEventId = credentialEventRepository.findOldestEventSeq().orElse(null);
+        return new CredentialEventBatchDto(events, oldestEventId);
+    }
+
+    /**
+     * Assigns feed positions to committed events in id order. The counter row is locked first, so concurrent
+     * instances take turns and the read of unnumbered events sees everything committed by the previous turn.
+     */
+    @Scheduled(fixedDelayString = "${credentials.events.sequence-interval-ms}")
+    @Transactional
+    public void sequenceCommittedEvents() {
+        long lastSeq = jdbcTemplate.queryForObject("select last_seq from credential_events_seq for update", Long.class);
+        List<Long> eventIds = jdbcTemplate.queryForList(
+                "select id from credential_events where seq is null order by id limit ?", Long.class, maxBatchSize);
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(eventIds.size());
+        for (Long eventId : eventIds) {
+            args.add(new Object[]{++lastSeq, eventId});
+        }
+        jdbcTemplate.batchUpdate("update credential_events set seq = ? where id = ?", args);
+        jdbcTemplate.update("update credential_events_seq set last_seq = ?", lastSeq);
+    }
+
+    @Scheduled(fixedDelayString = "${credentials.events.prune-interval-ms}")
+    @Transactional
+    public void pruneExpiredEvents() {
+        int deleted = credentialEventRepository.deleteByCreatedAtBefore(new Timestamp(System.currentTimeMillis() - retentionMillis));
+        if (deleted > 0) {
+            log.info("Pruned {} expired credential events.", deleted);
+        }
+    }
+}
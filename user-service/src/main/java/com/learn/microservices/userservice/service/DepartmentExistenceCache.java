@@ -0,0 +1,45 @@
+package com.learn.microservices.userservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last answers department-service gave for department existence checks, kept so that
+ * {@link com.learn.microservices.userservice.proxy.DepartmentServiceFallback} can serve a stale answer while the
+ * service is unavailable. Holds at most {@code max-entries} ids and evicts the least recently used.
+ */
+@Component
+public class DepartmentExistenceCache {
+
+    private final Map<Long, Boolean> answers;
+
+    public DepartmentExistenceCache(@Value("${departments.existence.cache.max-entries}") int maxEntries) {
+        this.answers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public void record(Collection<Long> departmentIds, Collection<Long> existingIds) {
+        synchronized (answers) {
+            for (Long departmentId : departmentIds) {
+                answers.put(departmentId, existingIds.contains(departmentId));
+            }
+        }
+    }
+
+    /**
+     * @return the last known answer for the id, or {@code null} if there is none.
+     */
+    public Boolean lastKnown(Long departmentId) {
+        synchronized (answers) {
+            return answers.get(departmentId);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.exception.DepartmentServiceUnavailableException;
+import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers department existence checks from the local {@link DepartmentIdReplica} when it is fresh and knows the
+ * id, and otherwise collapses concurrent live checks into batched calls. Checks arriving within the batch window
+ * share one {@code POST /departments/exists} request, duplicate ids share one future, and a batch is sent early
+ * once it reaches the maximum size.
+ */
+@Service
+@Slf4j
+public class DepartmentExistenceService {
+
+    private final DepartmentServiceProxy departmentServiceProxy;
+    private final DepartmentIdReplica departmentIdReplica;
+    private final DepartmentExistenceCache departmentExistenceCache;
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Boolean>> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public DepartmentExistenceService(DepartmentServiceProxy departmentServiceProxy,
+                                      DepartmentIdReplica departmentIdReplica,
+                                      DepartmentExistenceCache departmentExistenceCache,
+                                      @Value("${departments.existence.batch-window-ms}") long batchWindowMillis,
+                                      @Value("${departments.existence.max-batch-size}") int maxBatchSize,
+                                      @Value("${departments.existence.timeout-ms}") long timeoutMillis,
+                                      @Value("${departments.existence.dispatch-threads}") int dispatchThreads) {
+        this.departmentServiceProxy = departmentServiceProxy;
+        this.departmentIdReplica = departmentIdReplica;
+        this.departmentExistenceCache = departmentExistenceCache;
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("department-exists-scheduler"));
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, daemonThreads("department-exists-dispatcher"));
+    }
+
+    public boolean isDepartmentExists(Long departmentId) {
+        if (departmentId == null) {
+            return false;
+        }
+        if (departmentIdReplica.containsFresh(departmentId)) {
+            return true;
+        }
+        try {
+            return check(departmentId).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new DepartmentServiceUnavailableException("Failed to check if department with id " + departmentId + " exists.", e.getCause());
+        } catch (TimeoutException e) {
+            throw new DepartmentServiceUnavailableException("Timed out checking if department with id " + departmentId + " exists.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DepartmentServiceUnavailableException("Interrupted while checking if department with id " + departmentId + " exists.", e);
+        }
+    }
+
+    public CompletableFuture<Boolean> check(Long departmentId) {
+        Map<Long, CompletableFuture<Boolean>> fullBatch = null;
+        CompletableFuture<Boolean> future;
+        synchronized (lock) {
+            future = pending.computeIfAbsent(departmentId, id -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<Boolean>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<Boolean>> drain() {
+        Map<Long, CompletableFuture<Boolean>> batch = pending;
+        pending = new HashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Boolean>> batch) {
+        try {
+            dispatcher.execute(() -> resolve(batch));
+        } catch (RejectedExecutionException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void resolve(Map<Long, CompletableFuture<Boolean>> batch) {
+        try {
+            Set<Long> existing = new HashSet<>(departmentServiceProxy.findExistingDepartmentIds(batch.keySet()));
+            departmentExistenceCache.record(batch.keySet(), existing);
+            log.debug("Resolved {} department existence checks in one call", batch.size());
+            batch.forEach((id, future) -> future.complete(existing.contains(id)));
+        } catch (Exception e) {
+            log.warn("Failed to check if {} departments exist: {}", batch.size(), e.getMessage());
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
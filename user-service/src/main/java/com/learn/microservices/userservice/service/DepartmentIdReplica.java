@@ -0,0 +1,127 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.DepartmentChangeBatchDto;
+import com.learn.microservices.userservice.dto.DepartmentChangeDto;
+import com.learn.microservices.userservice.dto.DepartmentChangeType;
+import com.learn.microservices.userservice.dto.DepartmentIdSnapshotDto;
+import com.learn.microservices.userservice.proxy.DepartmentIdProxy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+/**
+ * In-process copy of department-service's department ids, held as a sorted {@code long[]} and kept current by
+ * pulling the versioned change feed. Answers are only given while the last successful sync is within the
+ * staleness bound; callers fall back to a live check otherwise.
+ */
+@Service
+@Slf4j
+public class DepartmentIdReplica {
+
+    private final DepartmentIdProxy departmentIdProxy;
+    private final int batchSize;
+    private final long maxStalenessMillis;
+    private final LongSupplier clock;
+
+    private volatile State state;
+
+    public DepartmentIdReplica(DepartmentIdProxy departmentIdProxy,
+                               @Value("${departments.replica.batch-size}") int batchSize,
+                               @Value("${departments.replica.max-staleness-ms}") long maxStalenessMillis) {
+        this(departmentIdProxy, batchSize, maxStalenessMillis, System::currentTimeMillis);
+    }
+
+    DepartmentIdReplica(DepartmentIdProxy departmentIdProxy, int batchSize, long maxStalenessMillis, LongSupplier clock) {
+        this.departmentIdProxy = departmentIdProxy;
+        this.batchSize = batchSize;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return whether the replica is fresh and contains the id. A {@code false} answer is never authoritative,
+     * because departments created since the last sync are not known yet.
+     */
+    public boolean containsFresh(long departmentId) {
+        State current = state;
+        return current != null
+                && clock.getAsLong() - current.syncedAt() <= maxStalenessMillis
+                && Arrays.binarySearch(current.ids(), departmentId) >= 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        synchronize();
+    }
+
+    @Scheduled(fixedDelayString = "${departments.replica.sync-interval-ms}")
+    public synchronized void synchronize() {
+        try {
+            State current = state == null ? loadSnapshot() : state;
+            state = applyPendingChanges(current);
+        } catch (Exception e) {
+            log.warn("Failed to synchronize department ids from department-service: {}", e.getMessage());
+            log.trace("Stack trace: ", e);
+        }
+    }
+
+    private State loadSnapshot() {
+        DepartmentIdSnapshotDto snapshot = departmentIdProxy.getSnapshot();
+        long[] ids = snapshot.getIds().clone();
+        Arrays.sort(ids);
+        log.info("Loaded {} department ids from snapshot at version {}.", ids.length, snapshot.getVersion());
+        return new State(ids, snapshot.getVersion(), clock.getAsLong());
+    }
+
+    private State applyPendingChanges(State current) {
+        long[] ids = current.ids();
+        long version = current.version();
+        DepartmentChangeBatchDto batch;
+        do {
+            batch = departmentIdProxy.getChanges(version, batchSize);
+            Long oldestChangeId = batch.getOldestChangeId();
+            if (oldestChangeId != null && version < oldestChangeId - 1) {
+                log.warn("Department changes after version {} were pruned before being applied, reloading snapshot.", version);
+                return applyPendingChanges(loadSnapshot());
+            }
+            if (!batch.getChanges().isEmpty()) {
+                ids = apply(ids, batch);
+                version = batch.getChanges().get(batch.getChanges().size() - 1).getId();
+                log.debug("Applied {} department changes, version {}.", batch.getChanges().size(), version);
+            }
+        } while (batch.getChanges().size() >= batchSize);
+        return new State(ids, version, clock.getAsLong());
+    }
+
+    private static long[] apply(long[] ids, DepartmentChangeBatchDto batch) {
+        Set<Long> created = new HashSet<>();
+        Set<Long> deleted = new HashSet<>();
+        for (DepartmentChangeDto change : batch.getChanges()) {
+            if (change.getChangeType() == DepartmentChangeType.CREATED) {
+                created.add(change.getDepartmentId());
+                deleted.remove(change.getDepartmentId());
+            } else {
+                deleted.add(change.getDepartmentId());
+                created.remove(change.getDepartmentId());
+            }
+        }
+        return LongStream.concat(
+                        Arrays.stream(ids).filter(id -> !deleted.contains(id)),
+                        created.stream().mapToLong(Long::longValue))
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private record State(long[] ids, long version, long syncedAt) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.learn.microservices.userservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Hashes passwords for bulk writes on a dedicated fork/join pool, so BCrypt uses every core without
+ * competing with the common pool or request threads.
+ */
+@Service
+@RequiredArgsConstructor
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ForkJoinPool passwordHashingPool;
+
+    public List<String> encodeAll(List<String> rawPasswords) {
+        if (rawPasswords.size() < 2) {
+            return rawPasswords.stream().map(passwordEncoder::encode).toList();
+        }
+        return passwordHashingPool.submit(() -> rawPasswords.parallelStream()
+                        .map(passwordEncoder::encode)
+                        .toList())
+                .join();
+    }
+}
@@ -0,0 +1,82 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserBatchItemResultDto;
+import com.learn.microservices.userservice.dto.UserBatchResponseDto;
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transactional step of a batch create. Only the inserts of a batch already prepared by {@link UserBatchService}
+ * run here, so the connection is held for the writes and not for lookups or password hashing.
+ */
+@Service
+@Slf4j
+public class UserBatchProcessor {
+
+    private final UserRepository userRepository;
+    private final CredentialEventService credentialEventService;
+    private final UserCountCache userCountCache;
+    private final UserSearchIndex userSearchIndex;
+    private final UserEmailFilter userEmailFilter;
+    private final EntityManager entityManager;
+    private final int insertBatchSize;
+
+    public UserBatchProcessor(UserRepository userRepository,
+                              CredentialEventService credentialEventService,
+                              UserCountCache userCountCache,
+                              UserSearchIndex userSearchIndex,
+                              UserEmailFilter userEmailFilter,
+                              EntityManager entityManager,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int insertBatchSize) {
+        this.userRepository = userRepository;
+        this.credentialEventService = credentialEventService;
+        this.userCountCache = userCountCache;
+        this.userSearchIndex = userSearchIndex;
+        this.userEmailFilter = userEmailFilter;
+        this.entityManager = entityManager;
+        this.insertBatchSize = insertBatchSize;
+    }
+
+    /**
+     * Inserts the accepted users of a prepared batch, joining the caller's transaction when there is one.
+     */
+    @Transactional
+    public UserBatchResponseDto persist(UserBatchService.PreparedBatch batch) {
+        List<User> toInsert = batch.users();
+        insertAll(toInsert);
+
+        UserBatchItemResultDto[] results = batch.results().clone();
+        for (int i = 0; i < toInsert.size(); i++) {
+            int index = batch.acceptedIndexes().get(i);
+            results[index] = UserBatchItemResultDto.created(index, new UserDto(toInsert.get(i)));
+        }
+
+        int failed = results.length - toInsert.size();
+        log.info("Batch saved: {} created, {} failed", toInsert.size(), failed);
+        return new UserBatchResponseDto(toInsert.size(), failed, Arrays.asList(results));
+    }
+
+    private void insertAll(List<User> users) {
+        users.forEach(user -> userEmailFilter.emailAdded(user.getEmail()));
+        for (int from = 0; from < users.size(); from += insertBatchSize) {
+            List<User> chunk = users.subList(from, Math.min(from + insertBatchSize, users.size()));
+            userRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        if (!users.isEmpty()) {
+            credentialEventService.usersCreated(users, insertBatchSize);
+        }
+        userCountCache.usersAdded(users);
+        userSearchIndex.usersSaved(users);
+    }
+}
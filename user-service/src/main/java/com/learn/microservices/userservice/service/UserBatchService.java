@@ -0,0 +1,174 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserBatchItemResultDto;
+import com.learn.microservices.userservice.dto.UserBatchResponseDto;
+import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
+import com.learn.microservices.userservice.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many users at once: emails that {@link UserEmailFilter} cannot rule out are checked with chunked IN
+ * queries, departments with chunked batched lookups, and rows are inserted through Hibernate JDBC batching.
+ * Each input item gets its own result.
+ * <p>
+ * Work is split into {@link #prepare} (validation, lookups and password hashing), which runs without a
+ * transaction, and {@link UserBatchProcessor#persist} (inserts), which is the only transactional step.
+ */
+@Service
+@Slf4j
+public class UserBatchService {
+
+    private final UserRepository userRepository;
+    private final DepartmentServiceProxy departmentServiceProxy;
+    private final DepartmentIdReplica departmentIdReplica;
+    private final DepartmentExistenceCache departmentExistenceCache;
+    private final PasswordHasher passwordHasher;
+    private final UserBatchProcessor userBatchProcessor;
+    private final UserEmailFilter userEmailFilter;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final int lookupChunkSize;
+
+    public UserBatchService(UserRepository userRepository,
+                            DepartmentServiceProxy departmentServiceProxy,
+                            DepartmentIdReplica departmentIdReplica,
+                            DepartmentExistenceCache departmentExistenceCache,
+                            PasswordHasher passwordHasher,
+                            UserBatchProcessor userBatchProcessor,
+                            UserEmailFilter userEmailFilter,
+                            Validator validator,
+                            @Value("${users.batch.max-size}") int maxBatchSize,
+                            @Value("${users.batch.lookup-chunk-size}") int lookupChunkSize) {
+        this.userRepository = userRepository;
+        this.departmentServiceProxy = departmentServiceProxy;
+        this.departmentIdReplica = departmentIdReplica;
+        this.departmentExistenceCache = departmentExistenceCache;
+        this.passwordHasher = passwordHasher;
+        this.userBatchProcessor = userBatchProcessor;
+        this.userEmailFilter = userEmailFilter;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.lookupChunkSize = lookupChunkSize;
+    }
+
+    public UserBatchResponseDto saveUsers(List<UserEmailDto> users) {
+        return userBatchProcessor.persist(prepare(users));
+    }
+
+    public PreparedBatch prepare(List<UserEmailDto> users) {
+        if (users == null || users.isEmpty()) {
+            throw new InvalidBatchException("Batch must contain at least one user.");
+        }
+        if (users.size() > maxBatchSize) {
+            throw new InvalidBatchException("Batch cannot contain more than " + maxBatchSize + " users.");
+        }
+        log.info("Preparing batch of {} users", users.size());
+
+        UserBatchItemResultDto[] results = new UserBatchItemResultDto[users.size()];
+        List<Integer> candidates = validateItems(users, results);
+
+        Set<String> existingEmails = findExistingEmails(candidates.stream()
+                .map(index -> users.get(index).getEmail())
+                .filter(userEmailFilter::mightContain)
+                .map(UserEmailFilter::normalize)
+                .toList());
+        Set<Long> existingDepartmentIds = findExistingDepartmentIds(candidates.stream()
+                .map(index -> users.get(index).getDepartmentId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (Integer index : candidates) {
+            UserEmailDto userEmailDto = users.get(index);
+            Long departmentId = userEmailDto.getDepartmentId();
+            if (existingEmails.contains(UserEmailFilter.normalize(userEmailDto.getEmail()))) {
+                results[index] = UserBatchItemResultDto.failed(index, "User with email " + userEmailDto.getEmail() + " already exists.");
+            } else if (departmentId != null && !existingDepartmentIds.contains(departmentId)) {
+                results[index] = UserBatchItemResultDto.failed(index, "Department with id " + departmentId + " not found.");
+            } else {
+                accepted.add(index);
+            }
+        }
+
+        List<String> encodedPasswords = passwordHasher.encodeAll(accepted.stream()
+                .map(index -> users.get(index).getPassword())
+                .toList());
+        String now = LocalDateTime.now().toString();
+        List<User> toInsert = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            UserEmailDto userEmailDto = users.get(accepted.get(i));
+            userEmailDto.setId(null);
+            userEmailDto.setCreatedAt(now);
+            userEmailDto.setUpdatedAt(now);
+            userEmailDto.setPassword(encodedPasswords.get(i));
+            toInsert.add(new User(userEmailDto));
+        }
+        return new PreparedBatch(results, accepted, toInsert);
+    }
+
+    private List<Integer> validateItems(List<UserEmailDto> users, UserBatchItemResultDto[] results) {
+        List<Integer> candidates = new ArrayList<>(users.size());
+        Map<String, Integer> firstIndexByEmail = new HashMap<>();
+        for (int index = 0; index < users.size(); index++) {
+            UserEmailDto userEmailDto = users.get(index);
+            if (userEmailDto == null) {
+                results[index] = UserBatchItemResultDto.failed(index, "User cannot be null.");
+                continue;
+            }
+            Set<ConstraintViolation<UserEmailDto>> violations = validator.validate(userEmailDto);
+            if (!violations.isEmpty()) {
+                results[index] = UserBatchItemResultDto.failed(index, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+            Integer firstIndex = firstIndexByEmail.putIfAbsent(UserEmailFilter.normalize(userEmailDto.getEmail()), index);
+            if (firstIndex != null) {
+                results[index] = UserBatchItemResultDto.failed(index, "Email " + userEmailDto.getEmail() + " is already used by item " + firstIndex + " of this batch.");
+                continue;
+            }
+            candidates.add(index);
+        }
+        return candidates;
+    }
+
+    private Set<String> findExistingEmails(List<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += lookupChunkSize) {
+            List<String> chunk = emails.subList(from, Math.min(from + lookupChunkSize, emails.size()));
+            existing.addAll(userRepository.findExistingEmails(chunk));
+        }
+        return existing;
+    }
+
+    private Set<Long> findExistingDepartmentIds(Set<Long> departmentIds) {
+        Set<Long> existing = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (Long departmentId : departmentIds) {
+            (departmentIdReplica.containsFresh(departmentId) ? existing : unknown).add(departmentId);
+        }
+        List<Long> unknownIds = new ArrayList<>(unknown);
+        for (int from = 0; from < unknownIds.size(); from += lookupChunkSize) {
+            List<Long> chunk = unknownIds.subList(from, Math.min(from + lookupChunkSize, unknownIds.size()));
+            List<Long> found = departmentServiceProxy.findExistingDepartmentIds(chunk);
+            departmentExistenceCache.record(chunk, found);
+            existing.addAll(found);
+        }
+        return existing;
+    }
+
+    public record PreparedBatch(UserBatchItemResultDto[] results, List<Integer> acceptedIndexes, List<User> users) {
+    }
+}
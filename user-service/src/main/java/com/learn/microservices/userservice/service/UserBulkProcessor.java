@@ -0,0 +1,87 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserMembershipDto;
+import com.learn.microservices.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Transactional steps of a bulk operation. A chunk's rows are locked, changed with one statement and their
+ * credential events written in the same transaction, so row locks are held for a single chunk only.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserBulkProcessor {
+
+    private final UserRepository userRepository;
+    private final CredentialEventService credentialEventService;
+    private final UserCountCache userCountCache;
+    private final UserSearchIndex userSearchIndex;
+
+    @Transactional
+    public ChunkResult updateChunk(Chunk chunk, String role, Long departmentId) {
+        List<UserMembershipDto> rows = lock(chunk);
+        if (rows.isEmpty()) {
+            return ChunkResult.EMPTY;
+        }
+        List<Long> ids = rows.stream().map(UserMembershipDto::getId).toList();
+        int affected = userRepository.updateMemberships(ids, role, departmentId, new Date(System.currentTimeMillis()));
+
+        List<Long> roleChanged = role == null ? List.of() : rows.stream()
+                .filter(row -> !role.equals(row.getRole()))
+                .map(UserMembershipDto::getId)
+                .toList();
+        if (!roleChanged.isEmpty()) {
+            credentialEventService.usersUpdated(roleChanged);
+        }
+        rows.forEach(row -> userCountCache.userMoved(row.getRole(), row.getDepartmentId(),
+                Objects.requireNonNullElse(role, row.getRole()), Objects.requireNonNullElse(departmentId, row.getDepartmentId())));
+        return new ChunkResult(rows.size(), affected, ids.get(ids.size() - 1));
+    }
+
+    @Transactional
+    public ChunkResult deleteChunk(Chunk chunk) {
+        List<UserMembershipDto> rows = lock(chunk);
+        if (rows.isEmpty()) {
+            return ChunkResult.EMPTY;
+        }
+        List<Long> ids = rows.stream().map(UserMembershipDto::getId).toList();
+        int affected = userRepository.deleteByIds(ids);
+
+        credentialEventService.usersDeleted(ids, ids.size());
+        rows.forEach(row -> userCountCache.userRemoved(row.getRole(), row.getDepartmentId()));
+        userSearchIndex.usersRemoved(ids);
+        return new ChunkResult(rows.size(), affected, ids.get(ids.size() - 1));
+    }
+
+    private List<UserMembershipDto> lock(Chunk chunk) {
+        return chunk.ids() != null
+                ? userRepository.lockMembershipsByIds(chunk.ids(), chunk.role(), chunk.departmentId())
+                : userRepository.lockMembershipsAfter(chunk.afterId(), chunk.role(), chunk.departmentId(), Limit.of(chunk.limit()));
+    }
+
+    /**
+     * Either an explicit list of ids, or the next {@code limit} users after {@code afterId}; both narrowed by the
+     * role and department filter.
+     */
+    public record Chunk(List<Long> ids, Long afterId, String role, Long departmentId, int limit) {
+
+        public static Chunk ofIds(List<Long> ids, String role, Long departmentId) {
+            return new Chunk(List.copyOf(ids), null, role, departmentId, ids.size());
+        }
+
+        public static Chunk after(Long afterId, String role, Long departmentId, int limit) {
+            return new Chunk(null, afterId, role, departmentId, limit);
+        }
+    }
+
+    public record ChunkResult(int locked, int affected, Long lastId) {
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, null);
+    }
+}
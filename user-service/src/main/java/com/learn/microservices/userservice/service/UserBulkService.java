@@ -0,0 +1,115 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserBulkFilterDto;
+import com.learn.microservices.userservice.dto.UserBulkResultDto;
+import com.learn.microservices.userservice.dto.UserBulkUpdateDto;
+import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Applies a role or department change, or a deletion, to every user matching a filter. Users are processed in id
+ * order, {@code users.bulk.chunk-size} at a time, each chunk as one set-based statement in its own transaction
+ * through {@link UserBulkProcessor}. Chunks that committed stay committed if a later one fails; both operations
+ * can be retried as they are.
+ */
+@Service
+@Slf4j
+public class UserBulkService {
+
+    private final UserBulkProcessor userBulkProcessor;
+    private final DepartmentExistenceService departmentExistenceService;
+    private final int maxIds;
+    private final int chunkSize;
+
+    public UserBulkService(UserBulkProcessor userBulkProcessor,
+                           DepartmentExistenceService departmentExistenceService,
+                           @Value("${users.bulk.max-ids}") int maxIds,
+                           @Value("${users.bulk.chunk-size}") int chunkSize) {
+        this.userBulkProcessor = userBulkProcessor;
+        this.departmentExistenceService = departmentExistenceService;
+        this.maxIds = maxIds;
+        this.chunkSize = chunkSize;
+    }
+
+    public UserBulkResultDto updateUsers(UserBulkUpdateDto request) {
+        UserBulkFilterDto filter = request.getFilter();
+        validate(filter);
+        String role = request.getRole();
+        Long departmentId = request.getDepartmentId();
+        if (role == null && departmentId == null) {
+            throw new InvalidBatchException("Bulk update must set a role or a department.");
+        }
+        if (role != null && role.isBlank()) {
+            throw new InvalidBatchException("Role cannot be blank.");
+        }
+        if (departmentId != null && !departmentExistenceService.isDepartmentExists(departmentId)) {
+            String msg = "Department with id " + departmentId + " not found.";
+            log.warn(msg);
+            throw new DepartmentNotFoundException(msg);
+        }
+        log.info("Bulk updating users matching {}: role={}, departmentId={}", filter, role, departmentId);
+        return run(filter, chunk -> userBulkProcessor.updateChunk(chunk, role, departmentId));
+    }
+
+    public UserBulkResultDto deleteUsers(UserBulkFilterDto filter) {
+        validate(filter);
+        log.info("Bulk deleting users matching {}", filter);
+        return run(filter, userBulkProcessor::deleteChunk);
+    }
+
+    private UserBulkResultDto run(UserBulkFilterDto filter, Function<UserBulkProcessor.Chunk, UserBulkProcessor.ChunkResult> operation) {
+        long affected = 0;
+        int chunks = 0;
+        if (filter.getIds() != null) {
+            List<Long> ids = new ArrayList<>(new TreeSet<>(filter.getIds()));
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                affected += operation.apply(UserBulkProcessor.Chunk.ofIds(chunk, filter.getRole(), filter.getDepartmentId())).affected();
+                chunks++;
+            }
+        } else {
+            long afterId = 0;
+            UserBulkProcessor.ChunkResult result;
+            do {
+                result = operation.apply(UserBulkProcessor.Chunk.after(afterId, filter.getRole(), filter.getDepartmentId(), chunkSize));
+                if (result.locked() > 0) {
+                    affected += result.affected();
+                    afterId = result.lastId();
+                    chunks++;
+                }
+            } while (result.locked() == chunkSize);
+        }
+        log.info("Bulk operation affected {} users in {} chunks.", affected, chunks);
+        return new UserBulkResultDto(affected, chunks);
+    }
+
+    private void validate(UserBulkFilterDto filter) {
+        if (filter == null) {
+            throw new InvalidBatchException("Bulk filter cannot be null.");
+        }
+        List<Long> ids = filter.getIds();
+        if (ids == null && filter.getRole() == null && filter.getDepartmentId() == null) {
+            throw new InvalidBatchException("Bulk filter must list ids or give a role or department.");
+        }
+        if (ids != null) {
+            if (ids.isEmpty()) {
+                throw new InvalidBatchException("Bulk filter ids cannot be empty.");
+            }
+            if (ids.size() > maxIds) {
+                throw new InvalidBatchException("Bulk filter cannot contain more than " + maxIds + " ids.");
+            }
+            if (ids.stream().anyMatch(Objects::isNull)) {
+                throw new InvalidBatchException("Bulk filter ids cannot be null.");
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Per-filter user counts for listings that use cached totals. A count is loaded on first use and then adjusted
+ * as users are created, deleted or moved between roles and departments on this instance, once the change has
+ * committed. Entries are reloaded after {@code ttl-ms}, which bounds the drift from writes made by other
+ * instances, so totals served from here are approximate.
+ */
+@Component
+@Slf4j
+public class UserCountCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<FilterKey, Entry> counts = new ConcurrentHashMap<>();
+
+    public UserCountCache(@Value("${users.count-cache.ttl-ms}") long ttlMillis,
+                          @Value("${users.count-cache.max-entries}") int maxEntries) {
+        this(ttlMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    UserCountCache(long ttlMillis, int maxEntries, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public long count(String role, Long departmentId, LongSupplier loader) {
+        FilterKey key = FilterKey.of(role, departmentId);
+        Entry entry = counts.get(key);
+        long now = clock.getAsLong();
+        if (entry != null && now - entry.loadedAt() <= ttlMillis) {
+            return entry.count().get();
+        }
+        long count = loader.getAsLong();
+        if (entry == null && counts.size() >= maxEntries) {
+            // Expired entries would only be reloaded on their next use, so they give up their slot to a new filter.
+            counts.values().removeIf(cached -> now - cached.loadedAt() > ttlMillis);
+        }
+        if (entry != null || counts.size() < maxEntries) {
+            counts.put(key, new Entry(new AtomicLong(count), now));
+        }
+        log.debug("Loaded user count {} for {}", count, key);
+        return count;
+    }
+
+    public void userAdded(String role, Long departmentId) {
+        TransactionCallbacks.afterCommit(() -> adjust(role, departmentId, 1));
+    }
+
+    public void usersAdded(List<User> users) {
+        TransactionCallbacks.afterCommit(() -> users.forEach(user -> adjust(user.getRole(), user.getDepartmentId(), 1)));
+    }
+
+    public void userRemoved(String role, Long departmentId) {
+        TransactionCallbacks.afterCommit(() -> adjust(role, departmentId, -1));
+    }
+
+    public void userMoved(String previousRole, Long previousDepartmentId, String role, Long departmentId) {
+        if (FilterKey.of(previousRole, previousDepartmentId).equals(FilterKey.of(role, departmentId))) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            adjust(previousRole, previousDepartmentId, -1);
+            adjust(role, departmentId, 1);
+        });
+    }
+
+    private void adjust(String role, Long departmentId, long delta) {
+        Stream.of(FilterKey.of(null, null), FilterKey.of(role, null), FilterKey.of(null, departmentId), FilterKey.of(role, departmentId))
+                .distinct()
+                .map(counts::get)
+                .filter(Objects::nonNull)
+                .forEach(entry -> entry.count().addAndGet(delta));
+    }
+
+    private record FilterKey(String role, Long departmentId) {
+        private static FilterKey of(String role, Long departmentId) {
+            return new FilterKey(role == null ? null : role.toUpperCase(Locale.ROOT), departmentId);
+        }
+    }
+
+    private record Entry(AtomicLong count, long loadedAt) {
+    }
+}
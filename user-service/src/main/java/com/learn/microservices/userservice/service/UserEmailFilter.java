@@ -0,0 +1,94 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.repository.UserRepository;
+import com.learn.microservices.userservice.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of normalized user emails, so that email existence checks for addresses nobody uses are answered
+ * without a query. A negative from {@link #mightContain} is definite for emails written through this instance;
+ * emails added through other instances are picked up by the periodic rebuild, which also drops deleted ones.
+ * Until the first rebuild completes every email is reported as possibly present.
+ */
+@Component
+@Slf4j
+public class UserEmailFilter {
+
+    private final UserRepository userRepository;
+    private final long expectedEmails;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    public UserEmailFilter(UserRepository userRepository,
+                           @Value("${users.email-filter.expected-emails}") long expectedEmails,
+                           @Value("${users.email-filter.false-positive-rate}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedEmails = expectedEmails;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean mightContain(String email) {
+        BloomFilter filter = current;
+        return filter == null || filter.mightContain(normalize(email));
+    }
+
+    /**
+     * Records an email before it is written and again once the transaction commits, so that neither a rebuild
+     * that started before the write nor one that started before the commit can miss it.
+     */
+    public void emailAdded(String email) {
+        String normalized = normalize(email);
+        put(normalized);
+        TransactionCallbacks.afterCommit(() -> put(normalized));
+    }
+
+    @Scheduled(fixedDelayString = "${users.email-filter.rebuild-interval-ms}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        try {
+            BloomFilter filter = BloomFilter.create(Math.max(expectedEmails, userRepository.count() * 2), falsePositiveRate);
+            building = filter;
+            AtomicLong emails = new AtomicLong();
+            try (Stream<String> stream = userRepository.streamNormalizedEmails()) {
+                stream.forEach(email -> {
+                    filter.put(email);
+                    emails.incrementAndGet();
+                });
+            }
+            current = filter;
+            log.info("Rebuilt email filter with {} emails, {} bits, {} hashes.", emails.get(), filter.bitCount(), filter.hashCount());
+        } catch (Exception e) {
+            log.warn("Failed to rebuild email filter: {}", e.getMessage());
+            log.trace("Stack trace: ", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    // The filter being built is written first: once it is published as current, building is cleared, so a
+    // writer that finds no filter being built is guaranteed to see the new current one.
+    private void put(String normalized) {
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(normalized);
+        }
+    }
+}
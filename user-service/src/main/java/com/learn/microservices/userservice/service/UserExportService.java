@@ -0,0 +1,113 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.entity.ExportFormat;
+import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams users straight from a forward-only result set to the response. Rows are projected into
+ * {@link UserDto}, so nothing is kept in the persistence context, and each row is written before the next one
+ * is read: heap use does not grow with the export, and a slow client blocks the writer instead of making the
+ * server buffer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportService {
+
+    static final String CSV_HEADER = "id,firstName,lastName,email,phoneNumber,role,departmentId,createdAt,updatedAt";
+
+    private final UserRepository userRepository;
+    private final DepartmentExistenceService departmentExistenceService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Checks the filter before anything is written, so a bad department is still answered with 404.
+     */
+    public void validateFilter(Long departmentId) {
+        if (departmentId != null && !departmentExistenceService.isDepartmentExists(departmentId)) {
+            String msg = "Department with id " + departmentId + " not found.";
+            log.warn(msg);
+            throw new DepartmentNotFoundException(msg);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long export(String role, Long departmentId, ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting users as {}, role: {}, department ID: {}", format, role, departmentId);
+        long rows;
+        try (Stream<UserDto> users = streamUsers(role, departmentId)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            rows = format == ExportFormat.CSV ? writeCsv(users.iterator(), writer) : writeNdjson(users.iterator(), writer);
+            writer.flush();
+        }
+        log.info("Exported {} users as {}", rows, format);
+        return rows;
+    }
+
+    private Stream<UserDto> streamUsers(String role, Long departmentId) {
+        if (role != null && departmentId != null) {
+            return userRepository.streamByRoleAndDepartmentIdOrderByIdAsc(role, departmentId);
+        } else if (role != null) {
+            return userRepository.streamByRoleOrderByIdAsc(role);
+        } else if (departmentId != null) {
+            return userRepository.streamByDepartmentIdOrderByIdAsc(departmentId);
+        }
+        return userRepository.streamAllByOrderByIdAsc();
+    }
+
+    private long writeNdjson(Iterator<UserDto> users, Writer writer) throws IOException {
+        long rows = 0;
+        SequenceWriter sequenceWriter = objectMapper.writerFor(UserDto.class)
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+        while (users.hasNext()) {
+            sequenceWriter.write(users.next());
+            rows++;
+        }
+        sequenceWriter.flush();
+        if (rows > 0) {
+            writer.write('\n');
+        }
+        return rows;
+    }
+
+    private static long writeCsv(Iterator<UserDto> users, Writer writer) throws IOException {
+        long rows = 0;
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (users.hasNext()) {
+            UserDto user = users.next();
+            writer.write(String.join(",",
+                    csv(user.getId()), csv(user.getFirstName()), csv(user.getLastName()), csv(user.getEmail()),
+                    csv(user.getPhoneNumber()), csv(user.getRole()), csv(user.getDepartmentId()),
+                    csv(user.getCreatedAt()), csv(user.getUpdatedAt())));
+            writer.write('\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,70 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.BatchItemStatus;
+import com.learn.microservices.userservice.dto.UserBatchItemResultDto;
+import com.learn.microservices.userservice.dto.UserBatchResponseDto;
+import com.learn.microservices.userservice.entity.ImportJobStatus;
+import com.learn.microservices.userservice.repository.ImportJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transactional steps of an import job. A chunk's users, its row errors and the job checkpoint commit together,
+ * so a job that stops at any point resumes exactly after the last committed chunk.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserImportProcessor {
+
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+
+    private final ImportJobRepository importJobRepository;
+    private final UserBatchProcessor userBatchProcessor;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public boolean claim(Long jobId, Collection<ImportJobStatus> claimableStatuses) {
+        return importJobRepository.claim(jobId, claimableStatuses, new Timestamp(System.currentTimeMillis())) > 0;
+    }
+
+    @Transactional
+    public void commitChunk(Long jobId, List<UserImportReader.ImportRow> rows, List<UserImportReader.ImportRow> parsedRows,
+                            UserBatchService.PreparedBatch batch, long nextLine) {
+        List<Object[]> errors = new ArrayList<>();
+        rows.stream()
+                .filter(row -> row.error() != null)
+                .forEach(row -> errors.add(new Object[]{jobId, row.lineNumber(), truncate(row.error())}));
+
+        int created = 0;
+        if (batch != null) {
+            UserBatchResponseDto response = userBatchProcessor.persist(batch);
+            created = response.getCreated();
+            for (UserBatchItemResultDto result : response.getResults()) {
+                if (result.getStatus() == BatchItemStatus.FAILED) {
+                    errors.add(new Object[]{jobId, parsedRows.get(result.getIndex()).lineNumber(), truncate(result.getError())});
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into import_job_errors (job_id, line_number, message) values (?, ?, ?)", errors);
+        }
+        importJobRepository.checkpoint(jobId, nextLine, rows.size(), created, errors.size());
+    }
+
+    @Transactional
+    public void finish(Long jobId, ImportJobStatus status, String error) {
+        importJobRepository.finish(jobId, status, error == null ? null : truncate(error), new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+}
@@ -0,0 +1,178 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.entity.ImportFormat;
+import com.learn.microservices.userservice.exception.InvalidImportException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads a spooled import file line by line. Positions are physical line numbers, which is what import jobs
+ * checkpoint, so a resumed job skips straight past everything that was already committed.
+ * <p>
+ * CSV files need a header row; column names are matched case-insensitively and may use snake_case.
+ * Quoted fields are supported but may not span lines.
+ */
+class UserImportReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectReader jsonReader;
+    private String[] columns;
+    private long lineNumber;
+
+    private UserImportReader(BufferedReader reader, ImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(UserEmailDto.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    static UserImportReader open(Path file, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        UserImportReader importReader = new UserImportReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), format, objectMapper);
+        try {
+            if (format == ImportFormat.CSV) {
+                importReader.readHeader();
+            }
+        } catch (RuntimeException e) {
+            importReader.close();
+            throw e;
+        }
+        return importReader;
+    }
+
+    static long countRows(Path file, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        try (UserImportReader importReader = open(file, format, objectMapper)) {
+            long rows = 0;
+            String line;
+            while ((line = importReader.reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    void skipTo(long line) throws IOException {
+        while (lineNumber < line && reader.readLine() != null) {
+            lineNumber++;
+        }
+    }
+
+    List<ImportRow> next(int maxRows) throws IOException {
+        List<ImportRow> rows = new ArrayList<>(maxRows);
+        String line;
+        while (rows.size() < maxRows && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                rows.add(parse(line));
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                break;
+            }
+        }
+        if (line == null) {
+            throw new InvalidImportException("CSV upload must start with a header row.");
+        }
+        List<String> names = splitCsvLine(line);
+        columns = new String[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            columns[i] = names.get(i).replace("_", "").trim().toLowerCase(Locale.ROOT);
+        }
+        if (!List.of(columns).contains("email")) {
+            throw new InvalidImportException("CSV header must contain an email column.");
+        }
+    }
+
+    private ImportRow parse(String line) {
+        try {
+            UserEmailDto user = format == ImportFormat.CSV ? parseCsv(line) : jsonReader.readValue(line);
+            return new ImportRow(lineNumber, user, null);
+        } catch (Exception e) {
+            return new ImportRow(lineNumber, null, "Could not parse line: " + e.getMessage());
+        }
+    }
+
+    private UserEmailDto parseCsv(String line) {
+        List<String> values = splitCsvLine(line);
+        UserEmailDto user = new UserEmailDto();
+        for (int i = 0; i < columns.length && i < values.size(); i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            switch (columns[i]) {
+                case "firstname" -> user.setFirstName(value);
+                case "lastname" -> user.setLastName(value);
+                case "email" -> user.setEmail(value);
+                case "password" -> user.setPassword(value);
+                case "phonenumber" -> user.setPhoneNumber(value);
+                case "role" -> user.setRole(value);
+                case "departmentid" -> user.setDepartmentId(value == null ? null : Long.valueOf(value.trim()));
+                default -> {
+                }
+            }
+        }
+        return user;
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    record ImportRow(long lineNumber, UserEmailDto user, String error) {
+    }
+}
@@ -0,0 +1,227 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.dto.ImportJobDto;
+import com.learn.microservices.userservice.dto.ImportJobErrorDto;
+import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.entity.ImportFormat;
+import com.learn.microservices.userservice.entity.ImportJob;
+import com.learn.microservices.userservice.entity.ImportJobStatus;
+import com.learn.microservices.userservice.exception.ImportJobNotFoundException;
+import com.learn.microservices.userservice.exception.InvalidImportException;
+import com.learn.microservices.userservice.repository.ImportJobErrorRepository;
+import com.learn.microservices.userservice.repository.ImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs user imports in the background. Uploads are spooled to local disk and processed in chunks: rows are
+ * parsed and their passwords hashed outside the database transaction, then each chunk is committed together
+ * with its checkpoint by {@link UserImportProcessor}.
+ * <p>
+ * Jobs only resume on the instance that holds their spool file; interrupted jobs are picked up on startup
+ * and failed ones through {@link #resumeJob}.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportJobErrorRepository importJobErrorRepository;
+    private final UserImportProcessor userImportProcessor;
+    private final UserBatchService userBatchService;
+    private final ObjectMapper objectMapper;
+    private final Path spoolDirectory;
+    private final int chunkSize;
+    private final ExecutorService executor;
+    private final Map<Long, ImportProgress> progress = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    public UserImportService(ImportJobRepository importJobRepository,
+                             ImportJobErrorRepository importJobErrorRepository,
+                             UserImportProcessor userImportProcessor,
+                             UserBatchService userBatchService,
+                             ObjectMapper objectMapper,
+                             @Value("${users.import.spool-dir}") String spoolDirectory,
+                             @Value("${users.import.chunk-size}") int chunkSize,
+                             @Value("${users.batch.max-size}") int maxBatchSize,
+                             @Value("${users.import.worker-threads}") int workerThreads) {
+        // Each chunk goes through UserBatchService.prepare, which rejects batches above its maximum size.
+        if (chunkSize < 1 || chunkSize > maxBatchSize) {
+            throw new IllegalArgumentException("users.import.chunk-size must be between 1 and users.batch.max-size ("
+                    + maxBatchSize + "), was " + chunkSize + ".");
+        }
+        this.importJobRepository = importJobRepository;
+        this.importJobErrorRepository = importJobErrorRepository;
+        this.userImportProcessor = userImportProcessor;
+        this.userBatchService = userBatchService;
+        this.objectMapper = objectMapper;
+        this.spoolDirectory = Path.of(spoolDirectory);
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(workerThreads);
+    }
+
+    public ImportJobDto createJob(ImportFormat format, InputStream body) throws IOException {
+        Files.createDirectories(spoolDirectory);
+        Path file = Files.createTempFile(spoolDirectory, "users-", "." + format.name().toLowerCase());
+        long totalRows;
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            totalRows = UserImportReader.countRows(file, format, objectMapper);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        if (totalRows == 0) {
+            Files.deleteIfExists(file);
+            throw new InvalidImportException("Upload does not contain any rows.");
+        }
+
+        ImportJob job = importJobRepository.save(new ImportJob(format, file.toString(), totalRows));
+        log.info("Created import job {} for {} {} rows", job.getId(), totalRows, format);
+        submit(job.getId(), Set.of(ImportJobStatus.PENDING));
+        return new ImportJobDto(job, null, null);
+    }
+
+    public ImportJobDto getJob(Long id) {
+        ImportJob job = getJobIfExist(id);
+        ImportProgress jobProgress = progress.get(id);
+        if (jobProgress == null || job.getStatus() != ImportJobStatus.RUNNING) {
+            return new ImportJobDto(job, null, null);
+        }
+        double rowsPerSecond = jobProgress.rowsPerSecond();
+        Long etaSeconds = rowsPerSecond > 0
+                ? (long) Math.ceil(Math.max(0, job.getTotalRows() - job.getProcessedRows()) / rowsPerSecond)
+                : null;
+        return new ImportJobDto(job, rowsPerSecond, etaSeconds);
+    }
+
+    public List<ImportJobErrorDto> getErrors(Long id, long afterLine, int limit) {
+        getJobIfExist(id);
+        return importJobErrorRepository.findByJobIdAndLineNumberGreaterThanOrderByLineNumberAsc(id, afterLine, Limit.of(limit))
+                .stream()
+                .map(ImportJobErrorDto::new)
+                .toList();
+    }
+
+    public ImportJobDto resumeJob(Long id) {
+        ImportJob job = getJobIfExist(id);
+        if (job.getStatus() != ImportJobStatus.FAILED) {
+            throw new InvalidImportException("Import job with id " + id + " is " + job.getStatus() + " and cannot be resumed.");
+        }
+        if (!Files.exists(Path.of(job.getFilePath()))) {
+            throw new InvalidImportException("Upload of import job with id " + id + " is not available on this instance.");
+        }
+        log.info("Resuming import job {} from line {}", id, job.getNextLine());
+        submit(id, Set.of(ImportJobStatus.FAILED));
+        return new ImportJobDto(job, null, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (ImportJob job : importJobRepository.findByStatusInOrderByIdAsc(Set.of(ImportJobStatus.PENDING, ImportJobStatus.RUNNING))) {
+            if (Files.exists(Path.of(job.getFilePath()))) {
+                log.info("Resuming interrupted import job {} from line {}", job.getId(), job.getNextLine());
+                submit(job.getId(), Set.of(job.getStatus()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+
+    private void submit(Long id, Set<ImportJobStatus> claimableStatuses) {
+        executor.submit(() -> run(id, claimableStatuses));
+    }
+
+    private void run(Long id, Set<ImportJobStatus> claimableStatuses) {
+        if (!userImportProcessor.claim(id, claimableStatuses)) {
+            log.info("Import job {} is already being processed", id);
+            return;
+        }
+        ImportJob job = getJobIfExist(id);
+        ImportProgress jobProgress = new ImportProgress(job.getProcessedRows());
+        progress.put(id, jobProgress);
+        Path file = Path.of(job.getFilePath());
+        try (UserImportReader reader = UserImportReader.open(file, job.getFormat(), objectMapper)) {
+            reader.skipTo(job.getNextLine());
+            List<UserImportReader.ImportRow> rows;
+            while (!(rows = reader.next(chunkSize)).isEmpty()) {
+                if (shuttingDown) {
+                    log.info("Stopping import job {} for shutdown, it will resume on restart", id);
+                    return;
+                }
+                processChunk(id, rows, reader.getLineNumber());
+                jobProgress.processed.addAndGet(rows.size());
+            }
+            userImportProcessor.finish(id, ImportJobStatus.COMPLETED, null);
+            log.info("Import job {} completed", id);
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            if (shuttingDown) {
+                log.info("Import job {} interrupted by shutdown, it will resume on restart", id);
+                return;
+            }
+            log.error("Import job {} failed: {}", id, e.getMessage(), e);
+            userImportProcessor.finish(id, ImportJobStatus.FAILED, String.valueOf(e.getMessage()));
+        } finally {
+            progress.remove(id);
+        }
+    }
+
+    private void processChunk(Long id, List<UserImportReader.ImportRow> rows, long nextLine) {
+        List<UserImportReader.ImportRow> parsedRows = rows.stream()
+                .filter(row -> row.error() == null)
+                .toList();
+        List<UserEmailDto> users = parsedRows.stream()
+                .map(UserImportReader.ImportRow::user)
+                .toList();
+        UserBatchService.PreparedBatch batch = users.isEmpty() ? null : userBatchService.prepare(users);
+        userImportProcessor.commitChunk(id, rows, parsedRows, batch, nextLine);
+    }
+
+    private ImportJob getJobIfExist(Long id) {
+        return importJobRepository.findById(id).orElseThrow(() -> {
+            String msg = "Import job with id " + id + " not found.";
+            log.warn(msg);
+            return new ImportJobNotFoundException(msg);
+        });
+    }
+
+    private static final class ImportProgress {
+        private final long startRows;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong processed;
+
+        private ImportProgress(long startRows) {
+            this.startRows = startRows;
+            this.processed = new AtomicLong(startRows);
+        }
+
+        private double rowsPerSecond() {
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            return elapsedSeconds > 0 ? (processed.get() - startRows) / elapsedSeconds : 0;
+        }
+    }
+}
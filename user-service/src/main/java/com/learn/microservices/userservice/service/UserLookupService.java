@@ -0,0 +1,83 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.dto.UserLookupDto;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Resolves a list of user ids in a few {@code IN} queries instead of one request and query per id. Ids are
+ * de-duplicated and sorted before they are chunked, so each chunk reads a contiguous stretch of the primary key;
+ * the response keeps the order of the request.
+ */
+@Service
+@Slf4j
+public class UserLookupService {
+
+    private final UserRepository userRepository;
+    private final int maxIds;
+    private final int chunkSize;
+    private final DistributionSummary batchSize;
+    private final DistributionSummary missingSize;
+
+    public UserLookupService(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${users.lookup.max-ids}") int maxIds,
+                             @Value("${users.lookup.chunk-size}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.maxIds = maxIds;
+        this.chunkSize = chunkSize;
+        this.batchSize = DistributionSummary.builder("users.lookup.batch.size")
+                .description("Ids requested per user lookup")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.missingSize = DistributionSummary.builder("users.lookup.missing")
+                .description("Requested ids per user lookup that did not match a user")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public UserLookupDto getUsersByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidBatchException("Lookup must contain at least one id.");
+        }
+        if (ids.size() > maxIds) {
+            throw new InvalidBatchException("Lookup cannot contain more than " + maxIds + " ids.");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidBatchException("Lookup ids cannot be null.");
+        }
+        batchSize.record(ids.size());
+
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        List<Long> sorted = new ArrayList<>(requested);
+        Collections.sort(sorted);
+        Map<Long, UserDto> found = new HashMap<>();
+        for (int from = 0; from < sorted.size(); from += chunkSize) {
+            List<Long> chunk = sorted.subList(from, Math.min(from + chunkSize, sorted.size()));
+            userRepository.findDtoByIdIn(chunk).forEach(user -> found.put(user.getId(), user));
+        }
+
+        List<UserDto> users = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            UserDto user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missing.add(id);
+            }
+        }
+        missingSize.record(missing.size());
+        log.info("Resolved {} of {} requested user ids.", users.size(), requested.size());
+        return new UserLookupDto(users, missing);
+    }
+}
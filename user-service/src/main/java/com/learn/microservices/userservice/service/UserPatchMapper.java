@@ -0,0 +1,64 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserPatchDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.exception.InvalidPatchException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Applies a {@link UserPatchDto} to a {@link User} with plain getters and setters. Only fields present in the
+ * patch are looked at, and a field is only assigned when its value differs, so an unchanged entity stays clean.
+ */
+final class UserPatchMapper {
+
+    private UserPatchMapper() {
+    }
+
+    /**
+     * @return whether any field of the user was changed.
+     */
+    static boolean apply(UserPatchDto patch, User user, PasswordEncoder passwordEncoder) {
+        boolean changed = false;
+        if (patch.has("firstName")) {
+            changed |= set(user.getFirstName(), required(patch.getFirstName(), "firstName"), user::setFirstName);
+        }
+        if (patch.has("lastName")) {
+            changed |= set(user.getLastName(), required(patch.getLastName(), "lastName"), user::setLastName);
+        }
+        if (patch.has("email")) {
+            changed |= set(user.getEmail(), required(patch.getEmail(), "email"), user::setEmail);
+        }
+        if (patch.has("phoneNumber")) {
+            changed |= set(user.getPhoneNumber(), patch.getPhoneNumber(), user::setPhoneNumber);
+        }
+        if (patch.has("role")) {
+            changed |= set(user.getRole(), required(patch.getRole(), "role"), user::setRole);
+        }
+        if (patch.has("departmentId")) {
+            changed |= set(user.getDepartmentId(), patch.getDepartmentId(), user::setDepartmentId);
+        }
+        if (patch.has("password")) {
+            user.setPassword(passwordEncoder.encode(required(patch.getPassword(), "password")));
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static <T> boolean set(T current, T value, Consumer<T> setter) {
+        if (Objects.equals(current, value)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+
+    private static <T> T required(T value, String field) {
+        if (value == null) {
+            throw new InvalidPatchException("Field " + field + " cannot be removed.");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,361 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index for user search by name and email. Full names and emails are indexed by trigram, and the
+ * first one and two characters of each name and the email are indexed as prefixes so that short queries work too.
+ * Posting lists are sorted {@code long[]} arrays; ids come from a sequence, so new users are appended.
+ * <p>
+ * Matches are verified against the indexed text and ranked: an exact field match first, then field prefixes,
+ * then substrings. The index is loaded at startup and kept current by this instance's committed writes, so
+ * callers should load the returned ids from the database rather than trust them blindly. A write that commits
+ * while the load runs wins over the rows the load reads for the same id, which may be older.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    private static final long PREFIX_1 = 1L << 48;
+    private static final long PREFIX_2 = 2L << 48;
+    private static final long TRIGRAM = 3L << 48;
+
+    private final UserRepository userRepository;
+    private final int loadChunkSize;
+    private final Timer searchTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private Set<Long> writtenDuringLoad;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${users.search.load-chunk-size}") int loadChunkSize) {
+        this.userRepository = userRepository;
+        this.loadChunkSize = loadChunkSize;
+        this.searchTimer = Timer.builder("users.search.latency")
+                .description("Time spent answering user search queries from the index")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("users.search.index.documents", this, UserSearchIndex::size)
+                .description("Users held in the search index")
+                .register(meterRegistry);
+        Gauge.builder("users.search.index.grams", this, UserSearchIndex::gramCount)
+                .description("Distinct trigrams and prefixes in the search index")
+                .register(meterRegistry);
+        Gauge.builder("users.search.index.memory", this, UserSearchIndex::estimatedBytes)
+                .description("Estimated heap used by the search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        write(() -> writtenDuringLoad = new HashSet<>());
+        try {
+            long lastId = 0;
+            List<UserDto> chunk;
+            do {
+                chunk = userRepository.findRange(lastId, Long.MAX_VALUE, Limit.of(loadChunkSize));
+                lock.writeLock().lock();
+                try {
+                    chunk.stream()
+                            .filter(user -> !writtenDuringLoad.contains(user.getId()))
+                            .forEach(user -> put(user.getId(), Document.of(user.getFirstName(), user.getLastName(), user.getEmail())));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+            } while (chunk.size() == loadChunkSize);
+            log.info("Loaded {} users into the search index, {} grams, ~{} bytes", size(), gramCount(), estimatedBytes());
+        } catch (Exception e) {
+            log.warn("Failed to load the user search index: {}", e.getMessage());
+            log.trace("Stack trace: ", e);
+        } finally {
+            write(() -> writtenDuringLoad = null);
+        }
+    }
+
+    public void userSaved(User user) {
+        Long id = user.getId();
+        Document document = Document.of(user.getFirstName(), user.getLastName(), user.getEmail());
+        TransactionCallbacks.afterCommit(() -> write(() -> saved(id, document)));
+    }
+
+    public void usersSaved(List<User> users) {
+        Map<Long, Document> saved = new LinkedHashMap<>();
+        users.forEach(user -> saved.put(user.getId(), Document.of(user.getFirstName(), user.getLastName(), user.getEmail())));
+        TransactionCallbacks.afterCommit(() -> write(() -> saved.forEach(this::saved)));
+    }
+
+    public void userRemoved(Long id) {
+        TransactionCallbacks.afterCommit(() -> write(() -> removed(id)));
+    }
+
+    public void usersRemoved(List<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        TransactionCallbacks.afterCommit(() -> write(() -> removed.forEach(this::removed)));
+    }
+
+    /**
+     * @return ids of the best matches, best first.
+     */
+    public List<Long> search(String query, int limit) {
+        return searchTimer.record(() -> {
+            String text = normalize(query);
+            lock.readLock().lock();
+            try {
+                long[] candidates = candidates(text);
+                PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingInt(Match::score)
+                        .thenComparing(Comparator.comparingLong(Match::id).reversed()));
+                for (long id : candidates) {
+                    int score = documents.get(id).score(text);
+                    if (score > 0) {
+                        best.add(new Match(id, score));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+                List<Long> ids = new ArrayList<>(best.size());
+                while (!best.isEmpty()) {
+                    ids.add(best.poll().id());
+                }
+                Collections.reverse(ids);
+                return ids;
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int gramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough heap estimate for compressed oops and Latin-1 strings: map entries, boxed keys, documents and
+     * posting arrays.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Document document : documents.values()) {
+                bytes += 32 + 16 + 24 + 3 * 40L + document.fullName().length() + document.email().length()
+                        + document.firstName().length() + document.lastName().length();
+            }
+            for (Postings list : postings.values()) {
+                bytes += 32 + 16 + 24 + 16 + 8L * list.ids.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void saved(Long id, Document document) {
+        if (writtenDuringLoad != null) {
+            writtenDuringLoad.add(id);
+        }
+        put(id, document);
+    }
+
+    private void removed(Long id) {
+        if (writtenDuringLoad != null) {
+            writtenDuringLoad.add(id);
+        }
+        remove(id);
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] candidates(String text) {
+        if (text.isEmpty()) {
+            return new long[0];
+        }
+        if (text.length() < 3) {
+            Postings list = postings.get(prefixGram(text));
+            return list == null ? new long[0] : Arrays.copyOf(list.ids, list.size);
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : trigrams(text)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings smallest = lists.get(0);
+        long[] result = new long[smallest.size];
+        int count = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void put(Long id, Document document) {
+        remove(id);
+        documents.put(id, document);
+        for (long gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (long gram : previous.grams()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long prefixGram(String text) {
+        return text.length() == 1 ? PREFIX_1 | text.charAt(0) : PREFIX_2 | (long) text.charAt(0) << 16 | text.charAt(1);
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(TRIGRAM | (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private record Match(long id, int score) {
+    }
+
+    private record Document(String firstName, String lastName, String fullName, String email) {
+
+        private static Document of(String firstName, String lastName, String email) {
+            String first = normalize(firstName);
+            String last = normalize(lastName);
+            return new Document(first, last, (first + " " + last).trim(), normalize(email));
+        }
+
+        private Set<Long> grams() {
+            Set<Long> grams = new HashSet<>(trigrams(fullName));
+            grams.addAll(trigrams(email));
+            for (String field : List.of(firstName, lastName, email)) {
+                for (int length = 1; length <= Math.min(2, field.length()); length++) {
+                    grams.add(prefixGram(field.substring(0, length)));
+                }
+            }
+            return grams;
+        }
+
+        private int score(String text) {
+            int score = 0;
+            for (String field : List.of(email, fullName, firstName, lastName)) {
+                if (field.equals(text)) {
+                    score = Math.max(score, 100);
+                } else if (field.startsWith(text)) {
+                    score = Math.max(score, 50);
+                } else if (text.length() >= 3 && field.contains(text)) {
+                    score = Math.max(score, 10);
+                }
+            }
+            return score;
+        }
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        private void insert(int index, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            if (size > 4 && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            return true;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -2,79 +2,87 @@ package com.learn.microservices.userservice.service;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.SliceDto;
 import com.learn.microservices.userservice.dto.UserDto;
 import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.dto.UserPatchDto;
+import com.learn.microservices.userservice.dto.VersionedDto;
 import com.learn.microservices.userservice.entity.User;
 import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
 import com.learn.microservices.userservice.exception.EmailAlreadyExistException;
+import com.learn.microservices.userservice.exception.InvalidPaginationException;
+import com.learn.microservices.userservice.exception.InvalidSearchException;
+import com.learn.microservices.userservice.exception.PreconditionFailedException;
 import com.learn.microservices.userservice.exception.UserNotFoundException;
-import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
 import com.learn.microservices.userservice.repository.UserRepository;
+import com.learn.microservices.userservice.util.FieldSet;
+import com.learn.microservices.userservice.util.KeysetCursor;
 import com.learn.microservices.userservice.util.PaginationOptions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserService {
+    private static final Set<String> SORT_FIELDS = Set.of("id", "firstName", "lastName");
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
-    private final DepartmentServiceProxy departmentServiceProxy;
+    private final DepartmentExistenceService departmentExistenceService;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialEventService credentialEventService;
+    private final UserCountCache userCountCache;
+    private final UserSearchIndex userSearchIndex;
+    private final UserEmailFilter userEmailFilter;
+    private final UserWriteProcessor userWriteProcessor;
 
     public Page<UserDto> getUsersByFilter(String role, Long departmentId,
-                                          PaginationOptions paginationOptions) {
+                                          PaginationOptions paginationOptions, FieldSet fields) {
         log.info("Fetching users with pagination, page: {}, size: {}", paginationOptions.getPage(), paginationOptions.getSize());
         try {
-            Page<User> users;
-
-            Sort sort = Sort.unsorted();
-            String sortBy = paginationOptions.getSortBy();
-            String sortOrder = paginationOptions.getSortOrder();
-
-            if (sortBy != null && !sortBy.isBlank()) {
-                if (sortOrder != null && sortOrder.equalsIgnoreCase("desc")) {
-                    sort = Sort.by(Sort.Order.desc(sortBy));
-                } else {
-                    sort = Sort.by(Sort.Order.asc(sortBy));
-                }
-            }
+            Page<UserDto> users;
 
-            Pageable sortedPageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), sort);
+            Pageable sortedPageable = toPageable(paginationOptions);
 
-            if (role != null && departmentId != null) {
+            if (!fields.isAll()) {
+                log.info("Fetching users with fields: {}", fields.names());
+                Slice<UserDto> slice = findSlice(role, departmentId, sortedPageable, fields);
+                users = new PageImpl<>(slice.getContent(), sortedPageable, countUsers(role, departmentId));
+            } else if (role != null && departmentId != null) {
                 log.info("Fetching users by role: {} and department ID: {}", role, departmentId);
                 users = userRepository.findByRoleAndDepartmentId(role, departmentId, sortedPageable);
             } else if (role != null) {
                 log.info("Fetching users by role: {}", role);
                 users = userRepository.findByRole(role, sortedPageable);
             } else if (departmentId != null) {
-                if (!departmentServiceProxy.isDepartmentExists(departmentId)) {
-                    String departmentIdMsg = "Department with id " + departmentId + " not found.";
-                    log.warn(departmentIdMsg);
-                    throw new DepartmentNotFoundException(departmentIdMsg);
-                }
+                checkDepartmentExists(departmentId);
                 log.info("Fetching users by department ID: {}", departmentId);
                 users = userRepository.findByDepartmentId(departmentId, sortedPageable);
             } else {
                 log.info("Fetching all users.");
-                users = userRepository.findAll(sortedPageable);
+                users = userRepository.findAllBy(sortedPageable);
             }
 
-            Page<UserDto> userDtos = users.map(UserDto::new);
-            log.info("Successfully fetched {} users.", userDtos.getTotalElements());
-            return userDtos;
-        } catch (DepartmentNotFoundException e) {
+            log.info("Successfully fetched {} users.", users.getTotalElements());
+            return users;
+        } catch (DepartmentNotFoundException | InvalidPaginationException e) {
             throw e;
         } catch (Exception e) {
             String msg = "Failed to fetch users, " + e.getMessage();
@@ -83,32 +91,128 @@ public class UserService {
         }
     }
 
-    public UserDto getUserById(Long id) {
+    /**
+     * Same as {@link #getUsersByFilter}, but the total comes from {@link UserCountCache} instead of a
+     * {@code COUNT(*)} per request, so it may lag behind recent writes.
+     */
+    public Page<UserDto> getUsersWithCachedCount(String role, Long departmentId,
+                                                 PaginationOptions paginationOptions, FieldSet fields) {
+        log.info("Fetching users with cached count, page: {}, size: {}", paginationOptions.getPage(), paginationOptions.getSize());
+        Pageable pageable = toPageable(paginationOptions);
+        Slice<UserDto> users = findSlice(role, departmentId, pageable, fields);
+        long total = userCountCache.count(role, departmentId, () -> countUsers(role, departmentId));
+        return new PageImpl<>(users.getContent(), pageable, total);
+    }
+
+    public SliceDto<UserDto> getUsersSlice(String role, Long departmentId, PaginationOptions paginationOptions,
+                                           FieldSet fields) {
+        log.info("Fetching users without count, page: {}, size: {}", paginationOptions.getPage(), paginationOptions.getSize());
+        Slice<UserDto> users = findSlice(role, departmentId, toPageable(paginationOptions), fields);
+        log.info("Successfully fetched {} users.", users.getNumberOfElements());
+        return new SliceDto<>(users.getContent(), users.getNumber(), users.getSize(), users.hasNext());
+    }
+
+    public CursorPageDto<UserDto> getUsersByCursor(String role, Long departmentId, String cursor,
+                                                   PaginationOptions paginationOptions) {
+        KeysetCursor keysetCursor = cursor == null || cursor.isBlank()
+                ? KeysetCursor.first(paginationOptions.getSortBy(), paginationOptions.getSortOrder(), SORT_FIELDS)
+                : KeysetCursor.decode(cursor, SORT_FIELDS);
+        log.info("Fetching users by cursor, sort: {} {}, size: {}", keysetCursor.sortBy(), keysetCursor.direction(), paginationOptions.getSize());
+
+        ScrollPosition position = keysetCursor.position();
+        Sort sort = keysetCursor.sort();
+        Limit limit = Limit.of(paginationOptions.getSize());
+        Window<User> users;
+        if (role != null && departmentId != null) {
+            users = userRepository.findByRoleAndDepartmentId(role, departmentId, position, sort, limit);
+        } else if (role != null) {
+            users = userRepository.findByRole(role, position, sort, limit);
+        } else if (departmentId != null) {
+            checkDepartmentExists(departmentId);
+            users = userRepository.findByDepartmentId(departmentId, position, sort, limit);
+        } else {
+            users = userRepository.findAllBy(position, sort, limit);
+        }
+
+        String nextCursor = users.hasNext() && !users.isEmpty()
+                ? keysetCursor.next(users.positionAt(users.size() - 1)).encode()
+                : null;
+        log.info("Successfully fetched {} users by cursor.", users.size());
+        return new CursorPageDto<>(users.map(UserDto::new).getContent(), users.size(), nextCursor != null, nextCursor);
+    }
+
+    /**
+     * Ranked lookup by name or email through {@link UserSearchIndex}. Matches are re-read from the database,
+     * so users deleted by another instance are dropped rather than returned stale.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDto> searchUsers(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidSearchException("Search query cannot be blank.");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidSearchException("Search limit must be between 1 and " + MAX_SEARCH_RESULTS + ".");
+        }
+        log.info("Searching users for: {}, limit: {}", query, limit);
+        List<Long> ids = userSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserDto> found = userRepository.findDtoByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+        List<UserDto> users = ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+        log.info("Search for {} returned {} users.", query, users.size());
+        return users;
+    }
+
+    @Transactional(readOnly = true)
+    public UserDto getUserById(Long id, FieldSet fields) {
         log.info("Fetching user by id: {}", id);
-        User user = getUserIfExist(id);
+        Optional<UserDto> user = fields.isAll() ? userRepository.findDtoById(id) : userRepository.findDtoById(id, fields);
+        return user.orElseThrow(() -> {
+            String msg = "User with id " + id + " not found.";
+            log.warn(msg);
+            return new UserNotFoundException(msg);
+        });
+    }
 
-        return new UserDto(user);
+    /**
+     * Reads only the row version, which changes on every update, so conditional requests can be answered
+     * without loading the user.
+     */
+    public long getUserVersion(Long id) {
+        return userRepository.findVersionById(id).orElseThrow(() -> {
+            String msg = "User with id " + id + " not found.";
+            log.warn(msg);
+            return new UserNotFoundException(msg);
+        });
     }
 
+    @Transactional(readOnly = true)
     public UserEmailDto getUserByEmail(String email) {
         log.info("Fetching user by email: {}", email);
-        User user = userRepository.getByEmail(email).orElseThrow(() -> {
+        return userRepository.findEmailDtoByEmail(email).orElseThrow(() -> {
             String msg = "User with email " + email + " not found.";
             log.warn(msg);
             return new UserNotFoundException(msg);
         });
-
-        return new UserEmailDto(user);
     }
 
+    /**
+     * Checks the email and department and hashes the password before the transaction, which only writes the row
+     * and its credential event, so no connection is held during the remote call or BCrypt.
+     */
     public UserDto saveUser(UserEmailDto userEmailDto) {
-        if (checkUserExistsByEmail(userEmailDto.getEmail())) {
+        if (isEmailTaken(userEmailDto.getEmail())) {
             String msg = "User with email " + userEmailDto.getEmail() + " already exists.";
             log.warn(msg);
             throw new EmailAlreadyExistException(msg);
         }
 
-        if (!departmentServiceProxy.isDepartmentExists(userEmailDto.getDepartmentId())) {
+        if (!departmentExistenceService.isDepartmentExists(userEmailDto.getDepartmentId())) {
             String msg = "Department with id " + userEmailDto.getDepartmentId() + " not found.";
             log.warn(msg);
             throw new DepartmentNotFoundException(msg);
@@ -120,39 +224,48 @@ public class UserService {
         userEmailDto.setUpdatedAt(LocalDateTime.now().toString());
         userEmailDto.setPassword(passwordEncoder.encode(userEmailDto.getPassword()));
         User user = new User(userEmailDto);
-        User createdUser = userRepository.save(user);
+        userEmailFilter.emailAdded(user.getEmail());
+        User createdUser = saveChecked(user, userWriteProcessor::create);
         return new UserDto(createdUser);
     }
 
+    @Transactional
     public void deleteUser(Long id) {
         log.info("Deleting user with id: {}", id);
-        if (!userRepository.existsById(id)) {
-            String msg = "User with id " + id + " not found.";
-            log.warn(msg);
-            throw new UserNotFoundException(msg);
-        }
+        User user = getUserIfExist(id);
         userRepository.deleteById(id);
+        credentialEventService.userDeleted(id);
+        userCountCache.userRemoved(user.getRole(), user.getDepartmentId());
+        userSearchIndex.userRemoved(id);
         log.info("User with id {} deleted successfully.", id);
     }
 
-    public UserDto updateUser(Long id, UserEmailDto userDto) {
+    /**
+     * Replaces a user. When {@code expectedVersion} is given the update only goes ahead if the user still has that
+     * version; in any case the UPDATE sets only the changed columns where the row is still at the version that was
+     * read, so a concurrent change fails with 412 instead of being overwritten. The row is read once, outside the
+     * transaction; only that UPDATE and the credential event run in one.
+     */
+    public VersionedDto<UserDto> updateUser(Long id, UserEmailDto userDto, Long expectedVersion) {
         User existingUser = getUserIfExist(id);
+        checkVersion(existingUser, expectedVersion);
 
         log.info("Updating user with id: {}", id);
         if (!existingUser.getEmail().equals(userDto.getEmail())
-                && checkUserExistsByEmail(userDto.getEmail())) {
+                && isEmailTaken(userDto.getEmail())) {
             String msg = "User with email " + userDto.getEmail() + " already exists.";
             log.warn(msg);
             throw new EmailAlreadyExistException(msg);
         }
 
         Long departmentId = userDto.getDepartmentId();
-        if (departmentId != null && !departmentId.equals(existingUser.getDepartmentId()) && !departmentServiceProxy.isDepartmentExists(departmentId)) {
+        if (departmentId != null && !departmentId.equals(existingUser.getDepartmentId()) && !departmentExistenceService.isDepartmentExists(departmentId)) {
             String msg = "Department with id " + departmentId + " not found.";
             log.warn(msg);
             throw new DepartmentNotFoundException(msg);
         }
 
+        User loadedUser = copyOf(existingUser);
         try {
             userDto.setId(id);
             objectMapper.updateValue(existingUser, userDto);
@@ -161,13 +274,155 @@ public class UserService {
             throw new RuntimeException("Failed to update user data", e);
         }
 
-        User updatedUser = userRepository.save(existingUser);
+        if (!Objects.equals(loadedUser.getEmail(), existingUser.getEmail())) {
+            userEmailFilter.emailAdded(existingUser.getEmail());
+        }
+        User updatedUser = saveChecked(existingUser, user -> userWriteProcessor.update(loadedUser, user));
         log.info("User with id {} updated successfully.", id);
-        return new UserDto(updatedUser);
+        return new VersionedDto<>(new UserDto(updatedUser), updatedUser.getVersion());
     }
 
+    /**
+     * Applies a JSON Merge Patch. Patches that change nothing are answered without a database write, and the
+     * UPDATE only sets the columns that did change. Versions are checked as in {@link #updateUser}.
+     */
+    public VersionedDto<UserDto> patchUser(Long id, UserPatchDto patch, Long expectedVersion) {
+        User user = getUserIfExist(id);
+        checkVersion(user, expectedVersion);
+
+        log.info("Patching user with id: {}, fields: {}", id, patch.getFields());
+        if (patch.getEmail() != null && !patch.getEmail().equals(user.getEmail())
+                && isEmailTaken(patch.getEmail())) {
+            String msg = "User with email " + patch.getEmail() + " already exists.";
+            log.warn(msg);
+            throw new EmailAlreadyExistException(msg);
+        }
+
+        Long departmentId = patch.getDepartmentId();
+        if (departmentId != null && !departmentId.equals(user.getDepartmentId())) {
+            checkDepartmentExists(departmentId);
+        }
+
+        User loadedUser = copyOf(user);
+        if (!UserPatchMapper.apply(patch, user, passwordEncoder)) {
+            log.info("Patch for user with id {} changes nothing, skipping update.", id);
+            return new VersionedDto<>(new UserDto(user), user.getVersion());
+        }
+        user.setUpdatedAt(new Date(System.currentTimeMillis()));
+
+        if (!Objects.equals(loadedUser.getEmail(), user.getEmail())) {
+            userEmailFilter.emailAdded(user.getEmail());
+        }
+        User updatedUser = saveChecked(user, changed -> userWriteProcessor.update(loadedUser, changed));
+        log.info("User with id {} patched successfully.", id);
+        return new VersionedDto<>(new UserDto(updatedUser), updatedUser.getVersion());
+    }
+
+    /**
+     * Answers from {@link UserEmailFilter} when the email is definitely unused, otherwise with an indexed count on
+     * the normalized email column. The filter only learns about emails written by other instances on its next
+     * rebuild, so this may briefly answer false for a new address; writes use {@link #isEmailTaken} instead.
+     */
     public boolean checkUserExistsByEmail(String email) {
-        return userRepository.getByEmail(email).isPresent();
+        if (email == null || !userEmailFilter.mightContain(email)) {
+            return false;
+        }
+        return isEmailTaken(email);
+    }
+
+    private boolean isEmailTaken(String email) {
+        return email != null && userRepository.countByNormalizedEmail(UserEmailFilter.normalize(email)) > 0;
+    }
+
+    /**
+     * Runs the write, turning a violation of the unique key on {@code users.email} (a concurrent insert of the
+     * same email) into {@link EmailAlreadyExistException}.
+     */
+    private User saveChecked(User user, UnaryOperator<User> write) {
+        try {
+            return write.apply(user);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation && isEmailKey(violation.getConstraintName())) {
+                String msg = "User with email " + user.getEmail() + " already exists.";
+                log.warn(msg);
+                throw new EmailAlreadyExistException(msg);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isEmailKey(String constraintName) {
+        // MySQL names the unnamed unique key after its column, reported as "email" or "users.email".
+        return constraintName != null && (constraintName.equalsIgnoreCase("email") || constraintName.toLowerCase().endsWith(".email"));
+    }
+
+    private Slice<UserDto> findSlice(String role, Long departmentId, Pageable pageable, FieldSet fields) {
+        if (!fields.isAll()) {
+            if (role == null && departmentId != null) {
+                checkDepartmentExists(departmentId);
+            }
+            return userRepository.findDtoSlice(role, departmentId, fields, pageable);
+        } else if (role != null && departmentId != null) {
+            return userRepository.findSliceByRoleAndDepartmentId(role, departmentId, pageable);
+        } else if (role != null) {
+            return userRepository.findSliceByRole(role, pageable);
+        } else if (departmentId != null) {
+            checkDepartmentExists(departmentId);
+            return userRepository.findSliceByDepartmentId(departmentId, pageable);
+        }
+        return userRepository.findSliceBy(pageable);
+    }
+
+    private long countUsers(String role, Long departmentId) {
+        if (role != null && departmentId != null) {
+            return userRepository.countByRoleAndDepartmentId(role, departmentId);
+        } else if (role != null) {
+            return userRepository.countByRole(role);
+        } else if (departmentId != null) {
+            return userRepository.countByDepartmentId(departmentId);
+        }
+        return userRepository.count();
+    }
+
+    private void checkDepartmentExists(Long departmentId) {
+        if (!departmentExistenceService.isDepartmentExists(departmentId)) {
+            String departmentIdMsg = "Department with id " + departmentId + " not found.";
+            log.warn(departmentIdMsg);
+            throw new DepartmentNotFoundException(departmentIdMsg);
+        }
+    }
+
+    private static Pageable toPageable(PaginationOptions paginationOptions) {
+        Sort sort = Sort.unsorted();
+        String sortBy = paginationOptions.getSortBy();
+        String sortOrder = paginationOptions.getSortOrder();
+
+        if (sortBy != null && !sortBy.isBlank()) {
+            if (!SORT_FIELDS.contains(sortBy)) {
+                log.warn("Unsupported sort property: {}", sortBy);
+                throw new InvalidPaginationException("Users can only be sorted by id, firstName or lastName.");
+            }
+            if (sortOrder != null && sortOrder.equalsIgnoreCase("desc")) {
+                sort = Sort.by(Sort.Order.desc(sortBy));
+            } else {
+                sort = Sort.by(Sort.Order.asc(sortBy));
+            }
+        }
+        return PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), sort);
+    }
+
+    private static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            String msg = "User with id " + user.getId() + " is at version " + user.getVersion() + ", not " + expectedVersion + ".";
+            log.warn(msg);
+            throw new PreconditionFailedException(msg);
+        }
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPassword(),
+                user.getPhoneNumber(), user.getRole(), user.getDepartmentId(), user.getCreatedAt(), user.getUpdatedAt(),
+                user.getVersion());
     }
 
     private User getUserIfExist(Long id) {
@@ -0,0 +1,328 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.learn.microservices.userservice.dto.*;
+import com.learn.microservices.userservice.exception.SnapshotInProgressException;
+import com.learn.microservices.userservice.exception.SnapshotNotFoundException;
+import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
+import com.learn.microservices.userservice.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes full snapshots of the user directory, joined with department names, to local disk. The id range is
+ * split into partitions that are read in parallel on a dedicated fork/join pool; each partition is read in
+ * keyset chunks and written to its own gzip part file through a {@link FileChannel}, with a SHA-256 of the
+ * compressed bytes recorded in the snapshot's {@code manifest.json}.
+ * <p>
+ * Snapshots are built in a {@code .partial} directory and renamed once complete, so only finished snapshots are
+ * ever listed or served. Like import jobs, snapshots live on the instance that wrote them.
+ */
+@Service
+@Slf4j
+public class UserSnapshotService {
+
+    static final String MANIFEST_FILE = "manifest.json";
+
+    private static final DateTimeFormatter SNAPSHOT_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+    private static final Pattern SNAPSHOT_ID_PATTERN = Pattern.compile("\\d{8}T\\d{9}Z");
+    private static final Pattern FILE_PATTERN = Pattern.compile("manifest\\.json|part-\\d{5}\\.ndjson\\.gz");
+    private static final String PARTIAL_SUFFIX = ".partial";
+    private static final int DEPARTMENT_PAGE_SIZE = 500;
+    private static final long PART_TERMINATION_TIMEOUT_SECONDS = 60;
+
+    private final UserRepository userRepository;
+    private final DepartmentServiceProxy departmentServiceProxy;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotDirectory;
+    private final int partitions;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int retain;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastIdMillis = new AtomicLong();
+
+    public UserSnapshotService(UserRepository userRepository,
+                               DepartmentServiceProxy departmentServiceProxy,
+                               ObjectMapper objectMapper,
+                               @Value("${users.snapshot.dir}") String snapshotDirectory,
+                               @Value("${users.snapshot.partitions}") int partitions,
+                               @Value("${users.snapshot.parallelism}") int parallelism,
+                               @Value("${users.snapshot.chunk-size}") int chunkSize,
+                               @Value("${users.snapshot.retain}") int retain) {
+        this.userRepository = userRepository;
+        this.departmentServiceProxy = departmentServiceProxy;
+        this.objectMapper = objectMapper;
+        this.snapshotDirectory = Path.of(snapshotDirectory);
+        this.partitions = partitions;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.retain = retain;
+    }
+
+    @Scheduled(cron = "${users.snapshot.cron}")
+    public void scheduledSnapshot() {
+        try {
+            createSnapshot();
+        } catch (SnapshotInProgressException e) {
+            log.info("Skipping scheduled user snapshot, one is already running");
+        } catch (Exception e) {
+            log.error("Scheduled user snapshot failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts a snapshot in the background.
+     *
+     * @return the id the snapshot will be listed under once it completes.
+     */
+    public String startSnapshot() {
+        String id = nextSnapshotId();
+        if (!running.compareAndSet(false, true)) {
+            throw new SnapshotInProgressException("A user snapshot is already running.");
+        }
+        try {
+            executor.submit(() -> {
+                try {
+                    writeSnapshot(id);
+                } catch (Exception e) {
+                    log.error("User snapshot {} failed: {}", id, e.getMessage(), e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+        return id;
+    }
+
+    public SnapshotManifestDto createSnapshot() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new SnapshotInProgressException("A user snapshot is already running.");
+        }
+        try {
+            return writeSnapshot(nextSnapshotId());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<SnapshotManifestDto> getSnapshots() throws IOException {
+        if (!Files.isDirectory(snapshotDirectory)) {
+            return List.of();
+        }
+        List<SnapshotManifestDto> snapshots = new ArrayList<>();
+        for (Path directory : completedSnapshots()) {
+            snapshots.add(objectMapper.readValue(directory.resolve(MANIFEST_FILE).toFile(), SnapshotManifestDto.class));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Resolves a file of a completed snapshot. Only manifest and part file names are accepted.
+     */
+    public Path getSnapshotFile(String id, String file) {
+        if (!SNAPSHOT_ID_PATTERN.matcher(id).matches() || !FILE_PATTERN.matcher(file).matches()) {
+            throw new SnapshotNotFoundException("Snapshot file " + id + "/" + file + " not found.");
+        }
+        Path path = snapshotDirectory.resolve(id).resolve(file);
+        if (!Files.isRegularFile(path)) {
+            throw new SnapshotNotFoundException("Snapshot file " + id + "/" + file + " not found.");
+        }
+        return path;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private SnapshotManifestDto writeSnapshot(String id) throws IOException {
+        String startedAt = Instant.now().toString();
+        Path partial = snapshotDirectory.resolve(id + PARTIAL_SUFFIX);
+        Files.createDirectories(partial);
+        log.info("Starting user snapshot {}", id);
+        try {
+            Map<Long, String> departmentNames = loadDepartmentNames();
+            List<long[]> ranges = partition(userRepository.findMinId(), userRepository.findMaxId());
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            List<SnapshotPartDto> parts = new ArrayList<>(ranges.size());
+            try {
+                List<ForkJoinTask<SnapshotPartDto>> tasks = new ArrayList<>(ranges.size());
+                for (int index = 0; index < ranges.size(); index++) {
+                    String file = String.format("part-%05d.ndjson.gz", index);
+                    long[] range = ranges.get(index);
+                    tasks.add(pool.submit(() -> writePart(partial.resolve(file), range[0], range[1], departmentNames)));
+                }
+                for (ForkJoinTask<SnapshotPartDto> task : tasks) {
+                    parts.add(task.join());
+                }
+            } finally {
+                pool.shutdownNow();
+                awaitTermination(pool);
+            }
+
+            long totalRows = parts.stream().mapToLong(SnapshotPartDto::getRows).sum();
+            SnapshotManifestDto manifest = new SnapshotManifestDto(id, startedAt, Instant.now().toString(), totalRows, parts);
+            objectMapper.writeValue(partial.resolve(MANIFEST_FILE).toFile(), manifest);
+            Files.move(partial, snapshotDirectory.resolve(id), StandardCopyOption.ATOMIC_MOVE);
+            log.info("User snapshot {} completed: {} rows in {} parts", id, totalRows, parts.size());
+            pruneOldSnapshots();
+            return manifest;
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(partial);
+            throw e;
+        }
+    }
+
+    /**
+     * @return a millisecond timestamp id, moved past the last one issued so back-to-back runs never collide.
+     */
+    private String nextSnapshotId() {
+        long now = System.currentTimeMillis();
+        long millis = lastIdMillis.accumulateAndGet(now, (last, current) -> Math.max(last + 1, current));
+        return SNAPSHOT_ID.format(Instant.ofEpochMilli(millis));
+    }
+
+    /**
+     * Waits for part writers that are still running after a failed part, so the partial directory is only
+     * deleted once nothing writes into it anymore.
+     */
+    private static void awaitTermination(ForkJoinPool pool) {
+        try {
+            if (!pool.awaitTermination(PART_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Snapshot part writers did not stop within {} seconds", PART_TERMINATION_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<Long, String> loadDepartmentNames() {
+        Map<Long, String> names = new HashMap<>();
+        String cursor = "";
+        CursorPageDto<DepartmentDto> page;
+        do {
+            page = departmentServiceProxy.getDepartmentsByCursor(cursor, DEPARTMENT_PAGE_SIZE);
+            page.getContent().forEach(department -> names.put(department.getId(), department.getName()));
+            cursor = page.getNextCursor();
+        } while (page.isHasNext() && cursor != null);
+        return names;
+    }
+
+    /**
+     * Splits {@code [minId, maxId]} into contiguous ranges, each given as {@code {afterId, toId}}.
+     */
+    List<long[]> partition(Long minId, Long maxId) {
+        if (minId == null || maxId == null) {
+            return List.of();
+        }
+        long span = maxId - minId + 1;
+        long step = Math.max(1, (span + partitions - 1) / partitions);
+        List<long[]> ranges = new ArrayList<>(partitions);
+        for (long from = minId; from <= maxId; from += step) {
+            ranges.add(new long[]{from - 1, Math.min(maxId, from + step - 1)});
+        }
+        return ranges;
+    }
+
+    private SnapshotPartDto writePart(Path path, long afterId, long toId, Map<Long, String> departmentNames) {
+        MessageDigest digest = sha256();
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream compressed = new GZIPOutputStream(new DigestOutputStream(Channels.newOutputStream(channel), digest), 64 * 1024);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(compressed, StandardCharsets.UTF_8), 64 * 1024);
+                 SequenceWriter sequenceWriter = objectMapper.writerFor(SnapshotRow.class).withRootValueSeparator("\n").writeValues(writer)) {
+                long lastId = afterId;
+                List<UserDto> chunk;
+                do {
+                    chunk = userRepository.findRange(lastId, toId, Limit.of(chunkSize));
+                    for (UserDto user : chunk) {
+                        sequenceWriter.write(new SnapshotRow(user, departmentNames.get(user.getDepartmentId())));
+                    }
+                    rows += chunk.size();
+                    if (!chunk.isEmpty()) {
+                        lastId = chunk.get(chunk.size() - 1).getId();
+                    }
+                } while (chunk.size() == chunkSize);
+                sequenceWriter.flush();
+                if (rows > 0) {
+                    writer.write('\n');
+                }
+            }
+            long bytes = Files.size(path);
+            log.debug("Wrote snapshot part {} with {} rows", path.getFileName(), rows);
+            return new SnapshotPartDto(path.getFileName().toString(), afterId + 1, toId, rows, bytes, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot part " + path.getFileName(), e);
+        }
+    }
+
+    private List<Path> completedSnapshots() throws IOException {
+        try (Stream<Path> entries = Files.list(snapshotDirectory)) {
+            return entries.filter(path -> SNAPSHOT_ID_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .filter(path -> Files.isRegularFile(path.resolve(MANIFEST_FILE)))
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private void pruneOldSnapshots() throws IOException {
+        List<Path> snapshots = completedSnapshots();
+        for (Path old : snapshots.subList(Math.min(retain, snapshots.size()), snapshots.size())) {
+            log.info("Deleting old user snapshot {}", old.getFileName());
+            deleteRecursively(old);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    record SnapshotRow(@JsonUnwrapped UserDto user, String departmentName) {
+    }
+}
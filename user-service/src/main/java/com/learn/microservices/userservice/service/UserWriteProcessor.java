@@ -0,0 +1,83 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.exception.PreconditionFailedException;
+import com.learn.microservices.userservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Transactional steps of single-user writes. Each writes the row and its credential event and nothing else, so a
+ * connection is held only for the writes; email and department checks and password hashing happen before.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserWriteProcessor {
+
+    private static final Map<String, Function<User, Object>> COLUMNS = Map.of(
+            "firstName", User::getFirstName,
+            "lastName", User::getLastName,
+            "email", User::getEmail,
+            "password", User::getPassword,
+            "phoneNumber", User::getPhoneNumber,
+            "role", User::getRole,
+            "departmentId", User::getDepartmentId,
+            "createdAt", User::getCreatedAt,
+            "updatedAt", User::getUpdatedAt);
+
+    private final UserRepository userRepository;
+    private final CredentialEventService credentialEventService;
+    private final UserCountCache userCountCache;
+    private final UserSearchIndex userSearchIndex;
+
+    @Transactional
+    public User create(User user) {
+        User createdUser = userRepository.save(user);
+        credentialEventService.userCreated(createdUser);
+        userCountCache.userAdded(createdUser.getRole(), createdUser.getDepartmentId());
+        userSearchIndex.userSaved(createdUser);
+        return createdUser;
+    }
+
+    /**
+     * Writes the attributes that differ between a user as loaded and as changed, both outside this transaction.
+     * The single UPDATE is guarded by the loaded version, so a concurrent change in between fails the request with
+     * 412 instead of being overwritten, and nothing is read again.
+     */
+    @Transactional
+    public User update(User loaded, User changed) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        COLUMNS.forEach((name, getter) -> {
+            Object value = getter.apply(changed);
+            if (!Objects.equals(getter.apply(loaded), value)) {
+                values.put(name, value);
+            }
+        });
+        if (values.isEmpty()) {
+            return changed;
+        }
+        if (userRepository.updateIfVersion(loaded.getId(), loaded.getVersion(), values) == 0) {
+            String msg = "User with id " + loaded.getId() + " is no longer at version " + loaded.getVersion() + ".";
+            log.warn(msg);
+            throw new PreconditionFailedException(msg);
+        }
+        changed.setVersion(loaded.getVersion() + 1);
+
+        boolean credentialsChanged = values.containsKey("email") || values.containsKey("password")
+                || values.containsKey("role");
+        if (credentialsChanged) {
+            credentialEventService.userUpdated(changed);
+        }
+        userCountCache.userMoved(loaded.getRole(), loaded.getDepartmentId(), changed.getRole(), changed.getDepartmentId());
+        userSearchIndex.userSaved(changed);
+        return changed;
+    }
+}
@@ -0,0 +1,45 @@
+package com.learn.microservices.userservice.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.dto.PageDto;
+import com.learn.microservices.userservice.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeanFactoryTest {
+
+    private final ObjectMapper objectMapper = new BeanFactory().objectMapper();
+
+    private final PageDto<UserDto> page = PageDto.of(new PageImpl<>(
+            List.of(new UserDto(1L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27")),
+            PageRequest.of(0, 1), 3));
+
+    @Test
+    void objectMapper_ShouldWriteCompactPageEnvelope() throws Exception {
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(page));
+        List<String> names = new ArrayList<>();
+        json.fieldNames().forEachRemaining(names::add);
+
+        assertEquals(List.of("content", "page", "size", "totalElements", "totalPages", "hasNext"), names);
+        assertEquals(3, json.get("totalPages").asInt());
+        assertTrue(json.get("hasNext").asBoolean());
+        assertEquals("Ahmed", json.get("content").get(0).get("firstName").asText());
+    }
+
+    @Test
+    void objectMapper_ShouldWriteOnlySelectedFields_WhenFieldSetApplied() throws Exception {
+        String json = objectMapper.writer(UserDto.FIELDS.parse("id,email").filters()).writeValueAsString(page);
+
+        JsonNode user = objectMapper.readTree(json).get("content").get(0);
+        assertEquals(2, user.size());
+        assertEquals("test@mail.com", user.get("email").asText());
+        assertFalse(user.has("firstName"));
+    }
+}
@@ -1,12 +1,26 @@
 package com.learn.microservices.userservice.config;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.learn.microservices.userservice.controller.UserController;
 import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.dto.UserBulkResultDto;
 import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.dto.UserLookupDto;
+import com.learn.microservices.userservice.dto.VersionedDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.exception.DepartmentServiceUnavailableException;
 import com.learn.microservices.userservice.exception.EmailAlreadyExistException;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.exception.InvalidPatchException;
+import com.learn.microservices.userservice.exception.PreconditionFailedException;
 import com.learn.microservices.userservice.exception.UserNotFoundException;
+import com.learn.microservices.userservice.service.UserBatchService;
+import com.learn.microservices.userservice.service.UserBulkService;
+import com.learn.microservices.userservice.service.UserLookupService;
 import com.learn.microservices.userservice.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,15 +30,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +60,15 @@ public class GlobalExceptionHandlerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserBatchService userBatchService;
+
+    @MockBean
+    private UserLookupService userLookupService;
+
+    @MockBean
+    private UserBulkService userBulkService;
+
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -53,7 +85,7 @@ public class GlobalExceptionHandlerTest {
         List<UserDto> userDtos = List.of(new UserDto(0L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "ADMIN", 1L, "2024-12-26", "2024-12-27"),
                 new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27"));
         Page<UserDto> userPage = new PageImpl<>(userDtos);
-        when(userService.getUsersByFilter(any(), any(), any())).thenReturn(userPage);
+        when(userService.getUsersByFilter(any(), any(), any(), any())).thenReturn(userPage);
 
         mockMvc.perform(get("/users/")
                         .param("page", "0")
@@ -62,7 +94,38 @@ public class GlobalExceptionHandlerTest {
                         .param("sortOrder", "asc"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(2)))
-                .andExpect(jsonPath("$.totalElements").value(2));
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+    }
+
+    @Test
+    public void testGetUsers_smile() throws Exception {
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto(0L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "ADMIN", 1L, "2024-12-26", "2024-12-27")));
+        when(userService.getUsersByFilter(any(), any(), any(), any())).thenReturn(userPage);
+
+        byte[] body = mockMvc.perform(get("/users/").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = new SmileMapper().readTree(body);
+        assertEquals(1, page.get("totalElements").asInt());
+        assertEquals("Ahmed", page.get("content").get(0).get("firstName").asText());
+    }
+
+    @Test
+    public void testGetUserById_cbor() throws Exception {
+        UserDto userDto = new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        when(userService.getUserById(any(), any())).thenReturn(userDto);
+
+        byte[] body = mockMvc.perform(get("/users/{id}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(userDto, new CBORMapper().readValue(body, UserDto.class));
     }
 
     @Test
@@ -79,7 +142,7 @@ public class GlobalExceptionHandlerTest {
     @Test
     public void testGetUserById_success() throws Exception {
         UserDto userDto = new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
-        when(userService.getUserById(any())).thenReturn(userDto);
+        when(userService.getUserById(any(), any())).thenReturn(userDto);
 
         mockMvc.perform(get("/users/{id}", 1L))
                 .andExpect(status().isOk())
@@ -87,6 +150,32 @@ public class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.lastName").value("Hassan2"));
     }
 
+    @Test
+    public void testGetUserById_unknownField() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(4L);
+
+        mockMvc.perform(get("/users/{id}", 1L).param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid fields"));
+    }
+
+    @Test
+    public void testGetUserById_notModified() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(4L);
+
+        mockMvc.perform(get("/users/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void testGetUserById_userNotFound() throws Exception {
+        when(userService.getUserVersion(9L)).thenThrow(new UserNotFoundException("User with id 9 not found."));
+
+        mockMvc.perform(get("/users/{id}", 9L).header(HttpHeaders.IF_NONE_MATCH, "\"4\""))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void testSaveUser_success() throws Exception {
         UserEmailDto userEmailDto = createUserEmailDto();
@@ -103,16 +192,95 @@ public class GlobalExceptionHandlerTest {
     @Test
     public void testUpdateUser_success() throws Exception {
         UserEmailDto userEmailDto = createUserEmailDto();
-        when(userService.updateUser(any(), any())).thenReturn(userEmailDto);
+        when(userService.updateUser(any(), any(), isNull())).thenReturn(new VersionedDto<>(userEmailDto, 2L));
 
         mockMvc.perform(put("/users/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userEmailDto)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
                 .andExpect(jsonPath("$.firstName").value("Ahmed"))
                 .andExpect(jsonPath("$.email").value("test@mail.com"));
     }
 
+    @Test
+    public void testUpdateUser_ifMatchVersionMismatch() throws Exception {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        when(userService.updateUser(any(), any(), eq(1L))).thenThrow(new PreconditionFailedException("User with id 1 is at version 2, not 1."));
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userEmailDto)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.details").value("User with id 1 is at version 2, not 1."));
+    }
+
+    @Test
+    public void testUpdateUser_weakIfMatch() throws Exception {
+        UserEmailDto userEmailDto = createUserEmailDto();
+
+        mockMvc.perform(put("/users/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userEmailDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testPatchUser_concurrentUpdate() throws Exception {
+        when(userService.patchUser(eq(1L), any(), any())).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mockMvc.perform(patch("/users/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": \"Ali\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Concurrent update"));
+    }
+
+    @Test
+    public void testGetUsersByIds_commaSeparated() throws Exception {
+        UserDto user = new UserDto(2L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        when(userLookupService.getUsersByIds(List.of(2L, 5L))).thenReturn(new UserLookupDto(List.of(user), List.of(5L)));
+
+        mockMvc.perform(get("/users/").param("ids", "2,5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].id").value(2))
+                .andExpect(jsonPath("$.missing[0]").value(5));
+    }
+
+    @Test
+    public void testLookupUsersByIds_tooManyIds() throws Exception {
+        when(userLookupService.getUsersByIds(any())).thenThrow(new InvalidBatchException("Lookup cannot contain more than 1000 ids."));
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2, 3]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testUpdateUsers_bulk() throws Exception {
+        when(userBulkService.updateUsers(argThat(request -> request.getFilter().getDepartmentId() == 1L
+                && request.getDepartmentId() == 2L))).thenReturn(new UserBulkResultDto(1200, 3));
+
+        mockMvc.perform(post("/users/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"departmentId\": 1}, \"departmentId\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(1200))
+                .andExpect(jsonPath("$.chunks").value(3));
+    }
+
+    @Test
+    public void testUpdateUsers_missingFilter() throws Exception {
+        mockMvc.perform(post("/users/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\": \"ADMIN\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testDeleteUser_success() throws Exception {
         mockMvc.perform(delete("/users/{id}", 1L))
@@ -158,6 +326,59 @@ public class GlobalExceptionHandlerTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    public void testSaveUser_departmentServiceUnavailable() throws Exception {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        when(userService.saveUser(any())).thenThrow(new DepartmentServiceUnavailableException("Department service is unavailable.", null));
+
+        mockMvc.perform(post("/users/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userEmailDto)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void testSaveUsers_invalidBatch() throws Exception {
+        when(userBatchService.saveUsers(any())).thenThrow(new InvalidBatchException("Batch must contain at least one user."));
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testPatchUser_mergePatch() throws Exception {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        when(userService.patchUser(eq(1L), argThat(patch -> patch.getFields().equals(Set.of("lastName", "phoneNumber"))
+                && "Ali".equals(patch.getLastName()) && patch.getPhoneNumber() == null), isNull())).thenReturn(new VersionedDto<>(userEmailDto, 2L));
+
+        mockMvc.perform(patch("/users/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": \"Ali\", \"phoneNumber\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("test@mail.com"));
+    }
+
+    @Test
+    public void testPatchUser_invalidEmail() throws Exception {
+        mockMvc.perform(patch("/users/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"email\": \"not-an-email\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testPatchUser_invalidPatch() throws Exception {
+        when(userService.patchUser(eq(1L), any(), any())).thenThrow(new InvalidPatchException("Field firstName cannot be removed."));
+
+        mockMvc.perform(patch("/users/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firstName\": null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("Field firstName cannot be removed."));
+    }
+
     @Test
     public void testDeleteUser_userNotFound() throws Exception {
         Mockito.doThrow(UserNotFoundException.class).when(userService).deleteUser(any());
@@ -0,0 +1,44 @@
+package com.learn.microservices.userservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RepresentationETagAdviceTest {
+
+    private final RepresentationETagAdvice advice = new RepresentationETagAdvice();
+
+    @Test
+    void beforeBodyWrite_ShouldKeepJsonTag() {
+        assertEquals("\"2\"", writtenETag("\"2\"", MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void beforeBodyWrite_ShouldAddEncodingToBinaryTags() {
+        assertEquals("\"2-smile\"", writtenETag("\"2\"", MediaType.parseMediaType("application/x-jackson-smile")));
+        assertEquals("\"2-cbor\"", writtenETag("\"2\"", MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void beforeBodyWrite_ShouldKeepTagsThatAlreadyCarryTheEncoding() {
+        assertEquals("\"2-cbor\"", writtenETag("\"2-cbor\"", MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void beforeBodyWrite_ShouldLeaveResponsesWithoutTag() {
+        assertNull(writtenETag(null, MediaType.APPLICATION_CBOR));
+    }
+
+    private String writtenETag(String eTag, MediaType contentType) {
+        ServletServerHttpResponse response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        if (eTag != null) {
+            response.getHeaders().setETag(eTag);
+        }
+        advice.beforeBodyWrite("body", null, contentType, null, null, response);
+        return response.getHeaders().getETag();
+    }
+}
@@ -1,11 +1,23 @@
 package com.learn.microservices.userservice.controller;
 
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.PageDto;
+import com.learn.microservices.userservice.dto.SliceDto;
+import com.learn.microservices.userservice.dto.UserBatchItemResultDto;
+import com.learn.microservices.userservice.dto.UserBatchResponseDto;
 import com.learn.microservices.userservice.dto.UserDto;
 import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.dto.UserLookupDto;
+import com.learn.microservices.userservice.dto.UserPatchDto;
+import com.learn.microservices.userservice.dto.VersionedDto;
 import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
 import com.learn.microservices.userservice.exception.EmailAlreadyExistException;
 import com.learn.microservices.userservice.exception.InvalidPaginationException;
+import com.learn.microservices.userservice.exception.PreconditionFailedException;
 import com.learn.microservices.userservice.exception.UserNotFoundException;
+import com.learn.microservices.userservice.service.UserBatchService;
+import com.learn.microservices.userservice.service.UserBulkService;
+import com.learn.microservices.userservice.service.UserLookupService;
 import com.learn.microservices.userservice.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,14 +29,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
@@ -34,6 +47,15 @@ class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private UserBatchService userBatchService;
+
+    @Mock
+    private UserLookupService userLookupService;
+
+    @Mock
+    private UserBulkService userBulkService;
+
     private UserEmailDto createUserEmailDto() {
         return new UserEmailDto(1L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27", "password");
     }
@@ -42,15 +64,62 @@ class UserControllerTest {
     public void testGetUsers_success() {
         List<UserDto> userDtos = List.of(new UserDto(0L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "ADMIN", 1L, "2024-12-26", "2024-12-27"), new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27"));
         Page<UserDto> userPage = new PageImpl<>(userDtos);
-        when(userService.getUsersByFilter(any(), any(), any())).thenReturn(userPage);
+        when(userService.getUsersByFilter(any(), any(), any(), any())).thenReturn(userPage);
 
-        ResponseEntity<Page<UserDto>> response = userController.getUsers(0, 10, "name", "asc", null, null);
+        ResponseEntity<PageDto<UserDto>> response = userController.getUsers(0, 10, "name", "asc", null, null, "exact", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(2, response.getBody().getTotalElements());
     }
 
+    @Test
+    public void testGetUsers_cachedCount() {
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto(0L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "ADMIN", 1L, "2024-12-26", "2024-12-27")));
+        when(userService.getUsersWithCachedCount(any(), any(), any(), any())).thenReturn(userPage);
+
+        ResponseEntity<PageDto<UserDto>> response = userController.getUsers(0, 10, null, null, null, null, "cached", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getTotalElements());
+    }
+
+    @Test
+    public void testGetUsers_invalidCountMode() {
+        assertThrows(InvalidPaginationException.class,
+                () -> userController.getUsers(0, 10, null, null, null, null, "approximate", null));
+    }
+
+    @Test
+    public void testGetUsersSlice_success() {
+        List<UserDto> userDtos = List.of(new UserDto(0L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "ADMIN", 1L, "2024-12-26", "2024-12-27"));
+        when(userService.getUsersSlice(any(), any(), any(), any())).thenReturn(new SliceDto<>(userDtos, 0, 10, false));
+
+        ResponseEntity<SliceDto<UserDto>> response = userController.getUsersSlice(0, 10, null, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isHasNext());
+    }
+
+    @Test
+    public void testGetUsersByCursor_success() {
+        List<UserDto> userDtos = List.of(new UserDto(0L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "ADMIN", 1L, "2024-12-26", "2024-12-27"));
+        when(userService.getUsersByCursor(any(), any(), eq("abc"), any())).thenReturn(new CursorPageDto<>(userDtos, 1, true, "def"));
+
+        ResponseEntity<CursorPageDto<UserDto>> response = userController.getUsersByCursor("abc", 1, null, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("def", response.getBody().getNextCursor());
+    }
+
+    @Test
+    public void testGetUsersByCursor_invalidSize() {
+        assertThrows(InvalidPaginationException.class, () -> userController.getUsersByCursor("", 0, null, null, null, null, null));
+    }
+
     @Test
     public void testGetUserByEmail_success() {
         UserEmailDto userEmailDto = createUserEmailDto();
@@ -63,14 +132,90 @@ class UserControllerTest {
     @Test
     public void testGetUserById_success() {
         UserDto userDto = new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
-        when(userService.getUserById(any())).thenReturn(userDto);
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUserById(any(), any())).thenReturn(userDto);
 
-        ResponseEntity<UserDto> response = userController.getUserById(1L);
+        ResponseEntity<UserDto> response = userController.getUserById(1L, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"2\"", response.getHeaders().getETag());
         assertNotNull(response.getBody());
     }
 
+    @Test
+    public void testGetUserById_sparseFields() {
+        UserDto userDto = new UserDto();
+        userDto.setEmail("test2@mail.com");
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUserById(1L, UserDto.FIELDS.parse("email"))).thenReturn(userDto);
+
+        ResponseEntity<UserDto> response = userController.getUserById(1L, null, null, "email");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(userDto, response.getBody());
+    }
+
+    @Test
+    public void testGetUserById_notModified() {
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+
+        ResponseEntity<UserDto> response = userController.getUserById(1L, "\"2\"", null, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(userService, never()).getUserById(any(), any());
+    }
+
+    @Test
+    public void testGetUserById_notModifiedForEncodedTag() {
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+
+        ResponseEntity<UserDto> response = userController.getUserById(1L, "\"1-cbor\", W/\"2-cbor\"",
+                "application/json;q=0.5, application/cbor", null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"2-cbor\"", response.getHeaders().getETag());
+        verify(userService, never()).getUserById(any(), any());
+    }
+
+    @Test
+    public void testGetUserById_modifiedWhenOnlyOtherEncodingMatches() {
+        UserDto userDto = new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUserById(eq(1L), any())).thenReturn(userDto);
+
+        ResponseEntity<UserDto> response = userController.getUserById(1L, "\"2-smile\", \"2-cbor\"",
+                MediaType.APPLICATION_JSON_VALUE, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        assertEquals(userDto, response.getBody());
+    }
+
+    @Test
+    public void testUpdateUser_encodedIfMatch() {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        when(userService.updateUser(1L, userEmailDto, 3L)).thenReturn(new VersionedDto<>(userEmailDto, 4L));
+
+        ResponseEntity<UserDto> response = userController.updateUser(1L, userEmailDto, "\"3-smile\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetUserById_modified() {
+        UserDto userDto = new UserDto(1L, "Ahmed", "Hassan2", "test2@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+        when(userService.getUserById(eq(1L), any())).thenReturn(userDto);
+
+        ResponseEntity<UserDto> response = userController.getUserById(1L, "\"2\"", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals(userDto, response.getBody());
+    }
+
     @Test
     public void testSaveUser_success() {
         UserEmailDto userEmailDto = createUserEmailDto();
@@ -85,14 +230,38 @@ class UserControllerTest {
     @Test
     public void testUpdateUser_success() {
         UserEmailDto userEmailDto = createUserEmailDto();
-        when(userService.updateUser(any(), any())).thenReturn(userEmailDto);
+        when(userService.updateUser(1L, userEmailDto, 3L)).thenReturn(new VersionedDto<>(userEmailDto, 4L));
+
+        ResponseEntity<UserDto> response = userController.updateUser(1L, userEmailDto, "\"3\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        assertNotNull(response.getBody());
+    }
 
-        ResponseEntity<UserDto> response = userController.updateUser(1L, userEmailDto);
+    @Test
+    public void testPatchUser_success() {
+        UserPatchDto patch = new UserPatchDto();
+        patch.setLastName("Ali");
+        when(userService.patchUser(1L, patch, null)).thenReturn(new VersionedDto<>(createUserEmailDto(), 2L));
+
+        ResponseEntity<UserDto> response = userController.patchUser(1L, patch, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
 
+    @Test
+    public void testGetUsersByIds_success() {
+        UserDto user = new UserDto(1L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        when(userLookupService.getUsersByIds(List.of(1L, 2L))).thenReturn(new UserLookupDto(List.of(user), List.of(2L)));
+
+        ResponseEntity<UserLookupDto> response = userController.getUsersByIds(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(2L), response.getBody().getMissing());
+    }
+
     @Test
     public void testDeleteUser_success() {
         ResponseEntity<Void> response = userController.deleteUser(1L);
@@ -114,7 +283,7 @@ class UserControllerTest {
     })
     public void testGetUsers_invalidPagination(int page, int size) {
         assertThrows(InvalidPaginationException.class,
-                () -> userController.getUsers(page, size, "name", "asc", null, null));
+                () -> userController.getUsers(page, size, "name", "asc", null, null, "exact", null));
     }
 
     @Test
@@ -136,25 +305,33 @@ class UserControllerTest {
     @Test
     public void testUpdateUser_emailAlreadyExists() {
         UserEmailDto userEmailDto = createUserEmailDto();
-        when(userService.updateUser(any(), any())).thenThrow(EmailAlreadyExistException.class);
+        when(userService.updateUser(any(), any(), any())).thenThrow(EmailAlreadyExistException.class);
         assertThrows(EmailAlreadyExistException.class,
-                () -> userController.updateUser(1L, userEmailDto));
+                () -> userController.updateUser(1L, userEmailDto, null));
     }
 
     @Test
     public void testUpdateUser_departmentNotFound() {
         UserEmailDto userEmailDto = createUserEmailDto();
-        when(userService.updateUser(any(), any())).thenThrow(DepartmentNotFoundException.class);
+        when(userService.updateUser(any(), any(), any())).thenThrow(DepartmentNotFoundException.class);
         assertThrows(DepartmentNotFoundException.class,
-                () -> userController.updateUser(1L, userEmailDto));
+                () -> userController.updateUser(1L, userEmailDto, null));
     }
 
     @Test
     public void testUpdateUser_userNotFound() {
         UserEmailDto userEmailDto = createUserEmailDto();
-        when(userService.updateUser(any(), any())).thenThrow(UserNotFoundException.class);
+        when(userService.updateUser(any(), any(), any())).thenThrow(UserNotFoundException.class);
         assertThrows(UserNotFoundException.class,
-                () -> userController.updateUser(1L, userEmailDto));
+                () -> userController.updateUser(1L, userEmailDto, null));
+    }
+
+    @Test
+    public void testUpdateUser_unparseableIfMatch() {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        assertThrows(PreconditionFailedException.class,
+                () -> userController.updateUser(1L, userEmailDto, "\"1\", \"2\""));
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -166,9 +343,9 @@ class UserControllerTest {
 
     @Test
     public void testGetUserById_userNotFound() {
-        when(userService.getUserById(any())).thenThrow(UserNotFoundException.class);
+        when(userService.getUserById(any(), any())).thenThrow(UserNotFoundException.class);
         assertThrows(UserNotFoundException.class,
-                () -> userController.getUserById(1L));
+                () -> userController.getUserById(1L, null, null, null));
     }
 
     @Test
@@ -185,4 +362,27 @@ class UserControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSaveUsers_allCreated() {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        when(userBatchService.saveUsers(any())).thenReturn(new UserBatchResponseDto(1, 0,
+                List.of(UserBatchItemResultDto.created(0, new UserDto(1L, "Ahmed", "Hassan", "test@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27")))));
+
+        ResponseEntity<UserBatchResponseDto> response = userController.saveUsers(List.of(userEmailDto));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    @Test
+    public void testSaveUsers_partialFailure() {
+        UserEmailDto userEmailDto = createUserEmailDto();
+        when(userBatchService.saveUsers(any())).thenReturn(new UserBatchResponseDto(0, 1,
+                List.of(UserBatchItemResultDto.failed(0, "User with email test@mail.com already exists."))));
+
+        ResponseEntity<UserBatchResponseDto> response = userController.saveUsers(List.of(userEmailDto));
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(1, response.getBody().getFailed());
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.learn.microservices.userservice.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.learn.microservices.userservice.config.BeanFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * JMH benchmark of encoding and decoding a 1,000-user page as JSON, Smile and CBOR with the application's mapper
+ * settings, followed by the payload size of each encoding. Excluded from the regular build; run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageEncodingBenchmarkTest {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final TypeReference<PageDto<UserDto>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private PageDto<UserDto> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = mapper(format);
+        page = page();
+        encoded = mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageDto<UserDto> decode() throws Exception {
+        return mapper.readValue(encoded, PAGE_TYPE);
+    }
+
+    @Test
+    void runBenchmarks() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+
+        System.out.printf("%-8s %12s%n", "format", "bytes");
+        for (String name : List.of("json", "smile", "cbor")) {
+            System.out.printf("%-8s %12d%n", name, mapper(name).writeValueAsBytes(page()).length);
+        }
+    }
+
+    private static ObjectMapper mapper(String format) {
+        return switch (format) {
+            case "smile" -> BeanFactory.configure(new SmileMapper());
+            case "cbor" -> BeanFactory.configure(new CBORMapper());
+            default -> BeanFactory.configure(new ObjectMapper());
+        };
+    }
+
+    private static PageDto<UserDto> page() {
+        List<UserDto> users = LongStream.range(0, PAGE_SIZE)
+                .mapToObj(id -> new UserDto(id, "First" + id, "Last" + id, "user" + id + "@mail.com", "1234567890",
+                        "USER", id % 10, "2024-12-26", "2024-12-27"))
+                .toList();
+        return PageDto.of(new PageImpl<>(users, PageRequest.of(0, PAGE_SIZE), PAGE_SIZE * 10L));
+    }
+}
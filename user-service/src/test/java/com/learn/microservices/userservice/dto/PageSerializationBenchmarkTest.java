@@ -0,0 +1,72 @@
+package com.learn.microservices.userservice.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.config.BeanFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * JMH benchmark of the cost of writing one page of users per page size: Spring's {@link PageImpl} with a plain
+ * mapper, as before, against {@link PageDto} with the application mapper, with and without a sparse field set.
+ * Excluded from the regular build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmarkTest {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private ObjectMapper plainMapper;
+    private ObjectMapper applicationMapper;
+    private Page<UserDto> page;
+    private PageDto<UserDto> pageDto;
+
+    @Setup
+    public void setUp() {
+        plainMapper = new ObjectMapper();
+        applicationMapper = new BeanFactory().objectMapper();
+        List<UserDto> users = LongStream.range(0, pageSize)
+                .mapToObj(id -> new UserDto(id, "First" + id, "Last" + id, "user" + id + "@mail.com", "1234567890",
+                        "USER", id % 10, "2024-12-26", "2024-12-27"))
+                .toList();
+        page = new PageImpl<>(users, PageRequest.of(0, pageSize), pageSize * 10L);
+        pageDto = PageDto.of(page);
+    }
+
+    @Benchmark
+    public byte[] springPage() throws Exception {
+        return plainMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageDto() throws Exception {
+        return applicationMapper.writeValueAsBytes(pageDto);
+    }
+
+    @Benchmark
+    public byte[] pageDtoSparse() throws Exception {
+        return applicationMapper.writer(UserDto.FIELDS.parse("id,email").filters()).writeValueAsBytes(pageDto);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder().include(getClass().getName()).build()).run();
+    }
+}
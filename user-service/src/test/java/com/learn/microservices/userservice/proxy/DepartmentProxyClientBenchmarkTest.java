@@ -0,0 +1,154 @@
+package com.learn.microservices.userservice.proxy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.codec.EncodeException;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares department-check latency and connections opened by Feign's default {@code HttpURLConnection} client
+ * and the pooled HttpClient 5 client under concurrent load, against a local stub of department-service.
+ * Excluded from the regular build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class DepartmentProxyClientBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int CALLS_PER_THREAD = 500;
+    private static final long SERVER_DELAY_MILLIS = 2;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeAll
+    static void disableNagle() {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        serverExecutor = Executors.newFixedThreadPool(THREADS * 2);
+        server.setExecutor(serverExecutor);
+        server.createContext("/departments/exists", exchange -> {
+            connections.add(exchange.getRemoteAddress());
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(SERVER_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "[1]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void compareClients() throws Exception {
+        Result urlConnection = run("HttpURLConnection", new Client.Default(null, null));
+        try (CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(200)
+                        .setMaxConnPerRoute(50)
+                        .build())
+                .build()) {
+            Result pooled = run("HttpClient 5 (pooled)", new ApacheHttp5Client(httpClient));
+            System.out.printf("%-24s %10s %10s %10s %12s %12s%n", "client", "p50 (ms)", "p99 (ms)", "max (ms)", "calls/sec", "connections");
+            for (Result result : List.of(urlConnection, pooled)) {
+                System.out.printf("%-24s %10.2f %10.2f %10.2f %12.0f %12d%n", result.name(), result.p50Millis(),
+                        result.p99Millis(), result.maxMillis(), result.callsPerSecond(), result.connections());
+            }
+        }
+    }
+
+    private Result run(String name, Client client) throws Exception {
+        DepartmentServiceProxy proxy = Feign.builder()
+                .client(client)
+                .contract(new SpringMvcContract())
+                .encoder((object, bodyType, template) -> {
+                    try {
+                        template.header("Content-Type", "application/json");
+                        template.body(objectMapper.writeValueAsBytes(object), StandardCharsets.UTF_8);
+                    } catch (IOException e) {
+                        throw new EncodeException(e.getMessage(), e);
+                    }
+                })
+                .decoder((response, type) -> objectMapper.readValue(response.body().asInputStream(), objectMapper.constructType(type)))
+                .target(DepartmentServiceProxy.class, "http://127.0.0.1:" + server.getAddress().getPort() + "/departments");
+
+        for (int i = 0; i < 200; i++) {
+            proxy.findExistingDepartmentIds(List.of(1L));
+        }
+        connections.clear();
+
+        long[] latencies = new long[THREADS * CALLS_PER_THREAD];
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int offset = thread * CALLS_PER_THREAD;
+            futures.add(callers.submit(() -> {
+                start.await();
+                for (int call = 0; call < CALLS_PER_THREAD; call++) {
+                    long begin = System.nanoTime();
+                    assertEquals(List.of(1L), proxy.findExistingDepartmentIds(List.of(1L)));
+                    latencies[offset + call] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        double elapsedSeconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+        callers.shutdown();
+
+        Arrays.sort(latencies);
+        return new Result(name,
+                latencies[latencies.length / 2] / 1_000_000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1_000_000.0,
+                latencies[latencies.length - 1] / 1_000_000.0,
+                latencies.length / elapsedSeconds,
+                connections.size());
+    }
+
+    private record Result(String name, double p50Millis, double p99Millis, double maxMillis, double callsPerSecond,
+                          int connections) {
+    }
+}
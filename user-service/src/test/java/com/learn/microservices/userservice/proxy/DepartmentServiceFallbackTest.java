@@ -0,0 +1,56 @@
+package com.learn.microservices.userservice.proxy;
+
+import com.learn.microservices.userservice.exception.DepartmentServiceUnavailableException;
+import com.learn.microservices.userservice.service.DepartmentExistenceCache;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepartmentServiceFallbackTest {
+
+    private DepartmentExistenceCache departmentExistenceCache;
+
+    private DepartmentServiceFallback departmentServiceFallback;
+
+    @BeforeEach
+    void setUp() {
+        departmentExistenceCache = new DepartmentExistenceCache(100);
+        departmentServiceFallback = new DepartmentServiceFallback(departmentExistenceCache);
+    }
+
+    @Test
+    void findExistingDepartmentIds_ShouldServeLastKnownAnswers() {
+        departmentExistenceCache.record(List.of(1L, 2L), List.of(1L));
+
+        DepartmentServiceProxy fallback = departmentServiceFallback.create(new RuntimeException("timeout"));
+
+        assertEquals(List.of(1L), fallback.findExistingDepartmentIds(List.of(1L, 2L)));
+        assertTrue(fallback.isDepartmentExists(1L));
+        assertFalse(fallback.isDepartmentExists(2L));
+    }
+
+    @Test
+    void findExistingDepartmentIds_ShouldThrowUnavailable_WhenAnswerIsUnknown() {
+        departmentExistenceCache.record(List.of(1L), List.of(1L));
+
+        DepartmentServiceProxy fallback = departmentServiceFallback.create(new RuntimeException("circuit open"));
+
+        assertThrows(DepartmentServiceUnavailableException.class, () -> fallback.findExistingDepartmentIds(List.of(1L, 3L)));
+        assertThrows(DepartmentServiceUnavailableException.class, () -> fallback.isDepartmentExists(3L));
+    }
+
+    @Test
+    void create_ShouldRethrowClientErrors() {
+        Request request = Request.create(Request.HttpMethod.POST, "/departments/exists", Map.of(), null, StandardCharsets.UTF_8, null);
+        FeignException.FeignClientException badRequest = new FeignException.BadRequest("bad request", request, null, Map.of());
+
+        assertSame(badRequest, assertThrows(FeignException.BadRequest.class, () -> departmentServiceFallback.create(badRequest)));
+    }
+}
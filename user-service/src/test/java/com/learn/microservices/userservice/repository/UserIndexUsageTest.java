@@ -0,0 +1,123 @@
+package com.learn.microservices.userservice.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN against MySQL with the real changelogs applied, for every filter and sort order the user listing
+ * supports, and fails when one of them falls back to a full scan or a filesort. Skipped when Docker is not
+ * available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class UserIndexUsageTest {
+
+    private static final int ROWS = 20_000;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void seed() {
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from users", Integer.class);
+        if (rows != null && rows >= ROWS) {
+            return;
+        }
+        jdbcTemplate.execute("set session cte_max_recursion_depth = " + (ROWS + 1));
+        jdbcTemplate.update("insert into users (first_name, last_name, email, password, role, department_id) " +
+                "with recursive seq (n) as (select 1 union all select n + 1 from seq where n < " + ROWS + ") " +
+                "select concat('First', n % 997), concat('Last', n % 991), concat('user', n, '@index.test'), 'hash', " +
+                "elt(1 + n % 3, 'USER', 'ADMIN', 'MANAGER'), 1 + n % 50 from seq");
+        jdbcTemplate.execute("analyze table users");
+    }
+
+    @ParameterizedTest(name = "{0} order by {1}")
+    @CsvSource({
+            "'', id",
+            "'', first_name",
+            "'', last_name",
+            "role = 'USER', id",
+            "role = 'USER', first_name",
+            "role = 'USER', last_name",
+            "department_id = 7, id",
+            "department_id = 7, first_name",
+            "department_id = 7, last_name",
+            "role = 'USER' and department_id = 7, id",
+            "role = 'USER' and department_id = 7, first_name",
+            "role = 'USER' and department_id = 7, last_name"
+    })
+    void listingQuery_ShouldUseIndexWithoutFilesort(String filter, String orderBy) throws Exception {
+        String where = filter.isBlank() ? "" : " where " + filter;
+        for (String direction : List.of("asc", "desc")) {
+            String sql = "select * from users" + where + " order by " + orderBy + " " + direction + " limit 10";
+            JsonNode plan = explain(sql);
+
+            assertFalse(plan.toString().contains("\"using_filesort\":true"), () -> "filesort in " + sql + ": " + plan);
+            for (JsonNode table : tables(plan)) {
+                assertNotEquals("ALL", table.path("access_type").asText(), () -> "full scan in " + sql + ": " + plan);
+                assertTrue(table.hasNonNull("key"), () -> "no index in " + sql + ": " + plan);
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "count where {0}")
+    @CsvSource({
+            "role = 'USER'",
+            "department_id = 7",
+            "role = 'USER' and department_id = 7"
+    })
+    void countQuery_ShouldUseIndex(String filter) throws Exception {
+        String sql = "select count(*) from users where " + filter;
+        JsonNode plan = explain(sql);
+
+        for (JsonNode table : tables(plan)) {
+            assertNotEquals("ALL", table.path("access_type").asText(), () -> "full scan in " + sql + ": " + plan);
+            assertTrue(table.hasNonNull("key"), () -> "no index in " + sql + ": " + plan);
+        }
+    }
+
+    @Test
+    void emailExistenceQuery_ShouldUseNormalizedEmailIndex() throws Exception {
+        String sql = "select count(*) from users where email_normalized = 'user42@index.test'";
+        JsonNode plan = explain(sql);
+
+        for (JsonNode table : tables(plan)) {
+            assertEquals("idx_users_email_normalized", table.path("key").asText(), () -> "wrong index in " + sql + ": " + plan);
+        }
+    }
+
+    private JsonNode explain(String sql) throws Exception {
+        return objectMapper.readTree(jdbcTemplate.queryForObject("explain format=json " + sql, String.class));
+    }
+
+    private static List<JsonNode> tables(JsonNode plan) {
+        List<JsonNode> tables = new ArrayList<>();
+        plan.findValues("table").forEach(tables::add);
+        assertFalse(tables.isEmpty(), () -> "no table access in plan " + plan);
+        return tables;
+    }
+}
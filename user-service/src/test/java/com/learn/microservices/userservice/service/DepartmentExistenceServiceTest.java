@@ -0,0 +1,118 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.exception.DepartmentServiceUnavailableException;
+import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class DepartmentExistenceServiceTest {
+
+    @Mock
+    private DepartmentServiceProxy departmentServiceProxy;
+
+    @Mock
+    private DepartmentIdReplica departmentIdReplica;
+
+    private DepartmentExistenceCache departmentExistenceCache;
+
+    private DepartmentExistenceService departmentExistenceService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        departmentExistenceCache = new DepartmentExistenceCache(100);
+        departmentExistenceService = new DepartmentExistenceService(departmentServiceProxy, departmentIdReplica, departmentExistenceCache, 50, 3, 2000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        departmentExistenceService.shutdown();
+    }
+
+    @Test
+    void check_ShouldCollapseConcurrentChecksIntoOneCall() {
+        when(departmentServiceProxy.findExistingDepartmentIds(any())).thenReturn(List.of(1L));
+
+        CompletableFuture<Boolean> first = departmentExistenceService.check(1L);
+        CompletableFuture<Boolean> duplicate = departmentExistenceService.check(1L);
+        CompletableFuture<Boolean> missing = departmentExistenceService.check(2L);
+
+        assertTrue(first.join());
+        assertTrue(duplicate.join());
+        assertFalse(missing.join());
+        verify(departmentServiceProxy, times(1)).findExistingDepartmentIds(argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 2L))));
+        assertEquals(Boolean.TRUE, departmentExistenceCache.lastKnown(1L));
+        assertEquals(Boolean.FALSE, departmentExistenceCache.lastKnown(2L));
+    }
+
+    @Test
+    void check_ShouldDispatchEarly_WhenBatchIsFull() {
+        DepartmentExistenceService slowWindow = new DepartmentExistenceService(departmentServiceProxy, departmentIdReplica, departmentExistenceCache, 60_000, 3, 2000, 1);
+        when(departmentServiceProxy.findExistingDepartmentIds(any())).thenReturn(List.of(1L, 2L, 3L));
+        try {
+            CompletableFuture<Boolean> first = slowWindow.check(1L);
+            slowWindow.check(2L);
+            slowWindow.check(3L);
+
+            assertTrue(first.join());
+        } finally {
+            slowWindow.shutdown();
+        }
+    }
+
+    @Test
+    void isDepartmentExists_ShouldPropagateFailure() {
+        when(departmentServiceProxy.findExistingDepartmentIds(any())).thenThrow(new IllegalStateException("department-service down"));
+
+        assertThrows(IllegalStateException.class, () -> departmentExistenceService.isDepartmentExists(1L));
+    }
+
+    @Test
+    void isDepartmentExists_ShouldThrowDepartmentServiceUnavailableException_WhenCheckTimesOut() {
+        DepartmentExistenceService slowService = new DepartmentExistenceService(departmentServiceProxy, departmentIdReplica, departmentExistenceCache, 0, 3, 50, 1);
+        when(departmentServiceProxy.findExistingDepartmentIds(any())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return List.of(1L);
+        });
+
+        try {
+            assertThrows(DepartmentServiceUnavailableException.class, () -> slowService.isDepartmentExists(1L));
+        } finally {
+            slowService.shutdown();
+        }
+    }
+
+    @Test
+    void isDepartmentExists_ShouldAnswerFromReplica_WhenReplicaKnowsId() {
+        when(departmentIdReplica.containsFresh(1L)).thenReturn(true);
+
+        assertTrue(departmentExistenceService.isDepartmentExists(1L));
+        verifyNoInteractions(departmentServiceProxy);
+    }
+
+    @Test
+    void isDepartmentExists_ShouldFallBackToLiveCheck_WhenReplicaMisses() {
+        when(departmentServiceProxy.findExistingDepartmentIds(any())).thenReturn(List.of(7L));
+
+        assertTrue(departmentExistenceService.isDepartmentExists(7L));
+        verify(departmentServiceProxy, times(1)).findExistingDepartmentIds(any());
+    }
+
+    @Test
+    void isDepartmentExists_ShouldReturnFalse_WhenIdIsNull() {
+        assertFalse(departmentExistenceService.isDepartmentExists(null));
+        verifyNoInteractions(departmentServiceProxy);
+    }
+}
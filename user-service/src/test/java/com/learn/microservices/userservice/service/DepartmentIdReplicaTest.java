@@ -0,0 +1,86 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.DepartmentChangeBatchDto;
+import com.learn.microservices.userservice.dto.DepartmentChangeDto;
+import com.learn.microservices.userservice.dto.DepartmentChangeType;
+import com.learn.microservices.userservice.dto.DepartmentIdSnapshotDto;
+import com.learn.microservices.userservice.proxy.DepartmentIdProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class DepartmentIdReplicaTest {
+
+    @Mock
+    private DepartmentIdProxy departmentIdProxy;
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private DepartmentIdReplica departmentIdReplica;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        departmentIdReplica = new DepartmentIdReplica(departmentIdProxy, 2, 100, now::get);
+    }
+
+    @Test
+    void synchronize_ShouldLoadSnapshotAndApplyChanges() {
+        when(departmentIdProxy.getSnapshot()).thenReturn(new DepartmentIdSnapshotDto(5L, new long[]{3L, 1L, 2L}));
+        when(departmentIdProxy.getChanges(5L, 2)).thenReturn(new DepartmentChangeBatchDto(List.of(
+                new DepartmentChangeDto(6L, DepartmentChangeType.DELETED, 2L),
+                new DepartmentChangeDto(7L, DepartmentChangeType.CREATED, 4L)), 1L));
+        when(departmentIdProxy.getChanges(7L, 2)).thenReturn(new DepartmentChangeBatchDto(List.of(), 1L));
+
+        departmentIdReplica.synchronize();
+
+        assertTrue(departmentIdReplica.containsFresh(1L));
+        assertFalse(departmentIdReplica.containsFresh(2L));
+        assertTrue(departmentIdReplica.containsFresh(4L));
+    }
+
+    @Test
+    void containsFresh_ShouldReturnFalse_WhenReplicaIsStale() {
+        when(departmentIdProxy.getSnapshot()).thenReturn(new DepartmentIdSnapshotDto(0L, new long[]{1L}));
+        when(departmentIdProxy.getChanges(anyLong(), anyInt())).thenReturn(new DepartmentChangeBatchDto(List.of(), null));
+        departmentIdReplica.synchronize();
+
+        now.addAndGet(101);
+
+        assertFalse(departmentIdReplica.containsFresh(1L));
+    }
+
+    @Test
+    void synchronize_ShouldReloadSnapshot_WhenChangesWerePruned() {
+        when(departmentIdProxy.getSnapshot())
+                .thenReturn(new DepartmentIdSnapshotDto(1L, new long[]{1L}))
+                .thenReturn(new DepartmentIdSnapshotDto(20L, new long[]{9L}));
+        when(departmentIdProxy.getChanges(anyLong(), anyInt())).thenReturn(new DepartmentChangeBatchDto(List.of(), null));
+        departmentIdReplica.synchronize();
+        when(departmentIdProxy.getChanges(1L, 2)).thenReturn(new DepartmentChangeBatchDto(List.of(), 10L));
+
+        departmentIdReplica.synchronize();
+
+        assertTrue(departmentIdReplica.containsFresh(9L));
+        assertFalse(departmentIdReplica.containsFresh(1L));
+        verify(departmentIdProxy, times(2)).getSnapshot();
+    }
+
+    @Test
+    void containsFresh_ShouldReturnFalse_WhenNeverSynchronized() {
+        when(departmentIdProxy.getSnapshot()).thenThrow(new IllegalStateException("department-service down"));
+
+        departmentIdReplica.synchronize();
+
+        assertFalse(departmentIdReplica.containsFresh(1L));
+    }
+}
@@ -0,0 +1,140 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.BatchItemStatus;
+import com.learn.microservices.userservice.dto.UserBatchResponseDto;
+import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
+import com.learn.microservices.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserBatchServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DepartmentServiceProxy departmentServiceProxy;
+
+    @Mock
+    private DepartmentIdReplica departmentIdReplica;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private CredentialEventService credentialEventService;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private UserBatchService userBatchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        UserEmailFilter userEmailFilter = new UserEmailFilter(userRepository, 100, 0.01);
+        UserBatchProcessor userBatchProcessor = new UserBatchProcessor(userRepository, credentialEventService,
+                new UserCountCache(60_000, 100), userSearchIndex, userEmailFilter, entityManager, 2);
+        userBatchService = new UserBatchService(userRepository, departmentServiceProxy, departmentIdReplica, new DepartmentExistenceCache(100), new PasswordHasher(passwordEncoder, new ForkJoinPool(2)),
+                userBatchProcessor, userEmailFilter, Validation.buildDefaultValidatorFactory().getValidator(), 10, 2);
+        when(passwordEncoder.encode(any())).thenReturn("encoded");
+        when(userRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void saveUsers_ShouldReportPerItemResults() {
+        List<UserEmailDto> users = List.of(
+                createUserEmailDto("new@mail.com", 1L),
+                createUserEmailDto("taken@mail.com", 1L),
+                createUserEmailDto("NEW@mail.com", 1L),
+                createUserEmailDto("nodept@mail.com", 9L),
+                createUserEmailDto("", 1L),
+                createUserEmailDto("other@mail.com", null));
+        when(userRepository.findExistingEmails(anyList())).thenReturn(List.of());
+        when(userRepository.findExistingEmails(List.of("new@mail.com", "taken@mail.com"))).thenReturn(List.of("taken@mail.com"));
+        when(departmentServiceProxy.findExistingDepartmentIds(argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 9L))))).thenReturn(List.of(1L));
+
+        UserBatchResponseDto response = userBatchService.saveUsers(users);
+
+        assertEquals(2, response.getCreated());
+        assertEquals(4, response.getFailed());
+        assertEquals(BatchItemStatus.CREATED, response.getResults().get(0).getStatus());
+        assertEquals("User with email taken@mail.com already exists.", response.getResults().get(1).getError());
+        assertEquals("Email NEW@mail.com is already used by item 0 of this batch.", response.getResults().get(2).getError());
+        assertEquals("Department with id 9 not found.", response.getResults().get(3).getError());
+        assertEquals(BatchItemStatus.FAILED, response.getResults().get(4).getStatus());
+        assertEquals(BatchItemStatus.CREATED, response.getResults().get(5).getStatus());
+        verify(userRepository, times(2)).findExistingEmails(anyList());
+        verify(departmentServiceProxy, times(1)).findExistingDepartmentIds(any());
+        verify(credentialEventService, times(1)).usersCreated(argThat(created -> created.size() == 2), eq(2));
+    }
+
+    @Test
+    void saveUsers_ShouldInsertInChunksOfBatchSize() {
+        List<UserEmailDto> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(createUserEmailDto("user" + i + "@mail.com", null));
+        }
+        when(userRepository.findExistingEmails(anyList())).thenReturn(List.of());
+
+        UserBatchResponseDto response = userBatchService.saveUsers(users);
+
+        assertEquals(5, response.getCreated());
+        verify(userRepository, times(3)).saveAll(anyList());
+        verify(entityManager, times(3)).flush();
+        verifyNoInteractions(departmentServiceProxy);
+    }
+
+    @Test
+    void saveUsers_ShouldThrowInvalidBatchException_WhenBatchTooLarge() {
+        List<UserEmailDto> users = Collections.nCopies(11, createUserEmailDto("a@mail.com", 1L));
+
+        assertThrows(InvalidBatchException.class, () -> userBatchService.saveUsers(users));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void saveUsers_ShouldNotInsert_WhenAllItemsFail() {
+        when(userRepository.findExistingEmails(anyList())).thenReturn(List.of("taken@mail.com"));
+
+        UserBatchResponseDto response = userBatchService.saveUsers(List.of(createUserEmailDto("taken@mail.com", null)));
+
+        assertEquals(0, response.getCreated());
+        verify(userRepository, never()).saveAll(anyList());
+        verify(credentialEventService, never()).usersCreated(anyList(), anyInt());
+    }
+
+    @Test
+    void saveUsers_ShouldLookUpNormalizedEmails() {
+        when(userRepository.findExistingEmails(List.of("taken@mail.com"))).thenReturn(List.of("taken@mail.com"));
+
+        UserBatchResponseDto response = userBatchService.saveUsers(List.of(createUserEmailDto("Taken@Mail.com", null)));
+
+        assertEquals(0, response.getCreated());
+        assertEquals("User with email Taken@Mail.com already exists.", response.getResults().get(0).getError());
+    }
+
+    private UserEmailDto createUserEmailDto(String email, Long departmentId) {
+        return new UserEmailDto(null, "Ahmed", "Hassan", email, "1234567890", "USER", departmentId, (String) null, null, "password");
+    }
+}
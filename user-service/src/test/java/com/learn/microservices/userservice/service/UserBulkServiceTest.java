@@ -0,0 +1,111 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserBulkFilterDto;
+import com.learn.microservices.userservice.dto.UserBulkResultDto;
+import com.learn.microservices.userservice.dto.UserBulkUpdateDto;
+import com.learn.microservices.userservice.dto.UserMembershipDto;
+import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserBulkServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CredentialEventService credentialEventService;
+
+    @Mock
+    private UserCountCache userCountCache;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private DepartmentExistenceService departmentExistenceService;
+
+    private UserBulkService userBulkService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        UserBulkProcessor processor = new UserBulkProcessor(userRepository, credentialEventService, userCountCache, userSearchIndex);
+        userBulkService = new UserBulkService(processor, departmentExistenceService, 5, 2);
+    }
+
+    @Test
+    void updateUsers_ShouldWalkFilterInChunksAndReportAffectedRows() {
+        when(departmentExistenceService.isDepartmentExists(2L)).thenReturn(true);
+        when(userRepository.lockMembershipsAfter(0L, null, 1L, Limit.of(2)))
+                .thenReturn(List.of(new UserMembershipDto(3L, "USER", 1L), new UserMembershipDto(8L, "ADMIN", 1L)));
+        when(userRepository.lockMembershipsAfter(8L, null, 1L, Limit.of(2)))
+                .thenReturn(List.of(new UserMembershipDto(12L, "USER", 1L)));
+        when(userRepository.updateMemberships(eq(List.of(3L, 8L)), isNull(), eq(2L), any())).thenReturn(2);
+        when(userRepository.updateMemberships(eq(List.of(12L)), isNull(), eq(2L), any())).thenReturn(1);
+
+        UserBulkResultDto result = userBulkService.updateUsers(new UserBulkUpdateDto(new UserBulkFilterDto(null, null, 1L), null, 2L));
+
+        assertEquals(3, result.getAffected());
+        assertEquals(2, result.getChunks());
+        verify(userCountCache, times(2)).userMoved("USER", 1L, "USER", 2L);
+        verify(userCountCache).userMoved("ADMIN", 1L, "ADMIN", 2L);
+        verifyNoInteractions(credentialEventService);
+    }
+
+    @Test
+    void updateUsers_ShouldPublishCredentialsOnlyForUsersWhoseRoleChanged() {
+        when(userRepository.lockMembershipsByIds(List.of(1L, 2L), null, null))
+                .thenReturn(List.of(new UserMembershipDto(1L, "USER", 1L), new UserMembershipDto(2L, "ADMIN", 1L)));
+        when(userRepository.updateMemberships(eq(List.of(1L, 2L)), eq("ADMIN"), isNull(), any())).thenReturn(2);
+
+        UserBulkResultDto result = userBulkService.updateUsers(new UserBulkUpdateDto(new UserBulkFilterDto(List.of(2L, 1L, 2L), null, null), "ADMIN", null));
+
+        assertEquals(2, result.getAffected());
+        verify(credentialEventService).usersUpdated(List.of(1L));
+    }
+
+    @Test
+    void updateUsers_ShouldRejectInvalidRequests() {
+        assertThrows(InvalidBatchException.class,
+                () -> userBulkService.updateUsers(new UserBulkUpdateDto(new UserBulkFilterDto(null, null, null), "ADMIN", null)));
+        assertThrows(InvalidBatchException.class,
+                () -> userBulkService.updateUsers(new UserBulkUpdateDto(new UserBulkFilterDto(null, "USER", null), null, null)));
+        assertThrows(InvalidBatchException.class,
+                () -> userBulkService.updateUsers(new UserBulkUpdateDto(new UserBulkFilterDto(List.of(1L, 2L, 3L, 4L, 5L, 6L), null, null), "ADMIN", null)));
+        when(departmentExistenceService.isDepartmentExists(9L)).thenReturn(false);
+        assertThrows(DepartmentNotFoundException.class,
+                () -> userBulkService.updateUsers(new UserBulkUpdateDto(new UserBulkFilterDto(null, "USER", null), null, 9L)));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void deleteUsers_ShouldChunkIdListAndRecordSideEffects() {
+        when(userRepository.lockMembershipsByIds(List.of(1L, 2L), "USER", null))
+                .thenReturn(List.of(new UserMembershipDto(1L, "USER", 1L)));
+        when(userRepository.lockMembershipsByIds(List.of(3L), "USER", null))
+                .thenReturn(List.of(new UserMembershipDto(3L, "USER", 2L)));
+        when(userRepository.deleteByIds(List.of(1L))).thenReturn(1);
+        when(userRepository.deleteByIds(List.of(3L))).thenReturn(1);
+
+        UserBulkResultDto result = userBulkService.deleteUsers(new UserBulkFilterDto(List.of(3L, 2L, 1L), "USER", null));
+
+        assertEquals(2, result.getAffected());
+        assertEquals(2, result.getChunks());
+        verify(credentialEventService).usersDeleted(List.of(1L), 1);
+        verify(credentialEventService).usersDeleted(List.of(3L), 1);
+        verify(userCountCache).userRemoved("USER", 2L);
+        verify(userSearchIndex).usersRemoved(List.of(3L));
+    }
+}
@@ -0,0 +1,76 @@
+package com.learn.microservices.userservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserCountCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final UserCountCache userCountCache = new UserCountCache(1_000, 100, now::get);
+
+    @Test
+    void count_ShouldLoadOnceAndAdjustOnWrites() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(10, userCountCache.count("USER", null, () -> {
+            loads.incrementAndGet();
+            return 10;
+        }));
+        userCountCache.userAdded("user", 3L);
+        userCountCache.userRemoved("USER", null);
+        userCountCache.userAdded("ADMIN", null);
+
+        assertEquals(10, userCountCache.count("USER", null, () -> {
+            loads.incrementAndGet();
+            return -1;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void count_ShouldReplaceExpiredEntries_WhenFull() {
+        UserCountCache smallCache = new UserCountCache(1_000, 2, now::get);
+        smallCache.count(null, 1L, () -> 5);
+        smallCache.count(null, 2L, () -> 7);
+        now.addAndGet(1_001);
+        AtomicInteger loads = new AtomicInteger();
+
+        smallCache.count(null, 3L, () -> {
+            loads.incrementAndGet();
+            return 9;
+        });
+
+        assertEquals(9, smallCache.count(null, 3L, () -> {
+            loads.incrementAndGet();
+            return -1;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void userMoved_ShouldMoveCountBetweenFilters() {
+        userCountCache.count(null, 1L, () -> 5);
+        userCountCache.count(null, 2L, () -> 7);
+        userCountCache.count(null, null, () -> 12);
+
+        userCountCache.userMoved("USER", 1L, "USER", 2L);
+
+        assertEquals(4, userCountCache.count(null, 1L, () -> -1));
+        assertEquals(8, userCountCache.count(null, 2L, () -> -1));
+        assertEquals(12, userCountCache.count(null, null, () -> -1));
+    }
+
+    @Test
+    void count_ShouldReload_WhenEntryExpired() {
+        userCountCache.count(null, null, () -> 5);
+        userCountCache.userAdded("USER", null);
+
+        now.addAndGet(1_001);
+
+        assertEquals(3, userCountCache.count(null, null, () -> 3));
+    }
+}
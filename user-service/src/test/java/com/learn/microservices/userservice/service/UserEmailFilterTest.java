@@ -0,0 +1,69 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class UserEmailFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserEmailFilter userEmailFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userEmailFilter = new UserEmailFilter(userRepository, 1_000, 0.01);
+    }
+
+    @Test
+    void mightContain_ShouldAllowEverything_BeforeFirstRebuild() {
+        assertTrue(userEmailFilter.mightContain("anyone@mail.com"));
+    }
+
+    @Test
+    void rebuild_ShouldRuleOutUnknownEmails() {
+        when(userRepository.count()).thenReturn(1_000L);
+        when(userRepository.streamNormalizedEmails()).thenReturn(IntStream.range(0, 1_000).mapToObj(i -> "user" + i + "@mail.com"));
+
+        userEmailFilter.rebuild();
+
+        assertTrue(IntStream.range(0, 1_000).allMatch(i -> userEmailFilter.mightContain("User" + i + "@Mail.com ")));
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> userEmailFilter.mightContain("other" + i + "@mail.com")).count();
+        assertTrue(falsePositives < 200, () -> falsePositives + " false positives");
+    }
+
+    @Test
+    void emailAdded_ShouldBeVisibleAfterRebuild() {
+        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.streamNormalizedEmails()).thenReturn(Stream.empty());
+        userEmailFilter.rebuild();
+
+        userEmailFilter.emailAdded("New@Mail.com");
+
+        assertTrue(userEmailFilter.mightContain("new@mail.com"));
+        assertFalse(userEmailFilter.mightContain("missing@mail.com"));
+    }
+
+    @Test
+    void rebuild_ShouldKeepPreviousFilter_WhenScanFails() {
+        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.streamNormalizedEmails()).thenReturn(Stream.of("kept@mail.com"));
+        userEmailFilter.rebuild();
+
+        when(userRepository.streamNormalizedEmails()).thenThrow(new IllegalStateException("connection lost"));
+        userEmailFilter.rebuild();
+
+        assertTrue(userEmailFilter.mightContain("kept@mail.com"));
+        assertFalse(userEmailFilter.mightContain("missing@mail.com"));
+    }
+}
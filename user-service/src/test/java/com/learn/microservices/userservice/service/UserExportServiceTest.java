@@ -0,0 +1,101 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.entity.ExportFormat;
+import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
+import com.learn.microservices.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserExportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DepartmentExistenceService departmentExistenceService;
+
+    private UserExportService userExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userExportService = new UserExportService(userRepository, departmentExistenceService, new ObjectMapper());
+    }
+
+    @Test
+    void export_ndjson_writesOneLinePerUserAndClosesStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamByRoleOrderByIdAsc("USER"))
+                .thenReturn(Stream.of(user(1L, "Ahmed"), user(2L, "Mona")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export("USER", null, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"firstName\":\"Ahmed\""));
+        assertTrue(lines[1].startsWith("{\"id\":2,\"firstName\":\"Mona\""));
+        assertEquals("", lines[2]);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_csv_writesHeaderAndEscapesFields() throws Exception {
+        UserDto user = user(1L, "Ahmed, \"Jr\"");
+        user.setDepartmentId(3L);
+        when(userRepository.streamByRoleAndDepartmentIdOrderByIdAsc("USER", 3L)).thenReturn(Stream.of(user));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export("USER", 3L, ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertEquals(UserExportService.CSV_HEADER + "\n"
+                        + "1,\"Ahmed, \"\"Jr\"\"\",Hassan,user1@mail.com,,USER,3,,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_noFilters_streamsAllUsers() throws Exception {
+        when(userRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.export(null, null, ExportFormat.NDJSON, out);
+
+        assertEquals(0, rows);
+        assertEquals(0, out.size());
+        verify(userRepository).streamAllByOrderByIdAsc();
+    }
+
+    @Test
+    void validateFilter_unknownDepartment_throws() {
+        when(departmentExistenceService.isDepartmentExists(9L)).thenReturn(false);
+
+        assertThrows(DepartmentNotFoundException.class, () -> userExportService.validateFilter(9L));
+        userExportService.validateFilter(null);
+        verify(departmentExistenceService, times(1)).isDepartmentExists(any());
+    }
+
+    private static UserDto user(Long id, String firstName) {
+        UserDto user = new UserDto();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName("Hassan");
+        user.setEmail("user" + id + "@mail.com");
+        user.setRole("USER");
+        return user;
+    }
+}
@@ -0,0 +1,80 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.entity.ImportFormat;
+import com.learn.microservices.userservice.exception.InvalidImportException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void next_ShouldParseCsvRowsAndReportBadLines() throws IOException {
+        Path file = write("""
+                first_name,lastName,email,password,role,department_id
+                Ahmed,"Hassan, Jr.",a@mail.com,password,USER,1
+
+                Mona,Ali,b@mail.com,password,ADMIN,abc
+                """);
+
+        try (UserImportReader reader = UserImportReader.open(file, ImportFormat.CSV, objectMapper)) {
+            List<UserImportReader.ImportRow> rows = reader.next(10);
+
+            assertEquals(2, rows.size());
+            assertEquals(2, rows.get(0).lineNumber());
+            assertEquals("Hassan, Jr.", rows.get(0).user().getLastName());
+            assertEquals(1L, rows.get(0).user().getDepartmentId());
+            assertEquals(4, rows.get(1).lineNumber());
+            assertNotNull(rows.get(1).error());
+            assertEquals(4, reader.getLineNumber());
+        }
+    }
+
+    @Test
+    void skipTo_ShouldResumeAfterCheckpointedLine() throws IOException {
+        Path file = write("""
+                {"firstName":"A","lastName":"A","email":"a@mail.com","password":"password","role":"USER"}
+                {"firstName":"B","lastName":"B","email":"b@mail.com","password":"password","role":"USER","extra":1}
+                not json
+                """);
+
+        try (UserImportReader reader = UserImportReader.open(file, ImportFormat.NDJSON, objectMapper)) {
+            reader.skipTo(1);
+            List<UserImportReader.ImportRow> rows = reader.next(10);
+
+            assertEquals(2, rows.size());
+            assertEquals("b@mail.com", rows.get(0).user().getEmail());
+            assertNotNull(rows.get(1).error());
+        }
+    }
+
+    @Test
+    void countRows_ShouldSkipHeaderAndBlankLines() throws IOException {
+        Path file = write("email,password\na@mail.com,password\n\nb@mail.com,password\n");
+
+        assertEquals(2, UserImportReader.countRows(file, ImportFormat.CSV, objectMapper));
+    }
+
+    @Test
+    void open_ShouldThrowInvalidImportException_WhenCsvHeaderHasNoEmail() throws IOException {
+        Path file = write("name,password\nA,password\n");
+
+        assertThrows(InvalidImportException.class, () -> UserImportReader.open(file, ImportFormat.CSV, objectMapper));
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("upload"), content);
+    }
+}
@@ -0,0 +1,62 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.dto.UserLookupDto;
+import com.learn.microservices.userservice.exception.InvalidBatchException;
+import com.learn.microservices.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserLookupServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserLookupService userLookupService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userLookupService = new UserLookupService(userRepository, meterRegistry, 5, 2);
+    }
+
+    @Test
+    void getUsersByIds_ShouldQueryInSortedChunksAndKeepRequestOrder() {
+        when(userRepository.findDtoByIdIn(List.of(1L, 3L))).thenReturn(List.of(userDto(3L), userDto(1L)));
+        when(userRepository.findDtoByIdIn(List.of(7L, 9L))).thenReturn(List.of(userDto(9L)));
+
+        UserLookupDto result = userLookupService.getUsersByIds(List.of(9L, 3L, 7L, 1L, 3L));
+
+        assertEquals(List.of(9L, 3L, 1L), result.getUsers().stream().map(UserDto::getId).toList());
+        assertEquals(List.of(7L), result.getMissing());
+        verify(userRepository, times(2)).findDtoByIdIn(any());
+        assertEquals(5.0, meterRegistry.get("users.lookup.batch.size").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("users.lookup.missing").summary().totalAmount());
+    }
+
+    @Test
+    void getUsersByIds_ShouldRejectEmptyOversizedOrNullIds() {
+        assertThrows(InvalidBatchException.class, () -> userLookupService.getUsersByIds(List.of()));
+        assertThrows(InvalidBatchException.class, () -> userLookupService.getUsersByIds(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+        assertThrows(InvalidBatchException.class, () -> userLookupService.getUsersByIds(Arrays.asList(1L, null)));
+        assertThrows(InvalidBatchException.class, () -> userLookupService.getUsersByIds(Collections.emptyList()));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static UserDto userDto(Long id) {
+        return new UserDto(id, "Ahmed", "Hassan", "user" + id + "@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+    }
+}
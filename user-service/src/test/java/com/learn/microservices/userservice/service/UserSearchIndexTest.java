@@ -0,0 +1,127 @@
+package com.learn.microservices.userservice.service;
+
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.entity.User;
+import com.learn.microservices.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userSearchIndex = new UserSearchIndex(userRepository, meterRegistry, 2);
+    }
+
+    @Test
+    void load_ShouldIndexAllUsersInChunks() {
+        when(userRepository.findRange(eq(0L), eq(Long.MAX_VALUE), eq(Limit.of(2))))
+                .thenReturn(List.of(userDto(1L, "Ahmed", "Hassan", "ahmed@mail.com"), userDto(2L, "Sara", "Ali", "sara@mail.com")));
+        when(userRepository.findRange(eq(2L), eq(Long.MAX_VALUE), eq(Limit.of(2))))
+                .thenReturn(List.of(userDto(5L, "Omar", "Hassan", "omar@mail.com")));
+
+        userSearchIndex.load();
+
+        assertEquals(3, userSearchIndex.size());
+        assertEquals(List.of(1L, 5L), userSearchIndex.search("hassan", 10));
+        assertEquals(3.0, meterRegistry.get("users.search.index.documents").gauge().value());
+        assertTrue(meterRegistry.get("users.search.index.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void load_ShouldKeepWritesCommittedWhileLoading() {
+        when(userRepository.findRange(eq(0L), eq(Long.MAX_VALUE), eq(Limit.of(2)))).thenAnswer(invocation -> {
+            userSearchIndex.userSaved(user(1L, "Ahmed", "Mostafa", "ahmed@mail.com"));
+            userSearchIndex.userRemoved(2L);
+            return List.of(userDto(1L, "Ahmed", "Hassan", "ahmed@mail.com"), userDto(2L, "Sara", "Hassan", "sara@mail.com"));
+        });
+        when(userRepository.findRange(eq(2L), eq(Long.MAX_VALUE), eq(Limit.of(2)))).thenReturn(List.of());
+
+        userSearchIndex.load();
+
+        assertEquals(1, userSearchIndex.size());
+        assertEquals(List.of(1L), userSearchIndex.search("mostafa", 10));
+        assertTrue(userSearchIndex.search("hassan", 10).isEmpty());
+
+        userSearchIndex.userSaved(user(2L, "Sara", "Hassan", "sara@mail.com"));
+        assertEquals(List.of(2L), userSearchIndex.search("hassan", 10));
+    }
+
+    @Test
+    void search_ShouldRankExactAndPrefixMatchesFirst() {
+        userSearchIndex.userSaved(user(1L, "Mohamed", "Sam", "mo@mail.com"));
+        userSearchIndex.userSaved(user(2L, "Sami", "Ali", "sami@mail.com"));
+        userSearchIndex.userSaved(user(3L, "Sam", "Hassan", "hassan@mail.com"));
+        userSearchIndex.userSaved(user(4L, "Osama", "Ali", "osama@mail.com"));
+
+        assertEquals(List.of(1L, 3L, 2L, 4L), userSearchIndex.search("Sam", 10));
+        assertEquals(List.of(1L, 3L), userSearchIndex.search("sam", 2));
+        assertEquals(List.of(3L), userSearchIndex.search("sam hass", 10));
+        assertEquals(List.of(2L), userSearchIndex.search("SAMI@MAIL.COM", 10));
+        assertTrue(userSearchIndex.search("xyz", 10).isEmpty());
+        assertEquals(5, meterRegistry.get("users.search.latency").timer().count());
+    }
+
+    @Test
+    void search_ShouldUsePrefixesForShortQueries() {
+        userSearchIndex.userSaved(user(1L, "Ahmed", "Hassan", "ahmed@mail.com"));
+        userSearchIndex.userSaved(user(2L, "Sara", "Ali", "sara@mail.com"));
+
+        assertEquals(List.of(2L), userSearchIndex.search("al", 10));
+        assertEquals(List.of(1L, 2L), userSearchIndex.search("a", 10));
+        assertTrue(userSearchIndex.search("ss", 10).isEmpty());
+    }
+
+    @Test
+    void userSaved_ShouldReplacePreviousValues() {
+        userSearchIndex.userSaved(user(1L, "Ahmed", "Hassan", "ahmed@mail.com"));
+        userSearchIndex.userSaved(user(1L, "Ahmed", "Ali", "ahmed.ali@mail.com"));
+
+        assertTrue(userSearchIndex.search("hassan", 10).isEmpty());
+        assertEquals(List.of(1L), userSearchIndex.search("ali", 10));
+        assertEquals(1, userSearchIndex.size());
+    }
+
+    @Test
+    void userRemoved_ShouldDropUserAndUnusedGrams() {
+        userSearchIndex.usersSaved(List.of(user(1L, "Ahmed", "Hassan", "ahmed@mail.com"), user(2L, "Sara", "Ali", "sara@mail.com")));
+        int grams = userSearchIndex.gramCount();
+
+        userSearchIndex.userRemoved(1L);
+
+        assertTrue(userSearchIndex.search("ahmed", 10).isEmpty());
+        assertEquals(List.of(2L), userSearchIndex.search("sara", 10));
+        assertTrue(userSearchIndex.gramCount() < grams);
+    }
+
+    private static User user(Long id, String firstName, String lastName, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        return user;
+    }
+
+    private static UserDto userDto(Long id, String firstName, String lastName, String email) {
+        return new UserDto(id, firstName, lastName, email, "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+    }
+}
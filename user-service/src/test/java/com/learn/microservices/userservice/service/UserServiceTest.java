@@ -1,26 +1,44 @@
 package com.learn.microservices.userservice.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.SliceDto;
 import com.learn.microservices.userservice.dto.UserDto;
 import com.learn.microservices.userservice.dto.UserEmailDto;
+import com.learn.microservices.userservice.dto.UserPatchDto;
+import com.learn.microservices.userservice.dto.VersionedDto;
 import com.learn.microservices.userservice.entity.User;
 import com.learn.microservices.userservice.exception.DepartmentNotFoundException;
 import com.learn.microservices.userservice.exception.EmailAlreadyExistException;
+import com.learn.microservices.userservice.exception.InvalidFieldsException;
+import com.learn.microservices.userservice.exception.InvalidPaginationException;
+import com.learn.microservices.userservice.exception.InvalidPatchException;
+import com.learn.microservices.userservice.exception.InvalidSearchException;
+import com.learn.microservices.userservice.exception.PreconditionFailedException;
 import com.learn.microservices.userservice.exception.UserNotFoundException;
-import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
 import com.learn.microservices.userservice.repository.UserRepository;
+import com.learn.microservices.userservice.util.FieldSet;
 import com.learn.microservices.userservice.util.PaginationOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -32,17 +50,30 @@ class UserServiceTest {
     private ObjectMapper objectMapper;
 
     @Mock
-    private DepartmentServiceProxy departmentServiceProxy;
+    private DepartmentExistenceService departmentExistenceService;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private CredentialEventService credentialEventService;
+
+    @Mock
+    private UserCountCache userCountCache;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private UserEmailFilter userEmailFilter;
+
     private UserService userService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, objectMapper, departmentServiceProxy, passwordEncoder);
+        userService = new UserService(userRepository, objectMapper, departmentExistenceService, passwordEncoder, credentialEventService, userCountCache, userSearchIndex, userEmailFilter,
+                new UserWriteProcessor(userRepository, credentialEventService, userCountCache, userSearchIndex));
     }
 
     @Test
@@ -53,10 +84,10 @@ class UserServiceTest {
         String role = "ADMIN";
         Long departmentId = 1L;
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
         when(userRepository.findByRoleAndDepartmentId(role, departmentId, pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByRoleAndDepartmentId(role, departmentId, pageable);
@@ -69,10 +100,10 @@ class UserServiceTest {
         Pageable pageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), Sort.by(Sort.Order.asc(sortBy)));
         String role = "USER";
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
         when(userRepository.findByRole(role, pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(role, null, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(role, null, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByRole(role, pageable);
@@ -85,11 +116,11 @@ class UserServiceTest {
         Pageable pageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), Sort.by(Sort.Order.asc(sortBy)));
         Long departmentId = 2L;
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
-        when(departmentServiceProxy.isDepartmentExists(departmentId)).thenReturn(true);
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
+        when(departmentExistenceService.isDepartmentExists(departmentId)).thenReturn(true);
         when(userRepository.findByDepartmentId(departmentId, pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(null, departmentId, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(null, departmentId, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByDepartmentId(departmentId, pageable);
@@ -101,13 +132,94 @@ class UserServiceTest {
         PaginationOptions paginationOptions = new PaginationOptions(0, 10, sortBy, "asc");
         Pageable pageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), Sort.by(Sort.Order.asc(sortBy)));
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
+        when(userRepository.findAllBy(pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(null, null, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(null, null, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
-        verify(userRepository, times(1)).findAll(pageable);
+        verify(userRepository, times(1)).findAllBy(pageable);
+    }
+
+    @Test
+    void testGetUsersWithCachedCount_usesCachedTotal() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 1, "firstName", "asc");
+        Pageable pageable = PageRequest.of(0, 1, Sort.by(Sort.Order.asc("firstName")));
+        when(userRepository.findSliceByRole("USER", pageable)).thenReturn(new SliceImpl<>(List.of(new UserDto()), pageable, true));
+        when(userCountCache.count(eq("USER"), isNull(), any())).thenReturn(42L);
+
+        Page<UserDto> result = userService.getUsersWithCachedCount("USER", null, paginationOptions, UserDto.FIELDS.all());
+
+        assertEquals(42L, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        verify(userRepository, never()).countByRole(any());
+        verify(userRepository, never()).findByRole(any(), any(Pageable.class));
+    }
+
+    @Test
+    void testGetUsersSlice_returnsHasNextWithoutCounting() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 1, null, null);
+        Pageable pageable = PageRequest.of(0, 1, Sort.unsorted());
+        when(departmentExistenceService.isDepartmentExists(2L)).thenReturn(true);
+        when(userRepository.findSliceByDepartmentId(2L, pageable)).thenReturn(new SliceImpl<>(List.of(new UserDto()), pageable, true));
+
+        SliceDto<UserDto> result = userService.getUsersSlice(null, 2L, paginationOptions, UserDto.FIELDS.all());
+
+        assertTrue(result.isHasNext());
+        assertEquals(1, result.getContent().size());
+        verifyNoInteractions(userCountCache);
+    }
+
+    @Test
+    void testGetUsersByCursor_firstPage_returnsNextCursor() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 2, "firstName", "asc");
+        User first = new User();
+        first.setId(7L);
+        first.setFirstName("Ahmed");
+        Window<User> window = Window.from(List.of(first, new User()),
+                index -> ScrollPosition.forward(Map.of("firstName", "Mona", "id", 9L)), true);
+        when(userRepository.findByRole(eq("USER"), eq(ScrollPosition.keyset()), any(Sort.class), eq(Limit.of(2)))).thenReturn(window);
+
+        CursorPageDto<UserDto> result = userService.getUsersByCursor("USER", null, "", paginationOptions);
+
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertNotNull(result.getNextCursor());
+        verify(userRepository).findByRole("USER", ScrollPosition.keyset(),
+                Sort.by(Sort.Direction.ASC, "firstName").and(Sort.by(Sort.Direction.ASC, "id")), Limit.of(2));
+    }
+
+    @Test
+    void testGetUsersByCursor_nextPage_seeksPastLastRow() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 2, "firstName", "asc");
+        Window<User> firstPage = Window.from(List.of(new User()),
+                index -> ScrollPosition.forward(Map.of("firstName", "Mona", "id", 9L)), true);
+        when(userRepository.findAllBy(eq(ScrollPosition.keyset()), any(Sort.class), any(Limit.class))).thenReturn(firstPage);
+        String cursor = userService.getUsersByCursor(null, null, "", paginationOptions).getNextCursor();
+
+        when(userRepository.findAllBy(eq(ScrollPosition.forward(Map.of("firstName", "Mona", "id", 9L))), any(Sort.class), any(Limit.class)))
+                .thenReturn(Window.from(List.of(new User()), index -> ScrollPosition.keyset()));
+
+        CursorPageDto<UserDto> result = userService.getUsersByCursor(null, null, cursor, new PaginationOptions(0, 2, null, null));
+
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        verify(userRepository).findAllBy(ScrollPosition.forward(Map.of("firstName", "Mona", "id", 9L)),
+                Sort.by(Sort.Direction.ASC, "firstName").and(Sort.by(Sort.Direction.ASC, "id")), Limit.of(2));
+    }
+
+    @Test
+    void testGetUsersByCursor_invalidCursor() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 10, null, null);
+
+        assertThrows(InvalidPaginationException.class, () -> userService.getUsersByCursor(null, null, "not-a-cursor", paginationOptions));
+    }
+
+    @Test
+    void testGetUsersByCursor_unsupportedSort() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 10, "email", "asc");
+
+        assertThrows(InvalidPaginationException.class, () -> userService.getUsersByCursor(null, null, "", paginationOptions));
     }
 
     @Test
@@ -116,13 +228,21 @@ class UserServiceTest {
         PaginationOptions paginationOptions = new PaginationOptions(0, 10, sortBy, "asc");
         Pageable pageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize());
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
+        when(userRepository.findAllBy(pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(null, null, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(null, null, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
-        verify(userRepository, times(1)).findAll(pageable);
+        verify(userRepository, times(1)).findAllBy(pageable);
+    }
+
+    @Test
+    void testGetUsersByFilter_unsupportedSort() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 10, "password", "asc");
+
+        assertThrows(InvalidPaginationException.class, () -> userService.getUsersByFilter(null, null, paginationOptions, UserDto.FIELDS.all()));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -132,10 +252,10 @@ class UserServiceTest {
         String role = "ADMIN";
         Long departmentId = 1L;
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
         when(userRepository.findByRoleAndDepartmentId(role, departmentId, PageRequest.of(0, 10, Sort.by(Sort.Order.asc("firstName"))))).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByRoleAndDepartmentId(role, departmentId, PageRequest.of(0, 10, Sort.by(Sort.Order.asc("firstName"))));
@@ -148,10 +268,10 @@ class UserServiceTest {
         String role = "USER";
         Long departmentId = 2L;
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
         when(userRepository.findByRoleAndDepartmentId(role, departmentId, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("firstName"))))).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByRoleAndDepartmentId(role, departmentId, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("firstName"))));
@@ -166,7 +286,7 @@ class UserServiceTest {
 
         when(userRepository.findByRoleAndDepartmentId(role, departmentId, Pageable.unpaged())).thenThrow(new RuntimeException("Database error"));
 
-        assertThrows(RuntimeException.class, () -> userService.getUsersByFilter(role, departmentId, paginationOptions));
+        assertThrows(RuntimeException.class, () -> userService.getUsersByFilter(role, departmentId, paginationOptions, UserDto.FIELDS.all()));
     }
 
     @Test
@@ -175,10 +295,10 @@ class UserServiceTest {
         PaginationOptions paginationOptions = new PaginationOptions(0, 10, sortBy, "asc");
         Pageable pageable = PageRequest.of(paginationOptions.getPage(), paginationOptions.getSize(), Sort.by(Sort.Order.asc(sortBy)));
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
         when(userRepository.findByRole("", pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter("", null, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter("", null, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByRole("", pageable);
@@ -193,10 +313,10 @@ class UserServiceTest {
         String role = "USER";
         Long departmentId = 2L;
 
-        Page<User> userPage = new PageImpl<>(List.of(new User()));
+        Page<UserDto> userPage = new PageImpl<>(List.of(new UserDto()));
         when(userRepository.findByRoleAndDepartmentId(role, departmentId, pageable)).thenReturn(userPage);
 
-        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions);
+        Page<UserDto> result = userService.getUsersByFilter(role, departmentId, paginationOptions, UserDto.FIELDS.all());
 
         assertNotNull(result);
         verify(userRepository, times(1)).findByRoleAndDepartmentId(role, departmentId, pageable);
@@ -205,52 +325,83 @@ class UserServiceTest {
     @Test
     void getUserById_ShouldReturnUserDto() {
         Long userId = 1L;
-        User user = new User();
-        user.setId(userId);
-        user.setEmail("test@example.com");
-
         UserDto userDto = new UserDto();
+        userDto.setId(userId);
         userDto.setEmail("test@example.com");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(objectMapper.convertValue(user, UserDto.class)).thenReturn(userDto);
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.of(userDto));
 
-        UserDto result = userService.getUserById(userId);
+        UserDto result = userService.getUserById(userId, UserDto.FIELDS.all());
 
         assertEquals("test@example.com", result.getEmail());
-        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, times(1)).findDtoById(userId);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserById_ShouldSelectOnlyRequestedFields_WhenFieldsGiven() {
+        Long userId = 1L;
+        FieldSet fields = UserDto.FIELDS.parse("email,id");
+        UserDto userDto = new UserDto();
+        userDto.setId(userId);
+        userDto.setEmail("test@example.com");
+        when(userRepository.findDtoById(userId, fields)).thenReturn(Optional.of(userDto));
+
+        UserDto result = userService.getUserById(userId, fields);
+
+        assertEquals("test@example.com", result.getEmail());
+        assertEquals(List.of("id", "email"), fields.names());
+        verify(userRepository, never()).findDtoById(userId);
+    }
+
+    @Test
+    void getUsersSlice_ShouldSelectOnlyRequestedFields_WhenFieldsGiven() {
+        PaginationOptions paginationOptions = new PaginationOptions(0, 10, null, null);
+        FieldSet fields = UserDto.FIELDS.parse("id,firstName");
+        Pageable pageable = PageRequest.of(0, 10, Sort.unsorted());
+        when(userRepository.findDtoSlice("USER", null, fields, pageable))
+                .thenReturn(new SliceImpl<>(List.of(new UserDto()), pageable, false));
+
+        SliceDto<UserDto> result = userService.getUsersSlice("USER", null, paginationOptions, fields);
+
+        assertEquals(1, result.getContent().size());
+        verify(userRepository, never()).findSliceByRole(any(), any());
+    }
+
+    @Test
+    void parseFields_ShouldRejectUnknownFields_AndReuseSelections() {
+        assertThrows(InvalidFieldsException.class, () -> UserDto.FIELDS.parse("id,password"));
+        assertSame(UserDto.FIELDS.parse("role,id"), UserDto.FIELDS.parse(" id , role"));
+        assertTrue(UserDto.FIELDS.parse("").isAll());
     }
 
     @Test
     void getUserById_ShouldThrowUserNotFoundException_WhenUserNotFound() {
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findDtoById(userId)).thenReturn(Optional.empty());
 
-        assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId));
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(userId, UserDto.FIELDS.all()));
     }
 
     @Test
     void getUserByEmail_ShouldReturnUserEmailDto() {
         String email = "test@example.com";
-        User user = new User();
-        user.setEmail(email);
-
         UserEmailDto userEmailDto = new UserEmailDto();
         userEmailDto.setEmail(email);
 
-        when(userRepository.getByEmail(email)).thenReturn(Optional.of(user));
-        when(objectMapper.convertValue(user, UserEmailDto.class)).thenReturn(userEmailDto);
+        when(userRepository.findEmailDtoByEmail(email)).thenReturn(Optional.of(userEmailDto));
 
         UserEmailDto result = userService.getUserByEmail(email);
 
         assertEquals(email, result.getEmail());
-        verify(userRepository, times(1)).getByEmail(email);
+        verify(userRepository, times(1)).findEmailDtoByEmail(email);
+        verify(userRepository, never()).countByNormalizedEmail(any());
     }
 
     @Test
     void getUserByEmail_ShouldThrowUserNotFoundException_WhenUserNotFound() {
         String email = "test@example.com";
-        when(userRepository.getByEmail(email)).thenReturn(Optional.empty());
+        when(userRepository.findEmailDtoByEmail(email)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail(email));
     }
@@ -267,7 +418,7 @@ class UserServiceTest {
         UserDto userDto = new UserDto();
         userDto.setEmail(userEmailDto.getEmail());
 
-        when(departmentServiceProxy.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(true);
+        when(departmentExistenceService.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(true);
         when(objectMapper.convertValue(userEmailDto, User.class)).thenReturn(user);
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(objectMapper.convertValue(user, UserDto.class)).thenReturn(userDto);
@@ -278,6 +429,7 @@ class UserServiceTest {
 
         assertEquals(userEmailDto.getEmail(), result.getEmail());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(credentialEventService, times(1)).userCreated(user);
     }
 
     @Test
@@ -285,42 +437,133 @@ class UserServiceTest {
         UserEmailDto userEmailDto = new UserEmailDto();
         userEmailDto.setEmail("existinguser@example.com");
 
-        when(userRepository.getByEmail(userEmailDto.getEmail())).thenReturn(Optional.of(new User()));
+        when(userEmailFilter.mightContain(userEmailDto.getEmail())).thenReturn(true);
+        when(userRepository.countByNormalizedEmail("existinguser@example.com")).thenReturn(1L);
+
+        assertThrows(EmailAlreadyExistException.class, () -> userService.saveUser(userEmailDto));
+    }
+
+    @Test
+    void saveUser_ShouldQueryEmail_EvenWhenFilterRulesEmailOut() {
+        UserEmailDto userEmailDto = new UserEmailDto();
+        userEmailDto.setEmail("elsewhere@example.com");
+
+        when(userEmailFilter.mightContain(userEmailDto.getEmail())).thenReturn(false);
+        when(userRepository.countByNormalizedEmail("elsewhere@example.com")).thenReturn(1L);
 
         assertThrows(EmailAlreadyExistException.class, () -> userService.saveUser(userEmailDto));
     }
 
+    @Test
+    void saveUser_ShouldThrowEmailAlreadyExistException_WhenEmailKeyIsViolated() {
+        UserEmailDto userEmailDto = new UserEmailDto();
+        userEmailDto.setEmail("race@example.com");
+        userEmailDto.setPassword("password");
+        userEmailDto.setDepartmentId(1L);
+        when(departmentExistenceService.isDepartmentExists(1L)).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("encoded");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("Duplicate entry",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "users.email")));
+
+        assertThrows(EmailAlreadyExistException.class, () -> userService.saveUser(userEmailDto));
+    }
+
+    @Test
+    void checkUserExistsByEmail_ShouldSkipQuery_WhenFilterRulesEmailOut() {
+        when(userEmailFilter.mightContain("new@example.com")).thenReturn(false);
+
+        assertFalse(userService.checkUserExistsByEmail("new@example.com"));
+        verify(userRepository, never()).countByNormalizedEmail(any());
+    }
+
+    @Test
+    void checkUserExistsByEmail_ShouldQueryNormalizedEmail_WhenFilterMightContainEmail() {
+        when(userEmailFilter.mightContain(" Taken@Example.com")).thenReturn(true);
+        when(userRepository.countByNormalizedEmail("taken@example.com")).thenReturn(1L);
+
+        assertTrue(userService.checkUserExistsByEmail(" Taken@Example.com"));
+    }
+
     @Test
     void saveUser_ShouldThrowDepartmentNotFoundException_WhenDepartmentDoesNotExist() {
         UserEmailDto userEmailDto = new UserEmailDto();
         userEmailDto.setEmail("newuser@example.com");
         userEmailDto.setDepartmentId(1L);
 
-        when(departmentServiceProxy.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(false);
+        when(departmentExistenceService.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(false);
 
         assertThrows(DepartmentNotFoundException.class, () -> userService.saveUser(userEmailDto));
     }
 
+    @Test
+    void getUserVersion_ShouldReturnVersionWithoutLoadingUser() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(7L));
+
+        assertEquals(7L, userService.getUserVersion(1L));
+        verify(userRepository, never()).findDtoById(any());
+    }
+
+    @Test
+    void getUserVersion_ShouldThrowUserNotFoundException_WhenUserDoesNotExist() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserVersion(1L));
+    }
+
+    @Test
+    void searchUsers_ShouldReturnUsersInRankOrder() {
+        UserDto first = new UserDto(3L, "Ahmed", "Hassan", "ahmed@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        UserDto second = new UserDto(1L, "Ahmad", "Ali", "ahmad@mail.com", "1234567890", "USER", 1L, "2024-12-26", "2024-12-27");
+        when(userSearchIndex.search("ahm", 20)).thenReturn(List.of(3L, 7L, 1L));
+        when(userRepository.findDtoByIdIn(List.of(3L, 7L, 1L))).thenReturn(List.of(second, first));
+
+        List<UserDto> result = userService.searchUsers("ahm", 20);
+
+        assertEquals(List.of(3L, 1L), result.stream().map(UserDto::getId).toList());
+    }
+
+    @Test
+    void searchUsers_ShouldNotQueryDatabase_WhenNothingMatches() {
+        when(userSearchIndex.search("zzz", 20)).thenReturn(List.of());
+
+        assertTrue(userService.searchUsers("zzz", 20).isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void searchUsers_ShouldRejectInvalidRequests() {
+        assertThrows(InvalidSearchException.class, () -> userService.searchUsers(" ", 20));
+        assertThrows(InvalidSearchException.class, () -> userService.searchUsers("ahmed", 0));
+        assertThrows(InvalidSearchException.class, () -> userService.searchUsers("ahmed", 101));
+        verifyNoInteractions(userSearchIndex);
+    }
+
     @Test
     void deleteUser_ShouldDeleteUser() {
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
+        User user = new User();
+        user.setRole("USER");
+        user.setDepartmentId(2L);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         userService.deleteUser(userId);
 
         verify(userRepository, times(1)).deleteById(userId);
+        verify(credentialEventService, times(1)).userDeleted(userId);
+        verify(userCountCache, times(1)).userRemoved("USER", 2L);
+        verify(userSearchIndex, times(1)).userRemoved(userId);
     }
 
     @Test
     void deleteUser_ShouldThrowUserNotFoundException_WhenUserDoesNotExist() {
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(userId));
     }
 
     @Test
-    void updateUser_ShouldUpdateAndReturnUserDto() {
+    void updateUser_ShouldUpdateAndReturnUserDto() throws Exception {
         Long userId = 1L;
         UserEmailDto userEmailDto = new UserEmailDto();
         userEmailDto.setEmail("updated@example.com");
@@ -328,24 +571,45 @@ class UserServiceTest {
 
         User existingUser = new User();
         existingUser.setId(userId);
+        existingUser.setVersion(1L);
         existingUser.setEmail("old@example.com");
 
-        User updatedUser = new User();
-        updatedUser.setId(userId);
-        updatedUser.setEmail(userEmailDto.getEmail());
-
-        UserDto updatedUserDto = new UserDto();
-        updatedUserDto.setEmail(userEmailDto.getEmail());
-
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(departmentServiceProxy.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(true);
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
-        when(objectMapper.convertValue(updatedUser, UserDto.class)).thenReturn(updatedUserDto);
+        when(departmentExistenceService.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(true);
+        when(objectMapper.updateValue(existingUser, userEmailDto)).thenAnswer(invocation -> {
+            existingUser.setEmail(userEmailDto.getEmail());
+            return existingUser;
+        });
+        when(userRepository.updateIfVersion(userId, 1L, Map.of("email", "updated@example.com"))).thenReturn(1);
+
+        VersionedDto<UserDto> result = userService.updateUser(userId, userEmailDto, null);
+
+        assertEquals(userEmailDto.getEmail(), result.value().getEmail());
+        assertEquals(2L, result.version());
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(credentialEventService, times(1)).userUpdated(existingUser);
+    }
 
-        UserDto result = userService.updateUser(userId, userEmailDto);
+    @Test
+    void updateUser_ShouldThrowPreconditionFailedException_WhenRowChangedConcurrently() throws Exception {
+        Long userId = 1L;
+        UserEmailDto userEmailDto = new UserEmailDto();
+        userEmailDto.setEmail("updated@example.com");
 
-        assertEquals(userEmailDto.getEmail(), result.getEmail());
-        verify(userRepository, times(1)).save(any(User.class));
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setEmail("old@example.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(objectMapper.updateValue(existingUser, userEmailDto)).thenAnswer(invocation -> {
+            existingUser.setEmail(userEmailDto.getEmail());
+            return existingUser;
+        });
+        when(userRepository.updateIfVersion(userId, 1L, Map.of("email", "updated@example.com"))).thenReturn(0);
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(userId, userEmailDto, 1L));
+        verifyNoInteractions(credentialEventService, userCountCache, userSearchIndex);
     }
 
     @Test
@@ -356,12 +620,14 @@ class UserServiceTest {
 
         User existingUser = new User();
         existingUser.setId(userId);
+        existingUser.setVersion(1L);
         existingUser.setEmail("old@example.com");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.getByEmail(userEmailDto.getEmail())).thenReturn(Optional.of(new User()));
+        when(userEmailFilter.mightContain(userEmailDto.getEmail())).thenReturn(true);
+        when(userRepository.countByNormalizedEmail("existing@example.com")).thenReturn(1L);
 
-        assertThrows(EmailAlreadyExistException.class, () -> userService.updateUser(userId, userEmailDto));
+        assertThrows(EmailAlreadyExistException.class, () -> userService.updateUser(userId, userEmailDto, null));
     }
 
     @Test
@@ -373,11 +639,198 @@ class UserServiceTest {
 
         User existingUser = new User();
         existingUser.setId(userId);
+        existingUser.setVersion(1L);
         existingUser.setEmail("old@example.com");
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(departmentServiceProxy.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(false);
+        when(departmentExistenceService.isDepartmentExists(userEmailDto.getDepartmentId())).thenReturn(false);
+
+        assertThrows(DepartmentNotFoundException.class, () -> userService.updateUser(userId, userEmailDto, null));
+    }
+
+    @Test
+    void patchUser_ShouldApplyOnlyPresentFields() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setFirstName("Ahmed");
+        existingUser.setLastName("Hassan");
+        existingUser.setEmail("old@example.com");
+        existingUser.setPhoneNumber("1234567890");
+        existingUser.setRole("USER");
+        existingUser.setDepartmentId(1L);
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setLastName("Ali");
+        patch.setPhoneNumber(null);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userRepository.updateIfVersion(eq(userId), eq(1L), anyMap())).thenReturn(1);
+
+        UserDto result = userService.patchUser(userId, patch, null).value();
+
+        assertEquals("Ahmed", result.getFirstName());
+        assertEquals("Ali", result.getLastName());
+        assertNull(result.getPhoneNumber());
+        assertEquals("old@example.com", result.getEmail());
+        assertNotNull(existingUser.getUpdatedAt());
+        ArgumentCaptor<Map<String, Object>> values = ArgumentCaptor.forClass(Map.class);
+        verify(userRepository, times(1)).updateIfVersion(eq(userId), eq(1L), values.capture());
+        assertEquals(Set.of("lastName", "phoneNumber", "updatedAt"), values.getValue().keySet());
+        verify(credentialEventService, never()).userUpdated(any());
+        verify(userCountCache).userMoved("USER", 1L, "USER", 1L);
+    }
+
+    @Test
+    void patchUser_ShouldSkipWrite_WhenNothingChanges() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setFirstName("Ahmed");
+        existingUser.setDepartmentId(1L);
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setFirstName("Ahmed");
+        patch.setDepartmentId(1L);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        UserDto result = userService.patchUser(userId, patch, null).value();
+
+        assertEquals("Ahmed", result.getFirstName());
+        assertNull(existingUser.getUpdatedAt());
+        verify(userRepository, never()).updateIfVersion(any(), anyLong(), anyMap());
+        verifyNoInteractions(departmentExistenceService, credentialEventService, userCountCache, userSearchIndex);
+    }
+
+    @Test
+    void patchUser_ShouldEncodePasswordAndPublishCredentials() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setPassword("old-hash");
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setPassword("new-password");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.encode("new-password")).thenReturn("new-hash");
+        when(userRepository.updateIfVersion(eq(userId), eq(1L), anyMap())).thenReturn(1);
+
+        userService.patchUser(userId, patch, null);
+
+        assertEquals("new-hash", existingUser.getPassword());
+        verify(credentialEventService, times(1)).userUpdated(existingUser);
+    }
+
+    @Test
+    void patchUser_ShouldThrowInvalidPatchException_WhenRequiredFieldRemoved() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setRole("USER");
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setRole(null);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        assertThrows(InvalidPatchException.class, () -> userService.patchUser(userId, patch, null));
+        verify(userRepository, never()).updateIfVersion(any(), anyLong(), anyMap());
+    }
+
+    @Test
+    void patchUser_ShouldThrowEmailAlreadyExistException_WhenEmailTaken() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setEmail("old@example.com");
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setEmail("existing@example.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userEmailFilter.mightContain("existing@example.com")).thenReturn(true);
+        when(userRepository.countByNormalizedEmail("existing@example.com")).thenReturn(1L);
+
+        assertThrows(EmailAlreadyExistException.class, () -> userService.patchUser(userId, patch, null));
+    }
+
+    @Test
+    void patchUser_ShouldThrowDepartmentNotFoundException_WhenDepartmentDoesNotExist() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(1L);
+        existingUser.setDepartmentId(1L);
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setDepartmentId(999L);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(departmentExistenceService.isDepartmentExists(999L)).thenReturn(false);
+
+        assertThrows(DepartmentNotFoundException.class, () -> userService.patchUser(userId, patch, null));
+    }
+
+    @Test
+    void updateUser_ShouldReturnNewVersion_WhenExpectedVersionMatches() throws Exception {
+        Long userId = 1L;
+        UserEmailDto userEmailDto = new UserEmailDto();
+        userEmailDto.setEmail("old@example.com");
+
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(3L);
+        existingUser.setEmail("old@example.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(objectMapper.updateValue(existingUser, userEmailDto)).thenAnswer(invocation -> {
+            existingUser.setFirstName("Ahmed");
+            return existingUser;
+        });
+        when(userRepository.updateIfVersion(userId, 3L, Map.of("firstName", "Ahmed"))).thenReturn(1);
+
+        VersionedDto<UserDto> result = userService.updateUser(userId, userEmailDto, 3L);
+
+        assertEquals(4L, result.version());
+        assertEquals("old@example.com", result.value().getEmail());
+    }
+
+    @Test
+    void updateUser_ShouldThrowPreconditionFailedException_WhenVersionDiffers() {
+        Long userId = 1L;
+        UserEmailDto userEmailDto = new UserEmailDto();
+        userEmailDto.setEmail("updated@example.com");
+
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(4L);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(userId, userEmailDto, 3L));
+        verify(userRepository, never()).updateIfVersion(any(), anyLong(), anyMap());
+    }
+
+    @Test
+    void patchUser_ShouldThrowPreconditionFailedException_WhenVersionDiffers() {
+        Long userId = 1L;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        existingUser.setVersion(4L);
+
+        UserPatchDto patch = new UserPatchDto();
+        patch.setLastName("Ali");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
 
-        assertThrows(DepartmentNotFoundException.class, () -> userService.updateUser(userId, userEmailDto));
+        assertThrows(PreconditionFailedException.class, () -> userService.patchUser(userId, patch, 3L));
+        verify(userRepository, never()).updateIfVersion(any(), anyLong(), anyMap());
     }
 }
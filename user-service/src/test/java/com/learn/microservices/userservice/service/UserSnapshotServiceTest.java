@@ -0,0 +1,161 @@
+package com.learn.microservices.userservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learn.microservices.userservice.dto.CursorPageDto;
+import com.learn.microservices.userservice.dto.DepartmentDto;
+import com.learn.microservices.userservice.dto.SnapshotManifestDto;
+import com.learn.microservices.userservice.dto.SnapshotPartDto;
+import com.learn.microservices.userservice.dto.UserDto;
+import com.learn.microservices.userservice.exception.SnapshotNotFoundException;
+import com.learn.microservices.userservice.proxy.DepartmentServiceProxy;
+import com.learn.microservices.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+class UserSnapshotServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DepartmentServiceProxy departmentServiceProxy;
+
+    @TempDir
+    private Path snapshotDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserSnapshotService userSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userSnapshotService = new UserSnapshotService(userRepository, departmentServiceProxy, objectMapper,
+                snapshotDirectory.toString(), 3, 2, 4, 1);
+    }
+
+    @Test
+    void partition_ShouldCoverTheWholeIdRange() {
+        List<long[]> ranges = userSnapshotService.partition(1L, 10L);
+
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new long[]{0, 4}, ranges.get(0));
+        assertArrayEquals(new long[]{4, 8}, ranges.get(1));
+        assertArrayEquals(new long[]{8, 10}, ranges.get(2));
+        assertTrue(userSnapshotService.partition(null, null).isEmpty());
+    }
+
+    @Test
+    void createSnapshot_ShouldWriteChecksummedPartsAndManifest() throws Exception {
+        when(departmentServiceProxy.getDepartmentsByCursor("", 500)).thenReturn(
+                new CursorPageDto<>(List.of(new DepartmentDto(1L, "Engineering", null)), 1, true, "next"));
+        when(departmentServiceProxy.getDepartmentsByCursor("next", 500)).thenReturn(
+                new CursorPageDto<>(List.of(new DepartmentDto(2L, "Sales", null)), 1, false, null));
+        when(userRepository.findMinId()).thenReturn(1L);
+        when(userRepository.findMaxId()).thenReturn(10L);
+        when(userRepository.findRange(anyLong(), anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            int limit = invocation.<Limit>getArgument(2).max();
+            return LongStream.rangeClosed(afterId + 1, toId).limit(limit).mapToObj(UserSnapshotServiceTest::user).toList();
+        });
+
+        SnapshotManifestDto manifest = userSnapshotService.createSnapshot();
+
+        assertEquals(10, manifest.getTotalRows());
+        assertEquals(3, manifest.getParts().size());
+        Path directory = snapshotDirectory.resolve(manifest.getId());
+        assertTrue(Files.isRegularFile(directory.resolve("manifest.json")));
+        assertFalse(Files.exists(snapshotDirectory.resolve(manifest.getId() + ".partial")));
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (SnapshotPartDto part : manifest.getParts()) {
+            Path file = directory.resolve(part.getFile());
+            assertEquals(Files.size(file), part.getBytes());
+            assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file))), part.getSha256());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                List<String> lines = reader.lines().toList();
+                assertEquals(part.getRows(), lines.size());
+                for (String line : lines) {
+                    rows.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        assertEquals(LongStream.rangeClosed(1, 10).boxed().toList(), rows.stream().map(row -> row.get("id").asLong()).toList());
+        assertEquals("Sales", rows.get(0).get("departmentName").asText());
+        assertEquals("Engineering", rows.get(1).get("departmentName").asText());
+        assertEquals("user2@mail.com", rows.get(1).get("email").asText());
+        assertEquals(List.of(manifest), userSnapshotService.getSnapshots());
+    }
+
+    @Test
+    void createSnapshot_ShouldKeepOnlyRetainedSnapshots() throws Exception {
+        Files.createDirectories(snapshotDirectory.resolve("20000101T000000000Z"));
+        Files.writeString(snapshotDirectory.resolve("20000101T000000000Z").resolve("manifest.json"), "{}");
+        when(departmentServiceProxy.getDepartmentsByCursor(anyString(), anyInt())).thenReturn(new CursorPageDto<>(List.of(), 0, false, null));
+
+        SnapshotManifestDto manifest = userSnapshotService.createSnapshot();
+
+        assertEquals(0, manifest.getTotalRows());
+        assertFalse(Files.exists(snapshotDirectory.resolve("20000101T000000000Z")));
+        assertEquals(1, userSnapshotService.getSnapshots().size());
+    }
+
+    @Test
+    void createSnapshot_ShouldUseDistinctIds_WhenRunBackToBack() throws Exception {
+        when(departmentServiceProxy.getDepartmentsByCursor(anyString(), anyInt())).thenReturn(new CursorPageDto<>(List.of(), 0, false, null));
+
+        SnapshotManifestDto first = userSnapshotService.createSnapshot();
+        SnapshotManifestDto second = userSnapshotService.createSnapshot();
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(List.of(second), userSnapshotService.getSnapshots());
+    }
+
+    @Test
+    void createSnapshot_ShouldRemovePartialDirectory_WhenPartFails() throws Exception {
+        when(departmentServiceProxy.getDepartmentsByCursor(anyString(), anyInt())).thenReturn(new CursorPageDto<>(List.of(), 0, false, null));
+        when(userRepository.findMinId()).thenReturn(1L);
+        when(userRepository.findMaxId()).thenReturn(10L);
+        when(userRepository.findRange(anyLong(), anyLong(), any(Limit.class))).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class, () -> userSnapshotService.createSnapshot());
+
+        try (Stream<Path> entries = Files.list(snapshotDirectory)) {
+            assertEquals(0, entries.count());
+        }
+    }
+
+    @Test
+    void getSnapshotFile_ShouldRejectUnknownNames() {
+        assertThrows(SnapshotNotFoundException.class, () -> userSnapshotService.getSnapshotFile("20000101T000000000Z", "../../etc/passwd"));
+        assertThrows(SnapshotNotFoundException.class, () -> userSnapshotService.getSnapshotFile("..", "manifest.json"));
+        assertThrows(SnapshotNotFoundException.class, () -> userSnapshotService.getSnapshotFile("20000101T000000000Z", "manifest.json"));
+    }
+
+    private static UserDto user(long id) {
+        return new UserDto(id, "First" + id, "Last" + id, "user" + id + "@mail.com", null, "USER", id % 2 + 1, (String) null, null);
+    }
+}